@@ -0,0 +1,275 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis;
+
+import static net.ssehub.kernel_haven.util.null_checks.NullHelpers.notNull;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.ssehub.kernel_haven.util.FormatException;
+import net.ssehub.kernel_haven.util.logic.Conjunction;
+import net.ssehub.kernel_haven.util.logic.Disjunction;
+import net.ssehub.kernel_haven.util.logic.False;
+import net.ssehub.kernel_haven.util.logic.Formula;
+import net.ssehub.kernel_haven.util.logic.Negation;
+import net.ssehub.kernel_haven.util.logic.True;
+import net.ssehub.kernel_haven.util.logic.Variable;
+import net.ssehub.kernel_haven.util.null_checks.NonNull;
+import net.ssehub.kernel_haven.util.null_checks.Nullable;
+
+/**
+ * Reads files written by the {@link BinaryFormulaWriter}. The file is memory-mapped and decoded record by record; no
+ * parsing of formula strings is involved. Formula nodes that are shared in the file are shared in memory, too.
+ * <p>
+ * Usage: call {@link #next()} until it returns <code>false</code>; after each call, {@link #getName()} and
+ * {@link #getFormulas()} return the current record.
+ * </p>
+ *
+ * @author agent
+ */
+public class BinaryFormulaReader implements Closeable {
+
+    private @NonNull File file;
+
+    private @NonNull FileChannel channel;
+
+    private @NonNull MappedByteBuffer buffer;
+
+    private @NonNull List<@NonNull String> strings;
+
+    private @NonNull List<@NonNull Formula> nodes;
+
+    private @Nullable String name;
+
+    private @NonNull List<@NonNull Formula> formulas;
+
+    /**
+     * Opens the given file and checks its header.
+     *
+     * @param file The file to read.
+     * @param expectedKind The expected kind of content, e.g. {@link BinaryFormulaWriter#KIND_PRESENCE_CONDITIONS}.
+     *
+     * @throws IOException If reading the file fails.
+     * @throws FormatException If the file is not a binary formula file of the expected kind and version.
+     */
+    public BinaryFormulaReader(@NonNull File file, int expectedKind) throws IOException, FormatException {
+        this.file = file;
+        this.channel = notNull(FileChannel.open(file.toPath(), StandardOpenOption.READ));
+        if (channel.size() > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException("File is too large to be mapped into memory: " + file);
+        }
+        this.buffer = notNull(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+        this.strings = new ArrayList<>();
+        this.nodes = new ArrayList<>();
+        this.formulas = new ArrayList<>();
+
+        try {
+            boolean valid = buffer.remaining() >= BinaryFormulaWriter.MAGIC.length;
+            for (int i = 0; valid && i < BinaryFormulaWriter.MAGIC.length; i++) {
+                valid = buffer.get() == BinaryFormulaWriter.MAGIC[i];
+            }
+            if (!valid) {
+                throw new FormatException("Not a binary formula file: " + file);
+            }
+
+            int version = readVarInt();
+            int kind = readVarInt();
+            if (version != BinaryFormulaWriter.VERSION || kind != expectedKind) {
+                throw new FormatException("Unsupported binary formula file (version " + version + ", content " + kind
+                        + "): " + file);
+            }
+
+        } catch (IOException | FormatException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return Whether a record was read; <code>false</code> if the end of the file is reached.
+     *
+     * @throws IOException If reading the file fails.
+     * @throws FormatException If the file is corrupted.
+     */
+    public boolean next() throws IOException, FormatException {
+        name = null;
+        formulas = new ArrayList<>();
+
+        int entry;
+        while (name == null && (entry = readVarInt()) != BinaryFormulaWriter.ENTRY_END) {
+            switch (entry) {
+            case BinaryFormulaWriter.ENTRY_STRING:
+                byte[] bytes = new byte[readVarInt()];
+                if (bytes.length > buffer.remaining()) {
+                    throw new EOFException("Unexpected end of file " + file);
+                }
+                buffer.get(bytes);
+                strings.add(new String(bytes, StandardCharsets.UTF_8));
+                break;
+
+            case BinaryFormulaWriter.ENTRY_NODE:
+                nodes.add(readNode());
+                break;
+
+            case BinaryFormulaWriter.ENTRY_RECORD:
+                String recordName = getString(readVarInt());
+                int numFormulas = readVarInt();
+                for (int i = 0; i < numFormulas; i++) {
+                    formulas.add(getNode(readVarInt()));
+                }
+                name = recordName;
+                break;
+
+            default:
+                throw new FormatException("Unknown entry type " + entry + " in " + file);
+            }
+        }
+
+        return name != null;
+    }
+
+    /**
+     * Returns the name of the current record.
+     *
+     * @return The name of the record read by the last call to {@link #next()}.
+     */
+    public @NonNull String getName() {
+        return notNull(name);
+    }
+
+    /**
+     * Returns the formulas of the current record.
+     *
+     * @return The formulas of the record read by the last call to {@link #next()}.
+     */
+    public @NonNull List<@NonNull Formula> getFormulas() {
+        return formulas;
+    }
+
+    /**
+     * Decodes the definition of a formula node.
+     *
+     * @return The decoded node.
+     *
+     * @throws IOException If reading the file fails.
+     * @throws FormatException If the node refers to undefined strings or nodes.
+     */
+    private @NonNull Formula readNode() throws IOException, FormatException {
+        Formula result;
+        int type = readVarInt();
+        switch (type) {
+        case BinaryFormulaWriter.NODE_FALSE:
+            result = False.INSTANCE;
+            break;
+        case BinaryFormulaWriter.NODE_TRUE:
+            result = True.INSTANCE;
+            break;
+        case BinaryFormulaWriter.NODE_VARIABLE:
+            result = new Variable(getString(readVarInt()));
+            break;
+        case BinaryFormulaWriter.NODE_NEGATION:
+            result = new Negation(getNode(readVarInt()));
+            break;
+        case BinaryFormulaWriter.NODE_CONJUNCTION:
+            result = new Conjunction(getNode(readVarInt()), getNode(readVarInt()));
+            break;
+        case BinaryFormulaWriter.NODE_DISJUNCTION:
+            result = new Disjunction(getNode(readVarInt()), getNode(readVarInt()));
+            break;
+        default:
+            throw new FormatException("Unknown formula node type " + type + " in " + file);
+        }
+        return result;
+    }
+
+    /**
+     * Returns an already defined string.
+     *
+     * @param id The ID of the string.
+     *
+     * @return The string.
+     *
+     * @throws FormatException If the string is not defined.
+     */
+    private @NonNull String getString(int id) throws FormatException {
+        if (id >= strings.size()) {
+            throw new FormatException("Undefined string " + id + " in " + file);
+        }
+        return notNull(strings.get(id));
+    }
+
+    /**
+     * Returns an already defined formula node.
+     *
+     * @param id The ID of the node.
+     *
+     * @return The node.
+     *
+     * @throws FormatException If the node is not defined.
+     */
+    private @NonNull Formula getNode(int id) throws FormatException {
+        if (id >= nodes.size()) {
+            throw new FormatException("Undefined formula node " + id + " in " + file);
+        }
+        return notNull(nodes.get(id));
+    }
+
+    /**
+     * Reads an unsigned variable-length integer.
+     *
+     * @return The read value, never negative.
+     *
+     * @throws IOException If the file ends before the value is complete.
+     * @throws FormatException If the value does not fit into a non-negative <code>int</code>.
+     */
+    private int readVarInt() throws IOException, FormatException {
+        int result = 0;
+        int shift = 0;
+        int current;
+        do {
+            if (!buffer.hasRemaining()) {
+                throw new EOFException("Unexpected end of file " + file);
+            }
+            current = buffer.get();
+            // the fifth byte may only contain the bits 28 to 30; bit 31 would make the value negative
+            if (shift > 28 || (shift == 28 && (current & 0x78) != 0)) {
+                throw new FormatException("Integer out of range in " + file);
+            }
+            result |= (current & 0x7F) << shift;
+            shift += 7;
+        } while ((current & 0x80) != 0);
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
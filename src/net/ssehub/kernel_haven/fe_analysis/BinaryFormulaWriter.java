@@ -0,0 +1,315 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import net.ssehub.kernel_haven.util.logic.Conjunction;
+import net.ssehub.kernel_haven.util.logic.Disjunction;
+import net.ssehub.kernel_haven.util.logic.False;
+import net.ssehub.kernel_haven.util.logic.Formula;
+import net.ssehub.kernel_haven.util.logic.Negation;
+import net.ssehub.kernel_haven.util.logic.True;
+import net.ssehub.kernel_haven.util.logic.Variable;
+import net.ssehub.kernel_haven.util.null_checks.NonNull;
+
+/**
+ * Writes named lists of formulas (e.g. presence conditions or feature effects of variables) in a compact binary
+ * format, which can be read much faster than CSV by the {@link BinaryFormulaReader}.
+ * <p>
+ * The file starts with a header ({@link #MAGIC}, {@link #VERSION} and the kind of content), followed by a stream of
+ * entries. Each string (variable name) and each formula node is defined exactly once, the first time it is used, and
+ * gets the next free ID of its table. Later entries refer to it only by this ID. Structurally equal sub-formulas are
+ * stored only once, thus the formulas are stored as a DAG. All numbers are written as unsigned variable-length
+ * integers (7 bits per byte, least significant group first).
+ * </p>
+ * <ul>
+ *      <li>{@link #ENTRY_STRING}: length, UTF-8 bytes</li>
+ *      <li>{@link #ENTRY_NODE}: node type, followed by the string ID (variables) or the child node IDs</li>
+ *      <li>{@link #ENTRY_RECORD}: string ID of the name, number of formulas, node ID of each formula</li>
+ *      <li>{@link #ENTRY_END}: end of file</li>
+ * </ul>
+ *
+ * @author agent
+ */
+public class BinaryFormulaWriter implements Closeable {
+
+    /**
+     * Content kind for files with the presence conditions of variables.
+     */
+    public static final int KIND_PRESENCE_CONDITIONS = 1;
+
+    /**
+     * Content kind for files with the feature effects of variables.
+     */
+    public static final int KIND_FEATURE_EFFECTS = 2;
+
+    static final byte @NonNull [] MAGIC = {'K', 'H', 'B', 'F'};
+
+    static final int VERSION = 1;
+
+    static final int ENTRY_END = 0;
+
+    static final int ENTRY_STRING = 1;
+
+    static final int ENTRY_NODE = 2;
+
+    static final int ENTRY_RECORD = 3;
+
+    static final int NODE_FALSE = 0;
+
+    static final int NODE_TRUE = 1;
+
+    static final int NODE_VARIABLE = 2;
+
+    static final int NODE_NEGATION = 3;
+
+    static final int NODE_CONJUNCTION = 4;
+
+    static final int NODE_DISJUNCTION = 5;
+
+    /**
+     * Identifies an already written node by its type and operands.
+     */
+    private static final class NodeKey {
+
+        private int type;
+
+        private int first;
+
+        private int second;
+
+        /**
+         * Creates a key.
+         *
+         * @param type The node type.
+         * @param first The string ID of a variable, or the ID of the first child node; -1 if not used.
+         * @param second The ID of the second child node; -1 if not used.
+         */
+        NodeKey(int type, int first, int second) {
+            this.type = type;
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public int hashCode() {
+            return (type * 31 + first) * 31 + second;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            boolean equal = false;
+            if (obj instanceof NodeKey) {
+                NodeKey other = (NodeKey) obj;
+                equal = type == other.type && first == other.first && second == other.second;
+            }
+            return equal;
+        }
+
+    }
+
+    private @NonNull OutputStream out;
+
+    private @NonNull Map<String, Integer> strings;
+
+    /**
+     * The IDs of already written nodes, by their structure. Ensures that structurally equal nodes are written once.
+     */
+    private @NonNull Map<NodeKey, Integer> nodes;
+
+    /**
+     * The IDs of the formula instances of the current record. A shortcut for formulas that are shared in memory,
+     * which avoids visiting shared sub-formulas more than once. Cleared after each record, so that the writer does not
+     * keep all written formulas alive; equal formulas of different records are found in {@link #nodes}.
+     */
+    private @NonNull Map<Formula, Integer> instances;
+
+    /**
+     * Creates the given file and writes the header.
+     *
+     * @param file The file to write to. Overwritten if it exists.
+     * @param kind The kind of content, e.g. {@link #KIND_PRESENCE_CONDITIONS}.
+     *
+     * @throws IOException If creating the file fails.
+     */
+    public BinaryFormulaWriter(@NonNull File file, int kind) throws IOException {
+        this.out = new BufferedOutputStream(new FileOutputStream(file), 1 << 16);
+        this.strings = new HashMap<>();
+        this.nodes = new HashMap<>();
+        this.instances = new IdentityHashMap<>();
+
+        try {
+            out.write(MAGIC);
+            writeVarInt(VERSION);
+            writeVarInt(kind);
+        } catch (IOException e) {
+            try {
+                out.close();
+            } catch (IOException e2) {
+                e.addSuppressed(e2);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Writes a named list of formulas, e.g. a variable with its presence conditions.
+     *
+     * @param name The name of the record, e.g. the variable name.
+     * @param formulas The formulas of the record.
+     *
+     * @throws IOException If writing fails.
+     */
+    public void writeRecord(@NonNull String name, @NonNull Collection<@NonNull Formula> formulas)
+            throws IOException {
+
+        int nameId = defineString(name);
+        int[] formulaIds = new int[formulas.size()];
+        int i = 0;
+        try {
+            for (Formula formula : formulas) {
+                formulaIds[i++] = defineNode(formula);
+            }
+        } finally {
+            instances.clear();
+        }
+
+        writeVarInt(ENTRY_RECORD);
+        writeVarInt(nameId);
+        writeVarInt(formulaIds.length);
+        for (int id : formulaIds) {
+            writeVarInt(id);
+        }
+    }
+
+    /**
+     * Returns the ID of the given string, writing its definition first if necessary.
+     *
+     * @param string The string to define.
+     *
+     * @return The ID of the string.
+     *
+     * @throws IOException If writing fails.
+     */
+    private int defineString(@NonNull String string) throws IOException {
+        Integer id = strings.get(string);
+        if (id == null) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(ENTRY_STRING);
+            writeVarInt(bytes.length);
+            out.write(bytes);
+
+            id = strings.size();
+            strings.put(string, id);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the ID of the given formula node, writing its definition (and that of its children) first if
+     * necessary.
+     *
+     * @param formula The formula to define.
+     *
+     * @return The node ID of the formula.
+     *
+     * @throws IOException If writing fails or the formula type is not supported.
+     */
+    private int defineNode(@NonNull Formula formula) throws IOException {
+        Integer id = instances.get(formula);
+        if (id == null) {
+            NodeKey key;
+            if (formula instanceof Variable) {
+                key = new NodeKey(NODE_VARIABLE, defineString(((Variable) formula).getName()), -1);
+            } else if (formula instanceof Negation) {
+                key = new NodeKey(NODE_NEGATION, defineNode(((Negation) formula).getFormula()), -1);
+            } else if (formula instanceof Conjunction) {
+                Conjunction conjunction = (Conjunction) formula;
+                key = new NodeKey(NODE_CONJUNCTION, defineNode(conjunction.getLeft()),
+                        defineNode(conjunction.getRight()));
+            } else if (formula instanceof Disjunction) {
+                Disjunction disjunction = (Disjunction) formula;
+                key = new NodeKey(NODE_DISJUNCTION, defineNode(disjunction.getLeft()),
+                        defineNode(disjunction.getRight()));
+            } else if (formula instanceof True) {
+                key = new NodeKey(NODE_TRUE, -1, -1);
+            } else if (formula instanceof False) {
+                key = new NodeKey(NODE_FALSE, -1, -1);
+            } else {
+                throw new IOException("Can't write formula of type " + formula.getClass().getName());
+            }
+
+            id = nodes.get(key);
+            if (id == null) {
+                writeVarInt(ENTRY_NODE);
+                writeVarInt(key.type);
+                if (key.first != -1) {
+                    writeVarInt(key.first);
+                }
+                if (key.second != -1) {
+                    writeVarInt(key.second);
+                }
+
+                id = nodes.size();
+                nodes.put(key, id);
+            }
+            instances.put(formula, id);
+        }
+        return id;
+    }
+
+    /**
+     * Writes an unsigned variable-length integer.
+     *
+     * @param value The value to write. Must not be negative.
+     *
+     * @throws IOException If writing fails.
+     */
+    private void writeVarInt(int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            out.write((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.write(remaining);
+    }
+
+    /**
+     * Writes the end marker and closes the file.
+     *
+     * @throws IOException If writing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            writeVarInt(ENTRY_END);
+        } finally {
+            out.close();
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis;
+
+import static net.ssehub.kernel_haven.util.null_checks.NullHelpers.notNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.ssehub.kernel_haven.util.logic.Variable;
+import net.ssehub.kernel_haven.util.logic.parser.VariableCache;
+import net.ssehub.kernel_haven.util.null_checks.NonNull;
+
+/**
+ * A thread-safe {@link VariableCache}. Multiple parsers (one per thread, since parsers are not thread-safe) can share
+ * one instance, so that all parsed formulas use the same {@link Variable} instance for each name.
+ *
+ * @author agent
+ */
+public class ConcurrentVariableCache extends VariableCache {
+
+    private @NonNull Map<String, Variable> variables;
+
+    /**
+     * Creates an empty cache.
+     */
+    public ConcurrentVariableCache() {
+        this.variables = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public @NonNull Variable getVariable(@NonNull String name) {
+        return notNull(variables.computeIfAbsent(name, Variable::new));
+    }
+
+}
@@ -21,12 +21,13 @@ import net.ssehub.kernel_haven.analysis.JoinComponent;
 import net.ssehub.kernel_haven.analysis.PipelineAnalysis;
 import net.ssehub.kernel_haven.analysis.SplitComponent;
 import net.ssehub.kernel_haven.config.Configuration;
-import net.ssehub.kernel_haven.fe_analysis.fes.FeatureEffectFinder;
 import net.ssehub.kernel_haven.fe_analysis.fes.FeatureRelations;
 import net.ssehub.kernel_haven.fe_analysis.pcs.PcFinder;
-import net.ssehub.kernel_haven.fe_analysis.pcs.PcFinder.VariableWithPcs;
-import net.ssehub.kernel_haven.fe_analysis.relations.PotentialParentFinder;
+import net.ssehub.kernel_haven.fe_analysis.relations.FeatureEffectSelector;
 import net.ssehub.kernel_haven.fe_analysis.relations.PotentialParentRelationFinder;
+import net.ssehub.kernel_haven.fe_analysis.relations.PotentialParentSelector;
+import net.ssehub.kernel_haven.fe_analysis.relations.SharedFeatureEffectFinder;
+import net.ssehub.kernel_haven.fe_analysis.relations.SharedFeatureEffectFinder.FeatureEffectWithParents;
 import net.ssehub.kernel_haven.util.null_checks.NonNull;
 
 /**
@@ -48,13 +49,16 @@ public class EnhancedDependencyGraph extends PipelineAnalysis {
     protected @NonNull AnalysisComponent<?> createPipeline() throws SetUpException {
         // Common input
         PcFinder finder =  new PcFinder(config, getCmComponent(), getBmComponent());
-        SplitComponent<VariableWithPcs> pcSplit = new SplitComponent<>(config, finder);
+        
+        // Feature effects and potential parents share the XOR elements of the presence conditions
+        SharedFeatureEffectFinder sharedFinder = new SharedFeatureEffectFinder(config, finder);
+        SplitComponent<FeatureEffectWithParents> feSplit = new SplitComponent<>(config, sharedFinder);
 
         // "Final" Analysis components of the analysis branches
         FeatureRelations relationsComponent = new FeatureRelations(config,
-            new FeatureEffectFinder(config, pcSplit.createOutputComponent()));
+            new FeatureEffectSelector(config, feSplit.createOutputComponent()));
         PotentialParentRelationFinder parentComponent = new PotentialParentRelationFinder(config,
-            new PotentialParentFinder(config, pcSplit.createOutputComponent()));
+            new PotentialParentSelector(config, feSplit.createOutputComponent()));
         
         // Automatically prints results of PotentialParentFinder & FeatureRelations
         // Other results must be printed via the analysis.output.intermediate_results config
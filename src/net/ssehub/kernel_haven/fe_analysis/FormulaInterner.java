@@ -0,0 +1,206 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.ssehub.kernel_haven.util.logic.Conjunction;
+import net.ssehub.kernel_haven.util.logic.Disjunction;
+import net.ssehub.kernel_haven.util.logic.False;
+import net.ssehub.kernel_haven.util.logic.Formula;
+import net.ssehub.kernel_haven.util.logic.IFormulaVisitor;
+import net.ssehub.kernel_haven.util.logic.Negation;
+import net.ssehub.kernel_haven.util.logic.True;
+import net.ssehub.kernel_haven.util.logic.Variable;
+import net.ssehub.kernel_haven.util.null_checks.NonNull;
+import net.ssehub.kernel_haven.util.null_checks.Nullable;
+
+/**
+ * A hash-consing table for {@link Formula}s. Structurally equal formulas are mapped to one canonical instance, so
+ * that formulas shared by many variables are only kept once in memory and can be compared by reference.
+ * <p>
+ * Formulas are interned bottom-up: the children of a node are interned first, thus a node can be looked up by its
+ * type and the identity of its (already canonical) children. The hash of such a lookup key is computed once in
+ * constant time, instead of recursively walking the whole sub-tree like {@link Formula#hashCode()} does.
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ *
+ * @author agent
+ */
+public class FormulaInterner {
+
+    /**
+     * The type of a node in a {@link NodeKey}.
+     */
+    private static enum NodeType {
+        VARIABLE, NEGATION, CONJUNCTION, DISJUNCTION;
+    }
+
+    /**
+     * The lookup key for a single formula node. Children are compared by identity, since they are already interned.
+     */
+    private static final class NodeKey {
+
+        private @NonNull NodeType type;
+
+        private @NonNull Object first;
+
+        private @Nullable Object second;
+
+        private int hash;
+
+        /**
+         * Creates a lookup key.
+         *
+         * @param type The type of the node.
+         * @param first The variable name or the first (interned) operand.
+         * @param second The second (interned) operand, <code>null</code> for variables and negations.
+         */
+        NodeKey(@NonNull NodeType type, @NonNull Object first, @Nullable Object second) {
+            this.type = type;
+            this.first = first;
+            this.second = second;
+
+            if (type == NodeType.VARIABLE) {
+                hash = first.hashCode();
+            } else {
+                hash = 31 * type.hashCode() + System.identityHashCode(first);
+                hash = 31 * hash + System.identityHashCode(second);
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            boolean equal = false;
+            if (obj instanceof NodeKey) {
+                NodeKey other = (NodeKey) obj;
+                if (this.type == other.type && this.hash == other.hash) {
+                    if (type == NodeType.VARIABLE) {
+                        equal = this.first.equals(other.first);
+                    } else {
+                        equal = this.first == other.first && this.second == other.second;
+                    }
+                }
+            }
+            return equal;
+        }
+
+    }
+
+    private @NonNull Map<NodeKey, Formula> table;
+
+    private @NonNull IFormulaVisitor<@NonNull Formula> visitor;
+
+    /**
+     * Creates an empty {@link FormulaInterner}.
+     */
+    public FormulaInterner() {
+        this.table = new ConcurrentHashMap<>();
+        this.visitor = new IFormulaVisitor<@NonNull Formula>() {
+
+            @Override
+            public @NonNull Formula visitFalse(@NonNull False falseConstant) {
+                return falseConstant;
+            }
+
+            @Override
+            public @NonNull Formula visitTrue(@NonNull True trueConstant) {
+                return trueConstant;
+            }
+
+            @Override
+            public @NonNull Formula visitVariable(@NonNull Variable variable) {
+                return lookup(new NodeKey(NodeType.VARIABLE, variable.getName(), null), variable);
+            }
+
+            @Override
+            public @NonNull Formula visitNegation(@NonNull Negation formula) {
+                Formula nested = formula.getFormula().accept(this);
+                Formula candidate = nested == formula.getFormula() ? formula : new Negation(nested);
+                return lookup(new NodeKey(NodeType.NEGATION, nested, null), candidate);
+            }
+
+            @Override
+            public @NonNull Formula visitDisjunction(@NonNull Disjunction formula) {
+                Formula left = formula.getLeft().accept(this);
+                Formula right = formula.getRight().accept(this);
+                Formula candidate = left == formula.getLeft() && right == formula.getRight()
+                        ? formula : new Disjunction(left, right);
+                return lookup(new NodeKey(NodeType.DISJUNCTION, left, right), candidate);
+            }
+
+            @Override
+            public @NonNull Formula visitConjunction(@NonNull Conjunction formula) {
+                Formula left = formula.getLeft().accept(this);
+                Formula right = formula.getRight().accept(this);
+                Formula candidate = left == formula.getLeft() && right == formula.getRight()
+                        ? formula : new Conjunction(left, right);
+                return lookup(new NodeKey(NodeType.CONJUNCTION, left, right), candidate);
+            }
+        };
+    }
+
+    /**
+     * Returns the canonical instance for the given key. If there is none yet, the given candidate becomes the
+     * canonical instance.
+     *
+     * @param key The lookup key of the node.
+     * @param candidate The formula to store if no canonical instance exists.
+     *
+     * @return The canonical instance.
+     */
+    private @NonNull Formula lookup(@NonNull NodeKey key, @NonNull Formula candidate) {
+        Formula existing = table.putIfAbsent(key, candidate);
+        return existing != null ? existing : candidate;
+    }
+
+    /**
+     * Returns the canonical instance of the given formula. All formulas that are structurally equal to the given one
+     * will be mapped to the same instance.
+     *
+     * @param formula The formula to intern.
+     *
+     * @return The canonical instance, structurally equal to the given formula.
+     */
+    public @NonNull Formula intern(@NonNull Formula formula) {
+        return formula.accept(visitor);
+    }
+
+    /**
+     * Returns the number of distinct formula nodes (excluding constants) stored in this table.
+     *
+     * @return The number of distinct nodes.
+     */
+    public int size() {
+        return table.size();
+    }
+
+    /**
+     * Removes all canonical instances from this table.
+     */
+    public void clear() {
+        table.clear();
+    }
+
+}
@@ -17,16 +17,22 @@ package net.ssehub.kernel_haven.fe_analysis;
 
 import static net.ssehub.kernel_haven.util.null_checks.NullHelpers.notNull;
 
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 
 import net.ssehub.kernel_haven.PipelineConfigurator;
 import net.ssehub.kernel_haven.SetUpException;
 import net.ssehub.kernel_haven.config.Configuration;
 import net.ssehub.kernel_haven.config.DefaultSettings;
+import net.ssehub.kernel_haven.fe_analysis.Settings.FeComputationType;
 import net.ssehub.kernel_haven.fe_analysis.Settings.SimplificationType;
 import net.ssehub.kernel_haven.fe_analysis.fes.FeatureEffectFinder;
 import net.ssehub.kernel_haven.fe_analysis.pcs.PcFinder;
@@ -46,6 +52,40 @@ import net.ssehub.kernel_haven.variability_model.VariabilityModel;
  */
 public class PresenceConditionAnalysisHelper {
     
+    /**
+     * The maximum number of formulas for which {@link #getVariables(Formula)} keeps the variables.
+     */
+    private static final int VARIABLE_SET_CACHE_SIZE = 8192;
+    
+    /**
+     * Wraps a formula, so that it is compared by identity instead of (expensive, recursive) equality. With interned
+     * formulas, equal formulas are the same instance anyway.
+     */
+    private static final class IdentityKey {
+        
+        private @NonNull Formula formula;
+        
+        /**
+         * Creates a key for the given formula.
+         * 
+         * @param formula The formula to wrap.
+         */
+        IdentityKey(@NonNull Formula formula) {
+            this.formula = formula;
+        }
+        
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(formula);
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof IdentityKey && ((IdentityKey) obj).formula == formula;
+        }
+        
+    }
+    
     /**
      * Whether non-boolean replacements are enabled. This is true if the NonBooleanPreperation ran on the source tree.
      */
@@ -55,9 +95,37 @@ public class PresenceConditionAnalysisHelper {
     
     private boolean considerVmVarsOnly;
     private @NonNull SimplificationType simplificationType;
+    private @NonNull FeComputationType feComputationType;
     
     private @NonNull Pattern relevantVarsPattern;
     private @Nullable VariabilityModel vm;
+    
+    /**
+     * Memoizes {@link #doReplacements(Formula)} for variables: maps a variable name to the variable to use instead.
+     * If the name needs no replacements, the value is a variable with the same name.
+     */
+    private @NonNull Map<String, Variable> replacedVariables;
+    
+    /**
+     * Memoizes {@link #removeReplacements(Formula)} for variables, like {@link #replacedVariables}.
+     */
+    private @NonNull Map<String, Variable> removedVariables;
+    
+    /**
+     * The variables of recently used formulas, see {@link #getVariables(Formula)}. Least recently used entries are
+     * evicted. Access must be synchronized on this map. <code>null</code> if formulas are not interned, since equal
+     * formulas are rarely the same instance then, thus the cache would only add contention.
+     */
+    private @Nullable LinkedHashMap<IdentityKey, Set<@NonNull Variable>> variableSets;
+    
+    /**
+     * The relevance of each variable name that was checked by {@link #isRelevant(String)} so far.
+     */
+    private @NonNull Map<String, Boolean> relevance;
+    
+    private @NonNull AtomicLong relevanceHits;
+    
+    private @NonNull AtomicLong relevanceMisses;
 
     /**
      * Sole constructor for this class.
@@ -69,10 +137,13 @@ public class PresenceConditionAnalysisHelper {
     public PresenceConditionAnalysisHelper(@NonNull Configuration config) throws SetUpException {
         config.registerSetting(Settings.RELEVANT_VARIABLES);
         config.registerSetting(Settings.SIMPLIFIY);
+        config.registerSetting(Settings.FE_COMPUTATION);
+        config.registerSetting(Settings.INTERN_FORMULAS);
         
         relevantVarsPattern = config.getValue(Settings.RELEVANT_VARIABLES);
         considerVmVarsOnly = config.getValue(DefaultSettings.ANALYSIS_USE_VARMODEL_VARIABLES_ONLY);
         simplificationType = config.getValue(Settings.SIMPLIFIY);
+        feComputationType = config.getValue(Settings.FE_COMPUTATION);
         
         vm = considerVmVarsOnly ? getVariabilityModel() : null;
         if (null == vm && considerVmVarsOnly) {
@@ -90,6 +161,24 @@ public class PresenceConditionAnalysisHelper {
         }
         
         this.replaceNonBooleanReplacements = nonBooleanMode || config.getValue(DefaultSettings.FUZZY_PARSING);
+        
+        this.replacedVariables = new ConcurrentHashMap<>();
+        this.removedVariables = new ConcurrentHashMap<>();
+        this.relevance = new ConcurrentHashMap<>();
+        this.relevanceHits = new AtomicLong();
+        this.relevanceMisses = new AtomicLong();
+        if (config.getValue(Settings.INTERN_FORMULAS)) {
+            this.variableSets = new LinkedHashMap<IdentityKey, Set<@NonNull Variable>>(16, 0.75f, true) {
+                
+                private static final long serialVersionUID = -2735326541529651254L;
+                
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<IdentityKey, Set<@NonNull Variable>> eldest) {
+                    return size() > VARIABLE_SET_CACHE_SIZE;
+                }
+                
+            };
+        }
     }
     
     /**
@@ -130,32 +219,95 @@ public class PresenceConditionAnalysisHelper {
     }
     
     /**
-     * Checks if a complete formula should be considered.
+     * Returns all variables of the given formula, like {@link #findVars(Formula, Set)}. If formulas are interned
+     * (see {@link Settings#INTERN_FORMULAS}), the result is cached for recently used formula instances, thus repeated
+     * calls for the same formula don't walk through the formula again.
+     * 
+     * @param formula The formula to find variables in.
+     * 
+     * @return The variables of the formula. Must not be modified.
+     */
+    public @NonNull Set<@NonNull Variable> getVariables(@NonNull Formula formula) {
+        LinkedHashMap<IdentityKey, Set<@NonNull Variable>> variableSets = this.variableSets;
+        IdentityKey key = null;
+        Set<@NonNull Variable> result = null;
+        if (variableSets != null) {
+            key = new IdentityKey(formula);
+            synchronized (variableSets) {
+                result = variableSets.get(key);
+            }
+        }
+        
+        if (result == null) {
+            Set<@NonNull Variable> variables = new HashSet<>();
+            findVars(formula, variables);
+            result = Collections.unmodifiableSet(variables);
+            if (variableSets != null) {
+                synchronized (variableSets) {
+                    variableSets.put(key, result);
+                }
+            }
+        }
+        
+        return notNull(result);
+    }
+    
+    /**
+     * Checks if a complete formula should be considered, i.e., if at least one variable of the formula is relevant.
+     * Stops walking through the formula as soon as a relevant variable is found.
+     * 
      * @param formula The formula to check.
      * @return <tt>true</tt> if the formula should be kept, <tt>false</tt> if the formula should be discarded.
      */
     public boolean isRelevant(@NonNull Formula formula) {
         boolean isRelevant = false;
         
-        // Checks that at least one variable of the formula is relevant
-        Set<@NonNull Variable> variables = new HashSet<>();
-        findVars(formula, variables);
-        Iterator<Variable> varItr = variables.iterator();
-        while (varItr.hasNext() && !isRelevant) {
-            Variable variable = varItr.next();
-            isRelevant = isRelevant(variable.getName());
+        if (formula instanceof Variable) {
+            isRelevant = isRelevant(((Variable) formula).getName());
+            
+        } else if (formula instanceof Negation) {
+            isRelevant = isRelevant(((Negation) formula).getFormula());
+            
+        } else if (formula instanceof Disjunction) {
+            Disjunction dis = (Disjunction) formula;
+            isRelevant = isRelevant(dis.getLeft()) || isRelevant(dis.getRight());
+            
+        } else if (formula instanceof Conjunction) {
+            Conjunction con = (Conjunction) formula;
+            isRelevant = isRelevant(con.getLeft()) || isRelevant(con.getRight());
         }
+        // ignore true and false
         
         return isRelevant;
     }
     
     /**
-     * Helper function to determine which variables are relevant.
+     * Helper function to determine which variables are relevant. The relevance is computed only once per variable
+     * name, later calls return the cached verdict.
      * 
      * @param variable The variable to check.
      * @return Whether the variable is relevant or not.
      */
     public boolean isRelevant(@NonNull String variable) {
+        Boolean isRelevant = relevance.get(variable);
+        if (isRelevant != null) {
+            relevanceHits.incrementAndGet();
+        } else {
+            relevanceMisses.incrementAndGet();
+            isRelevant = computeRelevance(variable);
+            relevance.put(variable, isRelevant);
+        }
+        return isRelevant;
+    }
+    
+    /**
+     * Determines whether a variable is relevant, by checking the variability model or the pattern of relevant
+     * variables.
+     * 
+     * @param variable The variable to check.
+     * @return Whether the variable is relevant or not.
+     */
+    private boolean computeRelevance(@NonNull String variable) {
         boolean isRelevant;
         if (considerVmVarsOnly) {
             // vm != since considerVmVarsOnly == true
@@ -173,10 +325,33 @@ public class PresenceConditionAnalysisHelper {
         return isRelevant;
     }
     
+    /**
+     * Returns how often {@link #isRelevant(String)} found the relevance of a variable in its cache.
+     * 
+     * @return The number of cache hits.
+     */
+    public long getRelevanceCacheHits() {
+        return relevanceHits.get();
+    }
+    
+    /**
+     * Returns how often {@link #isRelevant(String)} had to compute the relevance of a variable, i.e. the number of
+     * distinct variable names checked so far (plus concurrent duplicate computations).
+     * 
+     * @return The number of cache misses.
+     */
+    public long getRelevanceCacheMisses() {
+        return relevanceMisses.get();
+    }
+    
     /**
      * Does the necessary replacements in the formula variable names, in case of non Boolean replacements.
      * The non boolean replacements will be translated back into human readable form. No-op in case non Boolean
      * replacements are switched off.
+     * <p>
+     * Sub-formulas without any replacements are not copied; if nothing needs to be replaced, the given instance is
+     * returned.
+     * </p>
      * 
      * @param formula The formula to do replacements in.
 
@@ -187,21 +362,30 @@ public class PresenceConditionAnalysisHelper {
         
         if (replaceNonBooleanReplacements) {
             if (formula instanceof Variable) {
-                result = new Variable(doReplacements(((Variable) formula).getName()));
+                result = replaceVariable((Variable) formula, replacedVariables, this::doReplacements);
                 
             } else if (formula instanceof Negation) {
-                result = new Negation(
-                        doReplacements(((Negation) formula).getFormula()));
+                Formula nested = ((Negation) formula).getFormula();
+                Formula newNested = doReplacements(nested);
+                if (newNested != nested) {
+                    result = new Negation(newNested);
+                }
                 
             } else if (formula instanceof Disjunction) {
-                result = new Disjunction(
-                        doReplacements(((Disjunction) formula).getLeft()),
-                        doReplacements(((Disjunction) formula).getRight()));
+                Disjunction dis = (Disjunction) formula;
+                Formula left = doReplacements(dis.getLeft());
+                Formula right = doReplacements(dis.getRight());
+                if (left != dis.getLeft() || right != dis.getRight()) {
+                    result = new Disjunction(left, right);
+                }
                 
             } else if (formula instanceof Conjunction) {
-                result = new Conjunction(
-                        doReplacements(((Conjunction) formula).getLeft()),
-                        doReplacements(((Conjunction) formula).getRight()));
+                Conjunction con = (Conjunction) formula;
+                Formula left = doReplacements(con.getLeft());
+                Formula right = doReplacements(con.getRight());
+                if (left != con.getLeft() || right != con.getRight()) {
+                    result = new Conjunction(left, right);
+                }
             }
             // ignore true and false
         }
@@ -209,6 +393,31 @@ public class PresenceConditionAnalysisHelper {
         return result;
     }
     
+    /**
+     * Replaces a single variable, memoizing the result for its name.
+     * 
+     * @param variable The variable to replace.
+     * @param memo The memo for the variable names.
+     * @param replacement The replacement function for the variable name.
+     * 
+     * @return The given variable, if its name is not changed by the replacement function; otherwise, a (shared)
+     *      variable with the replaced name.
+     */
+    private static @NonNull Formula replaceVariable(@NonNull Variable variable, @NonNull Map<String, Variable> memo,
+            @NonNull Function<@NonNull String, @NonNull String> replacement) {
+        
+        String name = variable.getName();
+        Variable replaced = memo.get(name);
+        if (replaced == null) {
+            String newName = replacement.apply(name);
+            replaced = newName.equals(name) ? variable : new Variable(newName);
+            memo.putIfAbsent(name, replaced);
+        }
+        
+        // don't return a different instance for an unchanged variable
+        return replaced.getName().equals(name) ? variable : replaced;
+    }
+    
     /**
      * Does the necessary replacements in the formula string, in case of non Boolean replacements.
      * The non boolean replacements will be translated back into human readable form. No-op in case non Boolean
@@ -219,7 +428,7 @@ public class PresenceConditionAnalysisHelper {
      * @return The same formula, but with the replacements done.
      */
     public @NonNull String doReplacements(@NonNull String formula) {
-        if (replaceNonBooleanReplacements) {
+        if (replaceNonBooleanReplacements && containsReplacement(formula)) {
             formula = notNull(formula.replace("_eq_", "="));
             formula = notNull(formula.replace("_ne_", "!="));
             formula = notNull(formula.replace("_gt_", ">"));
@@ -233,6 +442,10 @@ public class PresenceConditionAnalysisHelper {
     /**
      * <b>Removes</b> non-boolean replacements from the given formula. This simply deletes the _eq_ extensions from
      * variables.
+     * <p>
+     * Sub-formulas without any replacements are not copied; if nothing needs to be removed, the given instance is
+     * returned.
+     * </p>
      * 
      * @param formula The formula to remove replacements in.
 
@@ -242,21 +455,30 @@ public class PresenceConditionAnalysisHelper {
         Formula result = formula;
         
         if (formula instanceof Variable) {
-            result = new Variable(removeReplacements(((Variable) formula).getName()));
+            result = replaceVariable((Variable) formula, removedVariables, this::removeReplacements);
             
         } else if (formula instanceof Negation) {
-            result = new Negation(
-                    removeReplacements(((Negation) formula).getFormula()));
+            Formula nested = ((Negation) formula).getFormula();
+            Formula newNested = removeReplacements(nested);
+            if (newNested != nested) {
+                result = new Negation(newNested);
+            }
             
         } else if (formula instanceof Disjunction) {
-            result = new Disjunction(
-                    removeReplacements(((Disjunction) formula).getLeft()),
-                    removeReplacements(((Disjunction) formula).getRight()));
+            Disjunction dis = (Disjunction) formula;
+            Formula left = removeReplacements(dis.getLeft());
+            Formula right = removeReplacements(dis.getRight());
+            if (left != dis.getLeft() || right != dis.getRight()) {
+                result = new Disjunction(left, right);
+            }
             
         } else if (formula instanceof Conjunction) {
-            result = new Conjunction(
-                    removeReplacements(((Conjunction) formula).getLeft()),
-                    removeReplacements(((Conjunction) formula).getRight()));
+            Conjunction con = (Conjunction) formula;
+            Formula left = removeReplacements(con.getLeft());
+            Formula right = removeReplacements(con.getRight());
+            if (left != con.getLeft() || right != con.getRight()) {
+                result = new Conjunction(left, right);
+            }
         }
         // ignore true and false
         
@@ -273,25 +495,51 @@ public class PresenceConditionAnalysisHelper {
     public @NonNull String removeReplacements(@NonNull String formula) {
         int index;
         
-        // CHECKSTYLE:OFF // inner assignments
-        if ((index = formula.indexOf("_eq_")) != -1) {
-            formula = notNull(formula.substring(0, index));
-        } else if ((index = formula.indexOf("_ne_")) != -1) {
-            formula = notNull(formula.substring(0, index));
-        } else if ((index = formula.indexOf("_gt_")) != -1) {
-            formula = notNull(formula.substring(0, index));
-        } else if ((index = formula.indexOf("_ge_")) != -1) {
-            formula = notNull(formula.substring(0, index));
-        } else if ((index = formula.indexOf("_lt_")) != -1) {
-            formula = notNull(formula.substring(0, index));
-        } else if ((index = formula.indexOf("_le_")) != -1) {
-            formula = notNull(formula.substring(0, index));
+        // fast path: a single pass over the string, instead of one per replacement
+        if (containsReplacement(formula)) {
+            // CHECKSTYLE:OFF // inner assignments
+            if ((index = formula.indexOf("_eq_")) != -1) {
+                formula = notNull(formula.substring(0, index));
+            } else if ((index = formula.indexOf("_ne_")) != -1) {
+                formula = notNull(formula.substring(0, index));
+            } else if ((index = formula.indexOf("_gt_")) != -1) {
+                formula = notNull(formula.substring(0, index));
+            } else if ((index = formula.indexOf("_ge_")) != -1) {
+                formula = notNull(formula.substring(0, index));
+            } else if ((index = formula.indexOf("_lt_")) != -1) {
+                formula = notNull(formula.substring(0, index));
+            } else if ((index = formula.indexOf("_le_")) != -1) {
+                formula = notNull(formula.substring(0, index));
+            }
+            // CHECKSTYLE:ON
         }
-        // CHECKSTYLE:ON
         
         return formula;
     }
     
+    /**
+     * Checks whether the given string contains any non-boolean replacement (e.g. _eq_), in a single pass.
+     * 
+     * @param string The string to check.
+     * 
+     * @return Whether the string contains <code>_eq_</code>, <code>_ne_</code>, <code>_gt_</code>, <code>_ge_</code>,
+     *      <code>_lt_</code> or <code>_le_</code>.
+     */
+    private static boolean containsReplacement(@NonNull String string) {
+        boolean found = false;
+        int index = string.indexOf('_');
+        while (!found && index != -1 && index + 3 < string.length()) {
+            if (string.charAt(index + 3) == '_') {
+                char c1 = string.charAt(index + 1);
+                char c2 = string.charAt(index + 2);
+                found = (c1 == 'e' && c2 == 'q') || (c1 == 'n' && c2 == 'e') || (c1 == 'g' && (c2 == 't' || c2 == 'e'))
+                        || (c1 == 'l' && (c2 == 't' || c2 == 'e'));
+            }
+            index = string.indexOf('_', index + 1);
+        }
+        return found;
+    }
+    
     /**
      * Whether non boolean replacements in variable names (e.g. _gt_) are used and should be turned back into the
      * human readable form.
@@ -310,6 +558,14 @@ public class PresenceConditionAnalysisHelper {
         return simplificationType;
     }
 
+    /**
+     * Returns how feature effects should be computed.
+     * @return The engine to compute feature effects with.
+     */
+    public @NonNull FeComputationType getFeComputationMode() {
+        return feComputationType;
+    }
+
     /**
      * Returns whether the {@link PcFinder} or the {@link FeatureEffectFinder} operate in a non-Boolean mode.
      * @return <tt>true</tt> This helper and the related analyses operate in non-Boolean modes.
@@ -21,6 +21,7 @@ import net.ssehub.kernel_haven.config.EnumSetting;
 import net.ssehub.kernel_haven.config.Setting;
 import net.ssehub.kernel_haven.config.Setting.Type;
 import net.ssehub.kernel_haven.util.null_checks.NonNull;
+import net.ssehub.kernel_haven.util.null_checks.Nullable;
 
 /**
  * Stores the settings provided by this plug-in.
@@ -65,6 +66,78 @@ public class Settings {
             + " - " + SimplificationType.FEATURE_EFFECTS + ": Will simplifiy the results of the feature effect "
             + "analysis.");
     
+    /**
+     * Different engines for the computation of feature effects.
+     */
+    public static enum FeComputationType {
+        
+        /**
+         * Builds the XOR of both cofactors of each presence condition as formula tree and simplifies the result
+         * according to {@link Settings#SIMPLIFIY}.
+         */
+        FORMULA,
+        
+        /**
+         * Computes the boolean difference of each presence condition on binary decision diagrams and converts only
+         * the final result back into a formula.
+         */
+        BDD,
+    }
+    
+    public static final @NonNull Setting<@NonNull FeComputationType> FE_COMPUTATION
+        = new EnumSetting<>("analysis.fe_computation", FeComputationType.class, true, FeComputationType.FORMULA,
+            "Specifies how feature effects are computed:\n"
+            + " - " + FeComputationType.FORMULA + ": Builds XOR trees of the presence conditions and simplifies them\n"
+            + "   as specified by " + SIMPLIFIY.getKey() + ".\n"
+            + " - " + FeComputationType.BDD + ": Uses binary decision diagrams. The resulting feature effects are\n"
+            + "   converted back into formulas and simplified as specified by " + SIMPLIFIY.getKey() + ".");
+    
+    public static final @NonNull Setting<@NonNull Boolean> INTERN_FORMULAS
+        = new Setting<>("analysis.intern_formulas", Type.BOOLEAN, true, "false", "Whether structurally equal "
+            + "presence conditions should be represented by a single, shared instance. This reduces the memory "
+            + "consumption of large analyses, but costs an additional walk over each collected condition.");
+    
+    public static final @NonNull Setting<@NonNull Integer> XOR_CACHE_SIZE
+        = new Setting<>("analysis.fe_finder.xor_cache_size", Type.INTEGER, true, "0", "The maximum number of XOR "
+            + "terms (PC[var <- true] XOR PC[var <- false]) that are cached by a feature effect component. Pipelines "
+            + "may pass a single cache to several components, so that they share the terms. Works best together with "
+            + INTERN_FORMULAS.getKey() + ", since presence conditions are compared by identity. 0 disables the "
+            + "cache.");
+    
+    public static final @NonNull Setting<@NonNull Integer> FE_FORK_JOIN_THRESHOLD
+        = new Setting<>("analysis.fe_finder.fork_join_threshold", Type.INTEGER, true, "0", "Variables with more "
+            + "presence conditions than this threshold are split into chunks of at most this size, whose feature "
+            + "effects are computed in parallel and combined afterwards. This prevents single variables with huge "
+            + "numbers of presence conditions from dominating the runtime. 0 disables the parallel computation.");
+    
+    public static final @NonNull Setting<@NonNull Integer> SIMPLIFICATION_CACHE_SIZE
+        = new Setting<>("analysis.simplification_cache.max_entries", Type.INTEGER, true, "0", "The maximum number of "
+            + "simplified formulas that are stored in a persistent cache in the cache directory. The cache is re-used "
+            + "across analysis runs, thus unchanged presence conditions and feature effects don't need to be "
+            + "simplified again. The cache is discarded if the simplifier changed, i.e. if the KernelHaven version or "
+            + "the configured preparations differ. The least recently used entries are evicted if the cache is full. "
+            + "0 disables the cache.");
+    
+    public static final @NonNull Setting<@NonNull Boolean> INCREMENTAL_FEATURE_EFFECTS
+        = new Setting<>("analysis.fe_finder.incremental", Type.BOOLEAN, true, "false", "Whether the feature effects "
+            + "should be stored in the cache directory together with a fingerprint of the presence conditions they "
+            + "were computed from. Later runs only recompute the feature effects of variables whose presence "
+            + "conditions changed, and re-use the stored feature effects of all other variables.");
+    
+    public static final @NonNull Setting<@Nullable String> INCREMENTAL_STORE
+        = new Setting<>("analysis.fe_finder.incremental_store", Type.STRING, false, null, "The name of the store "
+            + "used by " + INCREMENTAL_FEATURE_EFFECTS.getKey() + ". Feature effect components with the same name "
+            + "share their stored feature effects across runs. If not specified, the name is derived from the "
+            + "source tree and the classes of the components that provide the presence conditions. Only needs to "
+            + "be specified if a pipeline contains several feature effect components with the same input components, "
+            + "or if the stored feature effects should be re-used for a different source tree.");
+    
+    public static final @NonNull Setting<@NonNull Integer> READER_THREADS
+        = new Setting<>("analysis.reader.threads", Type.INTEGER, true, "1", "The number of threads that the components "
+            + "reading presence conditions or feature effects from CSV or Excel files use for parsing (and, if "
+            + "configured, simplifying) the formulas. The rows are still read sequentially and the results keep the "
+            + "order of the file.");
+    
     /**
      * Don't allow any instances.
      */
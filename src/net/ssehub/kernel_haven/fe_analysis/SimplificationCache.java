@@ -0,0 +1,372 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis;
+
+import static net.ssehub.kernel_haven.util.null_checks.NullHelpers.notNull;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.ssehub.kernel_haven.SetUpException;
+import net.ssehub.kernel_haven.config.Configuration;
+import net.ssehub.kernel_haven.config.DefaultSettings;
+import net.ssehub.kernel_haven.util.Logger;
+import net.ssehub.kernel_haven.util.logic.Formula;
+import net.ssehub.kernel_haven.util.logic.FormulaSimplifier;
+import net.ssehub.kernel_haven.util.logic.parser.CStyleBooleanGrammar;
+import net.ssehub.kernel_haven.util.logic.parser.ExpressionFormatException;
+import net.ssehub.kernel_haven.util.logic.parser.Parser;
+import net.ssehub.kernel_haven.util.logic.parser.VariableCache;
+import net.ssehub.kernel_haven.util.null_checks.NonNull;
+import net.ssehub.kernel_haven.util.null_checks.Nullable;
+
+/**
+ * A persistent cache for {@link FormulaSimplifier#simplify(Formula)}. The cache is content-addressed: the key of a
+ * formula is the SHA-1 hash of its string representation, the value is the string representation of the simplified
+ * formula. The cache is stored in the {@link DefaultSettings#CACHE_DIR}, thus successive runs on (mostly) unchanged
+ * input can re-use the simplifications of earlier runs. If the cache is full, the least recently used entries are
+ * evicted.
+ * <p>
+ * The header of the cache file records which simplifier produced the entries: the version of the KernelHaven
+ * infrastructure (which provides the default simplifier) and the classes and versions of the configured
+ * preparations (which register other simplifiers, e.g. the LogicUtils plugin). A cache file written with a different
+ * simplifier is discarded.
+ * </p>
+ * <p>
+ * All components that use the same cache file share one cache, see {@link #acquire(Configuration)}. The cache is
+ * written back to disk when the last component calls {@link #release()}.
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ *
+ * @author agent
+ */
+public class SimplificationCache {
+
+    private static final @NonNull String FILE_NAME = "simplification_cache.txt";
+
+    /**
+     * The first line of the cache file. Must be changed if the format of the file changes.
+     */
+    private static final @NonNull String HEADER = "# simplification cache v2";
+
+    /**
+     * The prefix of the second line of the cache file, which identifies the simplifier.
+     */
+    private static final @NonNull String SIMPLIFIER_PREFIX = "# simplifier: ";
+
+    private static final @NonNull Map<File, SimplificationCache> SHARED_CACHES = new HashMap<>();
+
+    private static final @NonNull Logger LOGGER = Logger.get();
+
+    private @NonNull File file;
+
+    private @NonNull String simplifierId;
+
+    private @NonNull LinkedHashMap<String, String> entries;
+
+    private @NonNull ThreadLocal<Parser<@NonNull Formula>> parser;
+
+    private @NonNull AtomicLong hits;
+
+    private @NonNull AtomicLong misses;
+
+    private boolean modified;
+
+    private int references;
+
+    /**
+     * Creates an empty {@link SimplificationCache}.
+     *
+     * @param file The file to store the cache in.
+     * @param simplifierId Identifies the simplifier that is used, see {@link #getSimplifierId(Configuration)}.
+     * @param maxEntries The maximum number of simplified formulas to keep. Must be greater than 0.
+     */
+    SimplificationCache(@NonNull File file, @NonNull String simplifierId, int maxEntries) {
+        this.file = file;
+        this.simplifierId = simplifierId;
+        this.entries = new LinkedHashMap<String, String>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 4040328858396209183L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxEntries;
+            }
+
+        };
+        this.parser = ThreadLocal.withInitial(() -> new Parser<>(new CStyleBooleanGrammar(new VariableCache())));
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    /**
+     * Returns the cache shared by all components that use the same cache file and registers the caller as a user of
+     * it. The cache is loaded from disk on the first call. Each caller must call {@link #release()} when it is
+     * done. The size of the cache is configured by {@link Settings#SIMPLIFICATION_CACHE_SIZE}.
+     *
+     * @param config The pipeline configuration.
+     *
+     * @return The shared cache, or <code>null</code> if caching is disabled.
+     *
+     * @throws SetUpException If the setting is invalid.
+     */
+    public static @Nullable SimplificationCache acquire(@NonNull Configuration config) throws SetUpException {
+        config.registerSetting(Settings.SIMPLIFICATION_CACHE_SIZE);
+        int maxEntries = config.getValue(Settings.SIMPLIFICATION_CACHE_SIZE);
+
+        if (maxEntries < 0) {
+            throw new SetUpException("Size of simplification cache can't be " + maxEntries);
+        }
+
+        SimplificationCache result = null;
+        if (maxEntries > 0) {
+            config.registerSetting(DefaultSettings.CACHE_DIR);
+            File file = new File(config.getValue(DefaultSettings.CACHE_DIR), FILE_NAME).getAbsoluteFile();
+            synchronized (SHARED_CACHES) {
+                result = SHARED_CACHES.get(file);
+                if (result == null) {
+                    result = new SimplificationCache(notNull(file), getSimplifierId(config), maxEntries);
+                    result.load();
+                    SHARED_CACHES.put(file, result);
+                }
+                result.references++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creates a string that identifies the simplifier used by {@link FormulaSimplifier#simplify(Formula)}. The
+     * simplifier can't be queried directly, thus this consists of the version of the KernelHaven infrastructure and
+     * the classes and versions of all configured preparations, as these register the simplifiers.
+     *
+     * @param config The pipeline configuration.
+     *
+     * @return A string that identifies the simplifier.
+     *
+     * @throws SetUpException If the preparation setting is invalid.
+     */
+    static @NonNull String getSimplifierId(@NonNull Configuration config) throws SetUpException {
+        config.registerSetting(DefaultSettings.PREPARATION_CLASSES);
+        List<String> preparations = config.getValue(DefaultSettings.PREPARATION_CLASSES);
+
+        StringBuilder result = new StringBuilder(getClassVersion(notNull(FormulaSimplifier.class.getName())));
+        for (String preparation : preparations) {
+            result.append(", ").append(getClassVersion(notNull(preparation)));
+        }
+        return notNull(result.toString());
+    }
+
+    /**
+     * Returns the name of the given class together with its version. The version is the implementation version of
+     * its package (from the manifest of its jar), or the modification time of its jar if no version is specified.
+     *
+     * @param className The fully qualified name of the class.
+     *
+     * @return The name and version of the class, or only the name if the class can't be loaded.
+     */
+    private static @NonNull String getClassVersion(@NonNull String className) {
+        String version = null;
+        try {
+            Class<?> cls = Class.forName(className, false, SimplificationCache.class.getClassLoader());
+            Package pkg = cls.getPackage();
+            if (pkg != null) {
+                version = pkg.getImplementationVersion();
+            }
+            CodeSource source = cls.getProtectionDomain().getCodeSource();
+            if (version == null && source != null && source.getLocation() != null) {
+                File location = new File(source.getLocation().toURI());
+                if (location.isFile()) {
+                    version = location.getName() + "@" + location.lastModified();
+                }
+            }
+        } catch (ClassNotFoundException | LinkageError | SecurityException | URISyntaxException
+                | IllegalArgumentException e) {
+            // unknown class, identify by name only
+        }
+        return version != null ? className + " " + version : className;
+    }
+
+    /**
+     * Unregisters a user of this cache. If this was the last user, the cache is written to disk and the hit rate is
+     * logged.
+     */
+    public void release() {
+        boolean last;
+        synchronized (SHARED_CACHES) {
+            references--;
+            last = references == 0;
+            if (last) {
+                SHARED_CACHES.remove(file);
+            }
+        }
+
+        if (last) {
+            long total = hits.get() + misses.get();
+            LOGGER.logInfo("Simplification cache: " + hits.get() + " of " + total + " simplifications found in cache ("
+                    + (total > 0 ? hits.get() * 100 / total : 0) + "%), " + size() + " entries");
+            save();
+        }
+    }
+
+    /**
+     * Simplifies the given formula, or returns the simplified formula from the cache.
+     *
+     * @param formula The formula to simplify.
+     *
+     * @return The simplified formula, equal to {@link FormulaSimplifier#simplify(Formula)}.
+     */
+    public @NonNull Formula simplify(@NonNull Formula formula) {
+        String key = StringUtils.sha1Hex(formula.toString());
+
+        String cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+
+        Formula result = null;
+        if (cached != null) {
+            try {
+                result = notNull(parser.get()).parse(cached);
+            } catch (ExpressionFormatException e) {
+                // corrupted entry, simplify again
+            }
+        }
+
+        if (result != null) {
+            hits.incrementAndGet();
+
+        } else {
+            misses.incrementAndGet();
+            result = FormulaSimplifier.simplify(formula);
+            synchronized (entries) {
+                entries.put(key, result.toString());
+                modified = true;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the number of cached formulas.
+     *
+     * @return The number of cached formulas.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Returns the number of simplifications that were found in the cache so far.
+     *
+     * @return The number of cache hits.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of simplifications that were not found in the cache so far.
+     *
+     * @return The number of cache misses.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Loads the cache file, if it exists and was written with the same simplifier. After the two header lines, each
+     * line consists of the hash of a formula and the simplified formula, separated by a tab. The least recently used
+     * entries come first.
+     */
+    private void load() {
+        if (file.isFile()) {
+            try (BufferedReader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                if (!HEADER.equals(in.readLine())) {
+                    LOGGER.logWarning("Ignoring simplification cache with unknown format: " + file);
+
+                } else if (!(SIMPLIFIER_PREFIX + simplifierId).equals(in.readLine())) {
+                    LOGGER.logWarning("Ignoring simplification cache of a different simplifier: " + file);
+
+                } else {
+                    String line;
+                    synchronized (entries) {
+                        while ((line = in.readLine()) != null) {
+                            int index = line.indexOf('\t');
+                            if (index != -1) {
+                                entries.put(line.substring(0, index), line.substring(index + 1));
+                            }
+                        }
+                    }
+                    LOGGER.logDebug("Loaded " + size() + " simplified formulas from " + file);
+                }
+
+            } catch (IOException e) {
+                LOGGER.logException("Can't read simplification cache " + file, e);
+            }
+        }
+    }
+
+    /**
+     * Writes the cache to its file, if it was modified. The file is replaced atomically, so that an aborted run does
+     * not leave a truncated cache behind.
+     */
+    private void save() {
+        synchronized (entries) {
+            if (modified) {
+                File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+                try {
+                    try (BufferedWriter out = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8)) {
+                        out.write(HEADER);
+                        out.newLine();
+                        out.write(SIMPLIFIER_PREFIX + simplifierId);
+                        out.newLine();
+                        for (Map.Entry<String, String> entry : entries.entrySet()) {
+                            out.write(entry.getKey());
+                            out.write('\t');
+                            out.write(entry.getValue());
+                            out.newLine();
+                        }
+                    }
+                    Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                    modified = false;
+
+                } catch (IOException e) {
+                    LOGGER.logException("Can't write simplification cache " + file, e);
+                }
+            }
+        }
+    }
+
+}
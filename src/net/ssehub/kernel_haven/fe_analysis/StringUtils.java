@@ -15,6 +15,11 @@
  */
 package net.ssehub.kernel_haven.fe_analysis;
 
+import static net.ssehub.kernel_haven.util.null_checks.NullHelpers.notNull;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -51,5 +56,27 @@ public class StringUtils {
         
         return result;
     }
+    
+    /**
+     * Computes the hex-encoded SHA-1 hash of the given string, e.g., to address a formula by its content.
+     * @param str The string to hash.
+     * @return The hash as lower-case hex string.
+     */
+    public static @NonNull String sha1Hex(@NonNull String str) {
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1").digest(str.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-1
+            throw new IllegalStateException(e);
+        }
+        
+        StringBuilder result = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            result.append(Character.forDigit((b >> 4) & 0xF, 16));
+            result.append(Character.forDigit(b & 0xF, 16));
+        }
+        return notNull(result.toString());
+    }
 
 }
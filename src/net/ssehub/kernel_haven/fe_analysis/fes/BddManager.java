@@ -0,0 +1,529 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis.fes;
+
+import static net.ssehub.kernel_haven.util.null_checks.NullHelpers.notNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.ssehub.kernel_haven.util.logic.Conjunction;
+import net.ssehub.kernel_haven.util.logic.Disjunction;
+import net.ssehub.kernel_haven.util.logic.False;
+import net.ssehub.kernel_haven.util.logic.Formula;
+import net.ssehub.kernel_haven.util.logic.IFormulaVisitor;
+import net.ssehub.kernel_haven.util.logic.Negation;
+import net.ssehub.kernel_haven.util.logic.True;
+import net.ssehub.kernel_haven.util.logic.Variable;
+import net.ssehub.kernel_haven.util.null_checks.NonNull;
+
+/**
+ * A minimal manager for reduced ordered binary decision diagrams (BDDs). Nodes are identified by <code>int</code>
+ * handles; {@link #FALSE} and {@link #TRUE} are the two terminal nodes. The variable order is the order in which the
+ * variables are first seen by this manager.
+ * <p>
+ * This class is not thread-safe; a new manager should be used for each (independent) computation.
+ * </p>
+ *
+ * @author agent
+ */
+class BddManager {
+
+    /**
+     * The handle of the terminal node <code>false</code>.
+     */
+    public static final int FALSE = 0;
+
+    /**
+     * The handle of the terminal node <code>true</code>.
+     */
+    public static final int TRUE = 1;
+
+    private static final int TERMINAL_VAR = Integer.MAX_VALUE;
+
+    private static final int OP_AND = 0;
+
+    private static final int OP_OR = 1;
+
+    private static final int OP_XOR = 2;
+
+    private int[] vars;
+
+    private int[] lows;
+
+    private int[] highs;
+
+    private int numNodes;
+
+    /**
+     * Open addressing hash table of node handles; 0 marks an empty slot (terminals are never stored).
+     */
+    private int[] uniqueTable;
+
+    private @NonNull Map<String, Integer> varIndices;
+
+    private @NonNull List<@NonNull Variable> variables;
+
+    private @NonNull List<Map<Long, Integer>> applyCaches;
+
+    private @NonNull Map<Integer, Integer> notCache;
+
+    /**
+     * Creates an empty BDD manager.
+     */
+    public BddManager() {
+        vars = new int[1024];
+        lows = new int[1024];
+        highs = new int[1024];
+        uniqueTable = new int[2048];
+
+        vars[FALSE] = TERMINAL_VAR;
+        vars[TRUE] = TERMINAL_VAR;
+        numNodes = 2;
+
+        varIndices = new HashMap<>();
+        variables = new ArrayList<>();
+
+        applyCaches = new ArrayList<>(3);
+        applyCaches.add(new HashMap<>()); // OP_AND
+        applyCaches.add(new HashMap<>()); // OP_OR
+        applyCaches.add(new HashMap<>()); // OP_XOR
+        notCache = new HashMap<>();
+    }
+
+    /**
+     * Returns the index of the given variable in the variable order. Unknown variables are appended at the end of the
+     * variable order.
+     *
+     * @param variable The variable to get the index for.
+     *
+     * @return The index of the variable.
+     */
+    public int getVariableIndex(@NonNull Variable variable) {
+        Integer index = varIndices.get(variable.getName());
+        if (index == null) {
+            index = variables.size();
+            varIndices.put(variable.getName(), index);
+            variables.add(variable);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the variables known to this manager, in variable order.
+     *
+     * @return The variables known to this manager. Must not be modified.
+     */
+    public @NonNull List<@NonNull Variable> getVariables() {
+        return variables;
+    }
+
+    /**
+     * Returns the number of nodes (including the two terminal nodes) created by this manager.
+     *
+     * @return The number of nodes.
+     */
+    public int getNodeCount() {
+        return numNodes;
+    }
+
+    /**
+     * Returns the node for the given variable index, creating it if necessary.
+     *
+     * @param var The variable index.
+     * @param low The node of the <code>false</code> branch.
+     * @param high The node of the <code>true</code> branch.
+     *
+     * @return The (unique) node.
+     */
+    private int mkNode(int var, int low, int high) {
+        int result;
+        if (low == high) {
+            result = low;
+        } else {
+            int mask = uniqueTable.length - 1;
+            int slot = hash(var, low, high) & mask;
+            result = -1;
+            while (uniqueTable[slot] != 0 && result == -1) {
+                int node = uniqueTable[slot];
+                if (vars[node] == var && lows[node] == low && highs[node] == high) {
+                    result = node;
+                } else {
+                    slot = (slot + 1) & mask;
+                }
+            }
+
+            if (result == -1) {
+                result = allocateNode(var, low, high);
+                uniqueTable[slot] = result;
+                if (numNodes * 2 > uniqueTable.length) {
+                    growUniqueTable();
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the hash of a node triple.
+     *
+     * @param var The variable index.
+     * @param low The node of the <code>false</code> branch.
+     * @param high The node of the <code>true</code> branch.
+     *
+     * @return The hash.
+     */
+    private static int hash(int var, int low, int high) {
+        int hash = var * 0x9E3779B1 + low;
+        hash = hash * 0x85EBCA6B + high;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Stores a new node in the node arrays.
+     *
+     * @param var The variable index.
+     * @param low The node of the <code>false</code> branch.
+     * @param high The node of the <code>true</code> branch.
+     *
+     * @return The handle of the new node.
+     */
+    private int allocateNode(int var, int low, int high) {
+        if (numNodes == vars.length) {
+            int newSize = vars.length * 2;
+            vars = Arrays.copyOf(vars, newSize);
+            lows = Arrays.copyOf(lows, newSize);
+            highs = Arrays.copyOf(highs, newSize);
+        }
+        int node = numNodes++;
+        vars[node] = var;
+        lows[node] = low;
+        highs[node] = high;
+        return node;
+    }
+
+    /**
+     * Doubles the size of the unique table and re-inserts all nodes.
+     */
+    private void growUniqueTable() {
+        uniqueTable = new int[uniqueTable.length * 2];
+        int mask = uniqueTable.length - 1;
+        for (int node = 2; node < numNodes; node++) {
+            int slot = hash(vars[node], lows[node], highs[node]) & mask;
+            while (uniqueTable[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            uniqueTable[slot] = node;
+        }
+    }
+
+    /**
+     * Creates the BDD for the given formula.
+     *
+     * @param formula The formula to convert.
+     *
+     * @return The BDD node representing the formula.
+     */
+    public int fromFormula(@NonNull Formula formula) {
+        return formula.accept(new IFormulaVisitor<Integer>() {
+
+            @Override
+            public Integer visitFalse(@NonNull False falseConstant) {
+                return FALSE;
+            }
+
+            @Override
+            public Integer visitTrue(@NonNull True trueConstant) {
+                return TRUE;
+            }
+
+            @Override
+            public Integer visitVariable(@NonNull Variable variable) {
+                return mkNode(getVariableIndex(variable), FALSE, TRUE);
+            }
+
+            @Override
+            public Integer visitNegation(@NonNull Negation formula) {
+                return not(formula.getFormula().accept(this));
+            }
+
+            @Override
+            public Integer visitDisjunction(@NonNull Disjunction formula) {
+                return or(formula.getLeft().accept(this), formula.getRight().accept(this));
+            }
+
+            @Override
+            public Integer visitConjunction(@NonNull Conjunction formula) {
+                return and(formula.getLeft().accept(this), formula.getRight().accept(this));
+            }
+        });
+    }
+
+    /**
+     * Negates the given BDD.
+     *
+     * @param node The BDD to negate.
+     *
+     * @return The negated BDD.
+     */
+    public int not(int node) {
+        int result;
+        if (node == FALSE) {
+            result = TRUE;
+        } else if (node == TRUE) {
+            result = FALSE;
+        } else {
+            Integer cached = notCache.get(node);
+            if (cached != null) {
+                result = cached;
+            } else {
+                result = mkNode(vars[node], not(lows[node]), not(highs[node]));
+                notCache.put(node, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the conjunction of the two given BDDs.
+     *
+     * @param left The left operand.
+     * @param right The right operand.
+     *
+     * @return The conjunction.
+     */
+    public int and(int left, int right) {
+        return apply(OP_AND, left, right);
+    }
+
+    /**
+     * Computes the disjunction of the two given BDDs.
+     *
+     * @param left The left operand.
+     * @param right The right operand.
+     *
+     * @return The disjunction.
+     */
+    public int or(int left, int right) {
+        return apply(OP_OR, left, right);
+    }
+
+    /**
+     * Computes the exclusive or of the two given BDDs.
+     *
+     * @param left The left operand.
+     * @param right The right operand.
+     *
+     * @return The exclusive or.
+     */
+    public int xor(int left, int right) {
+        return apply(OP_XOR, left, right);
+    }
+
+    /**
+     * Applies the given binary operation on two BDDs.
+     *
+     * @param op The operation; one of {@link #OP_AND}, {@link #OP_OR}, {@link #OP_XOR}.
+     * @param left The left operand.
+     * @param right The right operand.
+     *
+     * @return The result of the operation.
+     */
+    private int apply(int op, int left, int right) {
+        // all operations are commutative
+        int a = Math.min(left, right);
+        int b = Math.max(left, right);
+
+        int result = applyTerminal(op, a, b);
+        if (result == -1) {
+            Map<Long, Integer> cache = applyCaches.get(op);
+            Long key = ((long) a << 32) | b;
+            Integer cached = cache.get(key);
+            if (cached != null) {
+                result = cached;
+            } else {
+                int var = Math.min(vars[a], vars[b]);
+                int aLow = vars[a] == var ? lows[a] : a;
+                int aHigh = vars[a] == var ? highs[a] : a;
+                int bLow = vars[b] == var ? lows[b] : b;
+                int bHigh = vars[b] == var ? highs[b] : b;
+
+                result = mkNode(var, apply(op, aLow, bLow), apply(op, aHigh, bHigh));
+                cache.put(key, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the result of an operation, if it can be determined without recursion.
+     *
+     * @param op The operation; one of {@link #OP_AND}, {@link #OP_OR}, {@link #OP_XOR}.
+     * @param a The smaller operand handle.
+     * @param b The larger operand handle.
+     *
+     * @return The result, or <code>-1</code> if the result requires a recursive computation.
+     */
+    private int applyTerminal(int op, int a, int b) {
+        // a <= b, thus terminals (0, 1) are always in a
+        int result = -1;
+        switch (op) {
+        case OP_AND:
+            if (a == FALSE) {
+                result = FALSE;
+            } else if (a == TRUE || a == b) {
+                result = b;
+            }
+            break;
+
+        case OP_OR:
+            if (a == TRUE) {
+                result = TRUE;
+            } else if (a == FALSE || a == b) {
+                result = b;
+            }
+            break;
+
+        case OP_XOR:
+            if (a == b) {
+                result = FALSE;
+            } else if (a == FALSE) {
+                result = b;
+            } else if (a == TRUE) {
+                result = not(b);
+            }
+            break;
+
+        default:
+            throw new IllegalArgumentException("Unknown operation " + op);
+        }
+        return result;
+    }
+
+    /**
+     * Sets the given variable to a constant value in the given BDD.
+     *
+     * @param node The BDD to restrict.
+     * @param varIndex The index of the variable to replace.
+     * @param value The value to set the variable to.
+     *
+     * @return The restricted BDD.
+     */
+    public int restrict(int node, int varIndex, boolean value) {
+        return restrict(node, varIndex, value, new HashMap<>());
+    }
+
+    /**
+     * Sets the given variable to a constant value in the given BDD.
+     *
+     * @param node The BDD to restrict.
+     * @param varIndex The index of the variable to replace.
+     * @param value The value to set the variable to.
+     * @param cache The cache of already restricted nodes of this restrict operation.
+     *
+     * @return The restricted BDD.
+     */
+    private int restrict(int node, int varIndex, boolean value, @NonNull Map<Integer, Integer> cache) {
+        int result;
+        if (vars[node] > varIndex) {
+            // variables are ordered; the variable can't occur below this node (this includes terminals)
+            result = node;
+
+        } else if (vars[node] == varIndex) {
+            result = value ? highs[node] : lows[node];
+
+        } else {
+            Integer cached = cache.get(node);
+            if (cached != null) {
+                result = cached;
+            } else {
+                result = mkNode(vars[node], restrict(lows[node], varIndex, value, cache),
+                        restrict(highs[node], varIndex, value, cache));
+                cache.put(node, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Converts the given BDD back into a {@link Formula}. Shared BDD nodes result in shared sub-formulas. Chains of
+     * nodes with the same <code>high</code> child (<code>if v1 then H else if v2 then H else ...</code>) are
+     * converted into a single disjunction of their variables, so that the shared child is not repeated for each node
+     * of the chain when the formula is written as a tree. Thus, e.g., <code>(A || B) &amp;&amp; (C || D)</code> is
+     * converted back into this form instead of a nested if-then-else structure.
+     *
+     * @param node The BDD to convert.
+     *
+     * @return A formula equivalent to the BDD.
+     */
+    public @NonNull Formula toFormula(int node) {
+        return toFormula(node, new HashMap<>());
+    }
+
+    /**
+     * Converts the given BDD back into a {@link Formula}.
+     *
+     * @param node The BDD to convert.
+     * @param cache The already converted nodes.
+     *
+     * @return A formula equivalent to the BDD.
+     */
+    private @NonNull Formula toFormula(int node, @NonNull Map<Integer, @NonNull Formula> cache) {
+        Formula result;
+        if (node == FALSE) {
+            result = False.INSTANCE;
+        } else if (node == TRUE) {
+            result = True.INSTANCE;
+        } else {
+            result = cache.get(node);
+            if (result == null) {
+                int high = highs[node];
+
+                // if (v1 || v2 || ...) then high else low
+                Formula condition = variables.get(vars[node]);
+                int low = lows[node];
+                while (low != FALSE && low != TRUE && highs[low] == high) {
+                    condition = new Disjunction(condition, variables.get(vars[low]));
+                    low = lows[low];
+                }
+
+                if (low == FALSE && high == TRUE) {
+                    result = condition;
+                } else if (low == TRUE && high == FALSE) {
+                    result = new Negation(condition);
+                } else if (low == FALSE) {
+                    result = new Conjunction(condition, toFormula(high, cache));
+                } else if (high == FALSE) {
+                    result = new Conjunction(new Negation(condition), toFormula(low, cache));
+                } else if (high == TRUE) {
+                    result = new Disjunction(condition, toFormula(low, cache));
+                } else if (low == TRUE) {
+                    result = new Disjunction(new Negation(condition), toFormula(high, cache));
+                } else {
+                    result = new Disjunction(
+                            new Conjunction(condition, toFormula(high, cache)),
+                            new Conjunction(new Negation(condition), toFormula(low, cache)));
+                }
+                cache.put(node, result);
+            }
+        }
+        return notNull(result);
+    }
+
+}
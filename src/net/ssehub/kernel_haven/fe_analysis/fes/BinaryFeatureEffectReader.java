@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis.fes;
+
+import static net.ssehub.kernel_haven.util.null_checks.NullHelpers.notNull;
+
+import java.io.File;
+import java.io.IOException;
+
+import net.ssehub.kernel_haven.SetUpException;
+import net.ssehub.kernel_haven.analysis.AnalysisComponent;
+import net.ssehub.kernel_haven.config.Configuration;
+import net.ssehub.kernel_haven.config.Setting;
+import net.ssehub.kernel_haven.config.Setting.Type;
+import net.ssehub.kernel_haven.fe_analysis.BinaryFormulaReader;
+import net.ssehub.kernel_haven.fe_analysis.BinaryFormulaWriter;
+import net.ssehub.kernel_haven.fe_analysis.fes.FeatureEffectFinder.VariableWithFeatureEffect;
+import net.ssehub.kernel_haven.util.FormatException;
+import net.ssehub.kernel_haven.util.null_checks.NonNull;
+
+/**
+ * A component that reads {@link VariableWithFeatureEffect}s from a binary file written by the
+ * {@link BinaryFeatureEffectWriter}. This is much faster than reading a CSV file with the {@link FeatureEffectReader},
+ * since no formulas need to be parsed.
+ * 
+ * @author agent
+ */
+public class BinaryFeatureEffectReader extends AnalysisComponent<VariableWithFeatureEffect> {
+
+    public static final @NonNull Setting<@NonNull File> INPUT_FILE_SETTING
+        = new Setting<>("analysis.feature_effect.binary_file", Type.FILE, true, null,
+            "A binary file containing the feature effects to be read by the "
+            + BinaryFeatureEffectReader.class.getName());
+    
+    private @NonNull File inputFile;
+    
+    /**
+     * Creates this component. No input required since the input file is read from the configuration.
+     * 
+     * @param config The pipeline configuration.
+     * 
+     * @throws SetUpException If reading the configuration for the input file fails.
+     */
+    public BinaryFeatureEffectReader(@NonNull Configuration config) throws SetUpException {
+        super(config);
+        
+        config.registerSetting(INPUT_FILE_SETTING);
+        this.inputFile = config.getValue(INPUT_FILE_SETTING);
+    }
+
+    @Override
+    protected void execute() {
+        try (BinaryFormulaReader in
+                = new BinaryFormulaReader(inputFile, BinaryFormulaWriter.KIND_FEATURE_EFFECTS)) {
+            
+            while (in.next()) {
+                if (in.getFormulas().size() == 1) {
+                    addResult(new VariableWithFeatureEffect(in.getName(), notNull(in.getFormulas().get(0))));
+                } else {
+                    LOGGER.logError("Feature effect of " + in.getName() + " in " + inputFile + " has "
+                            + in.getFormulas().size() + " formulas, instead of 1");
+                }
+            }
+            
+        } catch (IOException | FormatException e) {
+            LOGGER.logException("Can't read binary input file " + inputFile, e);
+        }
+    }
+
+    @Override
+    public @NonNull String getResultName() {
+        return "Feature Effects (read from file)";
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis.fes;
+
+import static net.ssehub.kernel_haven.util.null_checks.NullHelpers.notNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+
+import net.ssehub.kernel_haven.SetUpException;
+import net.ssehub.kernel_haven.analysis.AnalysisComponent;
+import net.ssehub.kernel_haven.config.Configuration;
+import net.ssehub.kernel_haven.config.DefaultSettings;
+import net.ssehub.kernel_haven.config.Setting;
+import net.ssehub.kernel_haven.config.Setting.Type;
+import net.ssehub.kernel_haven.fe_analysis.BinaryFormulaWriter;
+import net.ssehub.kernel_haven.fe_analysis.fes.FeatureEffectFinder.VariableWithFeatureEffect;
+import net.ssehub.kernel_haven.util.null_checks.NonNull;
+
+/**
+ * A component that writes the {@link VariableWithFeatureEffect}s of its input component into a binary file in the
+ * output directory, which can be read fast by the {@link BinaryFeatureEffectReader}. All input results are passed on
+ * unchanged.
+ * 
+ * @author agent
+ */
+public class BinaryFeatureEffectWriter extends AnalysisComponent<VariableWithFeatureEffect> {
+
+    public static final @NonNull Setting<@NonNull String> OUTPUT_FILE_SETTING
+        = new Setting<>("analysis.feature_effect.binary_output_file", Type.STRING, true,
+            "feature_effects.khb", "The name of the binary file in the output directory that the "
+            + BinaryFeatureEffectWriter.class.getName() + " writes the feature effects to.");
+    
+    private @NonNull AnalysisComponent<VariableWithFeatureEffect> feFinder;
+    
+    private @NonNull File outputFile;
+    
+    /**
+     * Creates this component.
+     * 
+     * @param config The pipeline configuration.
+     * @param feFinder The component to get the feature effects from.
+     * 
+     * @throws SetUpException If reading the configuration fails.
+     */
+    public BinaryFeatureEffectWriter(@NonNull Configuration config,
+            @NonNull AnalysisComponent<VariableWithFeatureEffect> feFinder) throws SetUpException {
+        
+        super(config);
+        this.feFinder = feFinder;
+        
+        config.registerSetting(DefaultSettings.OUTPUT_DIR);
+        config.registerSetting(OUTPUT_FILE_SETTING);
+        this.outputFile = new File(config.getValue(DefaultSettings.OUTPUT_DIR),
+                config.getValue(OUTPUT_FILE_SETTING));
+    }
+
+    @Override
+    protected void execute() {
+        VariableWithFeatureEffect fe = null;
+        
+        try (BinaryFormulaWriter out
+                = new BinaryFormulaWriter(outputFile, BinaryFormulaWriter.KIND_FEATURE_EFFECTS)) {
+            
+            while ((fe = feFinder.getNextResult()) != null) {
+                addResult(fe);
+                out.writeRecord(fe.getVariable(), notNull(Collections.singletonList(fe.getFeatureEffect())));
+            }
+            
+        } catch (IOException e) {
+            LOGGER.logException("Can't write binary feature effects to " + outputFile, e);
+        }
+        
+        // pass on the remaining results, if writing failed
+        while ((fe = feFinder.getNextResult()) != null) {
+            addResult(fe);
+        }
+    }
+
+    @Override
+    public @NonNull String getResultName() {
+        return "Feature Effects";
+    }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis.fes;
+
+import net.ssehub.kernel_haven.util.logic.Conjunction;
+import net.ssehub.kernel_haven.util.logic.Disjunction;
+import net.ssehub.kernel_haven.util.logic.False;
+import net.ssehub.kernel_haven.util.logic.Formula;
+import net.ssehub.kernel_haven.util.logic.Negation;
+import net.ssehub.kernel_haven.util.logic.True;
+import net.ssehub.kernel_haven.util.logic.Variable;
+import net.ssehub.kernel_haven.util.null_checks.NonNull;
+import net.ssehub.kernel_haven.util.null_checks.Nullable;
+
+/**
+ * Computes both cofactors <code>formula[variable &lt;- true]</code> and <code>formula[variable &lt;- false]</code>
+ * of a formula in a single traversal. Sub-trees that do not contain the variable are not copied, but shared with
+ * the original formula. Constants that are created by the replacement are removed on the fly.
+ *
+ * @author agent
+ */
+final class CofactorComputer {
+
+    /**
+     * The cofactors of the variable itself. Must not be modified.
+     */
+    private static final @NonNull Formula @NonNull [] VARIABLE_COFACTORS = {True.INSTANCE, False.INSTANCE};
+
+    /**
+     * Don't allow any instances.
+     */
+    private CofactorComputer() {
+    }
+
+    /**
+     * Computes both cofactors of the given formula.
+     *
+     * @param formula The formula to compute the cofactors for.
+     * @param variable The name of the variable to replace (exact match).
+     *
+     * @return An array with <code>formula[variable &lt;- true]</code> at index 0 and
+     *     <code>formula[variable &lt;- false]</code> at index 1, or <code>null</code> if the formula does not contain
+     *     the variable (i.e., both cofactors are the formula itself). The array must not be modified.
+     */
+    static @NonNull Formula @Nullable [] computeCofactors(@NonNull Formula formula, @NonNull String variable) {
+        @NonNull Formula[] result = null;
+
+        if (formula instanceof Variable) {
+            if (((Variable) formula).getName().equals(variable)) {
+                result = VARIABLE_COFACTORS;
+            }
+
+        } else if (formula instanceof Negation) {
+            Negation negation = (Negation) formula;
+            @NonNull Formula[] nested = computeCofactors(negation.getFormula(), variable);
+            if (nested != null) {
+                result = new @NonNull Formula[] {not(nested[0]), not(nested[1])};
+            }
+
+        } else if (formula instanceof Conjunction) {
+            Conjunction con = (Conjunction) formula;
+            @NonNull Formula[] left = computeCofactors(con.getLeft(), variable);
+            @NonNull Formula[] right = computeCofactors(con.getRight(), variable);
+            if (left != null || right != null) {
+                result = new @NonNull Formula[] {
+                    and(con, left != null ? left[0] : con.getLeft(), right != null ? right[0] : con.getRight()),
+                    and(con, left != null ? left[1] : con.getLeft(), right != null ? right[1] : con.getRight())
+                };
+            }
+
+        } else if (formula instanceof Disjunction) {
+            Disjunction dis = (Disjunction) formula;
+            @NonNull Formula[] left = computeCofactors(dis.getLeft(), variable);
+            @NonNull Formula[] right = computeCofactors(dis.getRight(), variable);
+            if (left != null || right != null) {
+                result = new @NonNull Formula[] {
+                    or(dis, left != null ? left[0] : dis.getLeft(), right != null ? right[0] : dis.getRight()),
+                    or(dis, left != null ? left[1] : dis.getLeft(), right != null ? right[1] : dis.getRight())
+                };
+            }
+        }
+        // true and false don't contain the variable
+
+        return result;
+    }
+
+    /**
+     * Negates the given formula, removing constants.
+     *
+     * @param formula The formula to negate.
+     *
+     * @return The negated formula.
+     */
+    private static @NonNull Formula not(@NonNull Formula formula) {
+        Formula result;
+        if (formula == True.INSTANCE) {
+            result = False.INSTANCE;
+        } else if (formula == False.INSTANCE) {
+            result = True.INSTANCE;
+        } else {
+            result = new Negation(formula);
+        }
+        return result;
+    }
+
+    /**
+     * Creates a conjunction of the two operands, removing constants.
+     *
+     * @param original The original conjunction; re-used if both operands are unchanged.
+     * @param left The (replaced) left operand.
+     * @param right The (replaced) right operand.
+     *
+     * @return The conjunction.
+     */
+    private static @NonNull Formula and(@NonNull Conjunction original, @NonNull Formula left,
+            @NonNull Formula right) {
+
+        Formula result;
+        if (left == False.INSTANCE || right == False.INSTANCE) {
+            result = False.INSTANCE;
+        } else if (left == True.INSTANCE) {
+            result = right;
+        } else if (right == True.INSTANCE) {
+            result = left;
+        } else if (left == original.getLeft() && right == original.getRight()) {
+            result = original;
+        } else {
+            result = new Conjunction(left, right);
+        }
+        return result;
+    }
+
+    /**
+     * Creates a disjunction of the two operands, removing constants.
+     *
+     * @param original The original disjunction; re-used if both operands are unchanged.
+     * @param left The (replaced) left operand.
+     * @param right The (replaced) right operand.
+     *
+     * @return The disjunction.
+     */
+    private static @NonNull Formula or(@NonNull Disjunction original, @NonNull Formula left,
+            @NonNull Formula right) {
+
+        Formula result;
+        if (left == True.INSTANCE || right == True.INSTANCE) {
+            result = True.INSTANCE;
+        } else if (left == False.INSTANCE) {
+            result = right;
+        } else if (right == False.INSTANCE) {
+            result = left;
+        } else if (left == original.getLeft() && right == original.getRight()) {
+            result = original;
+        } else {
+            result = new Disjunction(left, right);
+        }
+        return result;
+    }
+
+}
@@ -23,12 +23,14 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 import net.ssehub.kernel_haven.SetUpException;
 import net.ssehub.kernel_haven.analysis.AnalysisComponent;
 import net.ssehub.kernel_haven.config.Configuration;
 import net.ssehub.kernel_haven.fe_analysis.Settings;
 import net.ssehub.kernel_haven.fe_analysis.Settings.SimplificationType;
+import net.ssehub.kernel_haven.fe_analysis.SimplificationCache;
 import net.ssehub.kernel_haven.fe_analysis.StringUtils;
 import net.ssehub.kernel_haven.fe_analysis.fes.FeatureEffectFinder.VariableWithFeatureEffect;
 import net.ssehub.kernel_haven.util.ProgressLogger;
@@ -37,6 +39,7 @@ import net.ssehub.kernel_haven.util.logic.Formula;
 import net.ssehub.kernel_haven.util.logic.FormulaSimplifier;
 import net.ssehub.kernel_haven.util.null_checks.NonNull;
 import net.ssehub.kernel_haven.util.null_checks.NullHelpers;
+import net.ssehub.kernel_haven.util.null_checks.Nullable;
 
 /**
  * Aggregates feature effect constraints for values of the same variable. Only relevant in Pseudo-Boolean settings.
@@ -56,6 +59,7 @@ public class FeAggregator extends AnalysisComponent<VariableWithFeatureEffect> {
     
     private @NonNull AnalysisComponent<VariableWithFeatureEffect> feDetector;
     private boolean simplify = false;
+    private @Nullable SimplificationCache simplificationCache;
 
     /**
      * Creates an {@link FeAggregator}, do create one constraint for the separated values of integer variables.
@@ -71,11 +75,17 @@ public class FeAggregator extends AnalysisComponent<VariableWithFeatureEffect> {
         this.feDetector = feDetector;
         
         simplify = config.getValue(Settings.SIMPLIFIY).ordinal() >= SimplificationType.PRESENCE_CONDITIONS.ordinal();
+        if (simplify) {
+            simplificationCache = SimplificationCache.acquire(config);
+        }
     }
 
     @Override
     protected void execute() {
         Map<@NonNull String, DisjunctionQueue> groupedQueues = new HashMap<>();
+        SimplificationCache cache = this.simplificationCache;
+        Function<@NonNull Formula, @NonNull Formula> simplifier = null != cache
+                ? cache::simplify : FormulaSimplifier::simplify;
         
         ProgressLogger progress = new ProgressLogger(notNull(getClass().getSimpleName()));
         
@@ -107,7 +117,7 @@ public class FeAggregator extends AnalysisComponent<VariableWithFeatureEffect> {
                 }
                 
                 // Start processing of the new (identified) variable
-                conditions = new DisjunctionQueue(simplify, FormulaSimplifier::simplify);
+                conditions = new DisjunctionQueue(simplify, simplifier);
                 groupedQueues.put(varName, conditions);
             }
             
@@ -121,6 +131,10 @@ public class FeAggregator extends AnalysisComponent<VariableWithFeatureEffect> {
         aggregateFeatureEffects(groupedQueues);
         
         progress.close();
+        
+        if (null != cache) {
+            cache.release();
+        }
     }
 
     /**
@@ -15,19 +15,29 @@
  */
 package net.ssehub.kernel_haven.fe_analysis.fes;
 
+import static net.ssehub.kernel_haven.util.null_checks.NullHelpers.notNull;
+
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
+import net.ssehub.kernel_haven.fe_analysis.SimplificationCache;
 import net.ssehub.kernel_haven.fe_analysis.pcs.PcFinder.VariableWithPcs;
 import net.ssehub.kernel_haven.logic_utils.SimplifyingDisjunctionQueue;
 import net.ssehub.kernel_haven.util.logic.Conjunction;
+import net.ssehub.kernel_haven.util.logic.Disjunction;
 import net.ssehub.kernel_haven.util.logic.DisjunctionQueue;
 import net.ssehub.kernel_haven.util.logic.False;
 import net.ssehub.kernel_haven.util.logic.Formula;
 import net.ssehub.kernel_haven.util.logic.FormulaSimplifier;
 import net.ssehub.kernel_haven.util.logic.Negation;
 import net.ssehub.kernel_haven.util.logic.True;
+import net.ssehub.kernel_haven.util.logic.Variable;
 import net.ssehub.kernel_haven.util.logic.VariableValueReplacer;
 import net.ssehub.kernel_haven.util.null_checks.NonNull;
+import net.ssehub.kernel_haven.util.null_checks.Nullable;
 
 /**
  * Helper class for computing feature effects.
@@ -36,10 +46,186 @@ import net.ssehub.kernel_haven.util.null_checks.NonNull;
  */
 public class FeatureEffectComputer {
     
+    /**
+     * Removes all literals of a single variable from a pure conjunction or a pure disjunction of literals, while
+     * keeping the structure (and instances) of the remaining formula.
+     */
+    private static class LiteralRemover {
+        
+        private @NonNull String variable;
+        
+        private boolean foundPositive;
+        
+        private boolean foundNegative;
+        
+        /**
+         * Creates a {@link LiteralRemover}.
+         * 
+         * @param variable The name of the variable to remove.
+         */
+        LiteralRemover(@NonNull String variable) {
+            this.variable = variable;
+        }
+        
+        /**
+         * Checks whether the given formula is a literal, i.e., a variable or a negated variable.
+         * 
+         * @param formula The formula to check.
+         * @return <code>true</code> if the formula is a literal.
+         */
+        static boolean isLiteral(@NonNull Formula formula) {
+            return formula instanceof Variable
+                || (formula instanceof Negation && ((Negation) formula).getFormula() instanceof Variable);
+        }
+        
+        /**
+         * Returns the variable of a literal.
+         * 
+         * @param literal A formula for which {@link #isLiteral(Formula)} is <code>true</code>.
+         * @return The variable of the literal.
+         */
+        static @NonNull Variable getLiteralVariable(@NonNull Formula literal) {
+            return (Variable) (literal instanceof Negation ? ((Negation) literal).getFormula() : literal);
+        }
+        
+        /**
+         * Checks whether the given formula is a pure conjunction (or disjunction) of literals.
+         * 
+         * @param formula The formula to check.
+         * @param conjunction <code>true</code> to check for a conjunction, <code>false</code> for a disjunction.
+         * @return <code>true</code> if the formula consists only of literals and the given operator.
+         */
+        static boolean isLiteralTree(@NonNull Formula formula, boolean conjunction) {
+            boolean result;
+            if (conjunction && formula instanceof Conjunction) {
+                Conjunction con = (Conjunction) formula;
+                result = isLiteralTree(con.getLeft(), conjunction) && isLiteralTree(con.getRight(), conjunction);
+            } else if (!conjunction && formula instanceof Disjunction) {
+                Disjunction dis = (Disjunction) formula;
+                result = isLiteralTree(dis.getLeft(), conjunction) && isLiteralTree(dis.getRight(), conjunction);
+            } else {
+                result = isLiteral(formula);
+            }
+            return result;
+        }
+        
+        /**
+         * Removes the literals of the variable from a formula for which {@link #isLiteralTree(Formula, boolean)} is
+         * <code>true</code>.
+         * 
+         * @param formula The formula to remove the literals from.
+         * @return The remaining formula, or <code>null</code> if nothing remains.
+         */
+        @Nullable Formula remove(@NonNull Formula formula) {
+            Formula result;
+            if (formula instanceof Conjunction || formula instanceof Disjunction) {
+                boolean isConjunction = formula instanceof Conjunction;
+                Formula left = isConjunction ? ((Conjunction) formula).getLeft() : ((Disjunction) formula).getLeft();
+                Formula right = isConjunction
+                        ? ((Conjunction) formula).getRight() : ((Disjunction) formula).getRight();
+                
+                Formula newLeft = remove(left);
+                Formula newRight = remove(right);
+                
+                if (newLeft == null) {
+                    result = newRight;
+                } else if (newRight == null) {
+                    result = newLeft;
+                } else if (newLeft == left && newRight == right) {
+                    result = formula;
+                } else {
+                    result = isConjunction ? new Conjunction(newLeft, newRight) : new Disjunction(newLeft, newRight);
+                }
+                
+            } else if (getLiteralVariable(formula).getName().equals(variable)) {
+                if (formula instanceof Negation) {
+                    foundNegative = true;
+                } else {
+                    foundPositive = true;
+                }
+                result = null;
+                
+            } else {
+                result = formula;
+            }
+            return result;
+        }
+        
+    }
+    
+    /**
+     * Computes the disjunction of the XOR elements for a range of presence conditions. Ranges that are larger than
+     * the fork-join threshold are split into two halves, which are computed in parallel and combined afterwards.
+     */
+    private class XorTreeTask extends RecursiveTask<@NonNull Formula> {
+        
+        private static final long serialVersionUID = 6314895712437705519L;
+
+        private @NonNull String variable;
+        
+        private @NonNull List<@NonNull Formula> pcs;
+        
+        private int from;
+        
+        private int to;
+        
+        /**
+         * Creates a {@link XorTreeTask}.
+         * 
+         * @param variable The variable name for which we currently compute the feature effect.
+         * @param pcs All presence conditions relevant for the variable.
+         * @param from The index of the first presence condition to process (inclusive).
+         * @param to The index of the last presence condition to process (exclusive).
+         */
+        XorTreeTask(@NonNull String variable, @NonNull List<@NonNull Formula> pcs, int from, int to) {
+            this.variable = variable;
+            this.pcs = pcs;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected @NonNull Formula compute() {
+            Formula result;
+            
+            if (to - from <= forkJoinThreshold) {
+                result = createSequentialXorTree(variable, notNull(pcs.subList(from, to)));
+                
+            } else {
+                int middle = (from + to) >>> 1;
+                XorTreeTask left = new XorTreeTask(variable, pcs, from, middle);
+                XorTreeTask right = new XorTreeTask(variable, pcs, middle, to);
+                
+                left.fork();
+                Formula rightResult = right.compute();
+                Formula leftResult = notNull(left.join());
+                
+                // combine both halves, simplifying on each level of the reduction tree
+                DisjunctionQueue combined = createDisjunctionQueue();
+                combined.add(leftResult);
+                combined.add(rightResult);
+                result = combined.getDisjunction(variable);
+            }
+            
+            return result;
+        }
+        
+    }
+    
     private boolean simplify;
     
     private boolean hasNonBooleanReplacement;
     
+    private boolean useBdd;
+    
+    private @Nullable XorTermCache xorCache;
+    
+    private int forkJoinThreshold;
+    
+    private boolean simpleXor = true;
+    
+    private @Nullable SimplificationCache simplificationCache;
+    
     /**
      * Creates a {@link FeatureEffectComputer}.
      * 
@@ -57,11 +243,66 @@ public class FeatureEffectComputer {
      * @param hasNonBooleanReplacement Whether the formulas contain non boolean replacements (e.g. _eq_).
      */
     public FeatureEffectComputer(boolean simplify, boolean hasNonBooleanReplacement) {
+        this(simplify, hasNonBooleanReplacement, false);
+    }
+    
+    /**
+     * Creates a {@link FeatureEffectComputer}.
+     * 
+     * @param simplify Whether to use a more powerful simplification.
+     * @param hasNonBooleanReplacement Whether the formulas contain non boolean replacements (e.g. _eq_).
+     * @param useBdd Whether feature effects should be computed on binary decision diagrams instead of formula trees.
+     */
+    public FeatureEffectComputer(boolean simplify, boolean hasNonBooleanReplacement, boolean useBdd) {
         this.simplify = simplify;
         this.hasNonBooleanReplacement = hasNonBooleanReplacement;
+        this.useBdd = useBdd;
     }
 
     
+    /**
+     * Sets a cache for the XOR terms of single presence conditions. The cache may be shared with other
+     * {@link FeatureEffectComputer}s. Only terms of the generic path via cofactors are cached. Not used if feature
+     * effects are computed on binary decision diagrams.
+     * 
+     * @param xorCache The cache to use, <code>null</code> to disable caching.
+     */
+    public void setXorCache(@Nullable XorTermCache xorCache) {
+        this.xorCache = xorCache;
+    }
+    
+    /**
+     * Sets a persistent cache for the simplification of (intermediate) feature effects. Only used if the more
+     * powerful simplification is enabled.
+     * 
+     * @param simplificationCache The cache to use, <code>null</code> to always simplify from scratch.
+     */
+    public void setSimplificationCache(@Nullable SimplificationCache simplificationCache) {
+        this.simplificationCache = simplificationCache;
+    }
+    
+    /**
+     * Sets the number of presence conditions above which the XOR elements of a single variable are computed in
+     * parallel. The presence conditions are split into chunks of at most this size, which are processed in the
+     * common {@link ForkJoinPool}. Not used if feature effects are computed on binary decision diagrams.
+     * 
+     * @param forkJoinThreshold The threshold, 0 to always compute the feature effect of a variable sequentially.
+     */
+    public void setForkJoinThreshold(int forkJoinThreshold) {
+        this.forkJoinThreshold = forkJoinThreshold;
+    }
+    
+    /**
+     * Sets whether XOR elements of presence conditions with a simple structure are created without computing the
+     * cofactors (see {@link #createSimpleXor(String, Formula)}). Enabled by default; only disabled by tests to compare
+     * both ways.
+     * 
+     * @param simpleXor Whether to use the fast path for simple presence conditions.
+     */
+    void setSimpleXorEnabled(boolean simpleXor) {
+        this.simpleXor = simpleXor;
+    }
+    
     /**
      * Creates a feature effect for the given variable and it's PCs.
      * A feature effect is defined as:
@@ -90,7 +331,74 @@ public class FeatureEffectComputer {
 //            pcs = tmp;
 //        }
         
-        Formula result = createXorTree(variable, pcs);
+        Formula simplifiedResult;
+        if (useBdd) {
+            // the formula converted back from the BDD is simplified like the result of the formula computation
+            simplifiedResult = simplifyFeatureEffect(createBddFeatureEffect(variable, pcs));
+            
+        } else {
+            simplifiedResult = finishFeatureEffect(variable, createXorTree(variable, pcs));
+        }
+        
+        return simplifiedResult;
+    }
+    
+    /**
+     * Creates the XOR element <code>PC[variable &lt;- true] XOR PC[variable &lt;- false]</code> for each of the given
+     * presence conditions. Together with {@link #buildFeatureEffect(String, Collection)}, this allows callers to
+     * re-use the XOR elements for more than one feature effect (e.g. the feature effect of all presence conditions and
+     * the feature effects of single presence conditions).
+     * 
+     * @param variable The variable name for which we currently compute the feature effect.
+     * @param pcs The presence conditions relevant for the variable.
+     * @return The XOR elements, in the iteration order of the presence conditions.
+     */
+    public @NonNull List<@NonNull Formula> createXorTerms(@NonNull String variable,
+            @NonNull Collection<@NonNull Formula> pcs) {
+        
+        DisjunctionQueue innerElements;
+        if (this.simplify) {
+            innerElements = new DisjunctionQueue(true, this::simplify);
+        } else {
+            innerElements = new DisjunctionQueue(true);
+        }
+        
+        List<@NonNull Formula> result = new ArrayList<>(pcs.size());
+        for (Formula pc : pcs) {
+            result.add(createXor(variable, pc, innerElements));
+        }
+        return result;
+    }
+    
+    /**
+     * Creates a feature effect from XOR elements created by {@link #createXorTerms(String, Collection)}. The result
+     * is the same as {@link #buildFeatureEffefct(VariableWithPcs)} for the presence conditions of the XOR elements,
+     * unless this computer works on BDDs.
+     * 
+     * @param variable The variable name for which we currently compute the feature effect.
+     * @param xorTerms The XOR elements of the presence conditions.
+     * @return A formula representing the feature effect of the variable.
+     */
+    public @NonNull Formula buildFeatureEffect(@NonNull String variable,
+            @NonNull Collection<@NonNull Formula> xorTerms) {
+        
+        DisjunctionQueue xorTrees = createDisjunctionQueue();
+        for (Formula xor : xorTerms) {
+            xorTrees.add(xor);
+        }
+        return finishFeatureEffect(variable, xorTrees.getDisjunction(variable));
+    }
+    
+    /**
+     * Turns the disjunction of all XOR elements into the final feature effect: removes other values of non-boolean
+     * variables and simplifies the result.
+     * 
+     * @param variable The variable name for which we currently compute the feature effect.
+     * @param xorTree The disjunction of the XOR elements.
+     * @return The feature effect of the variable.
+     */
+    private @NonNull Formula finishFeatureEffect(@NonNull String variable, @NonNull Formula xorTree) {
+        Formula result = xorTree;
         if (this.hasNonBooleanReplacement) {
             int index = variable.indexOf("_eq_");
             
@@ -100,43 +408,240 @@ public class FeatureEffectComputer {
             }
         }
         
+        return simplifyFeatureEffect(result);
+    }
+    
+    /**
+     * Simplifies a final feature effect, depending on whether the more powerful simplification is enabled.
+     * 
+     * @param featureEffect The feature effect to simplify.
+     * @return The simplified feature effect.
+     */
+    private @NonNull Formula simplifyFeatureEffect(@NonNull Formula featureEffect) {
         Formula simplifiedResult;
         if (simplify) {
             // Perform a simplification on the final result: Logical simplification
-            simplifiedResult = FormulaSimplifier.simplify(result);
+            simplifiedResult = simplify(featureEffect);
         } else {
             // At least remove the constants left from the XORs: Make constraints only readable
-            simplifiedResult = FormulaSimplifier.defaultSimplifier(result);
+            simplifiedResult = FormulaSimplifier.defaultSimplifier(featureEffect);
         }
-        
         return simplifiedResult;
     }
 
     /**
-     * Creates the disjunction of the XOR elements as needed by the Feature effect algorithm.
+     * Computes the feature effect on binary decision diagrams. Each PC is converted into a BDD, the boolean
+     * difference <code>PC[variable &lt;- true] XOR PC[variable &lt;- false]</code> is computed with BDD operations,
+     * and only the final disjunction is converted back into a {@link Formula}. The result is not simplified yet.
+     * 
+     * @param variable The variable name for which we currently compute the feature effect.
+     * @param pcs The presence conditions relevant for the variable.
+     * @return The feature effect constraint (pre-condition).
+     */
+    private @NonNull Formula createBddFeatureEffect(@NonNull String variable,
+            @NonNull Collection<@NonNull Formula> pcs) {
+        
+        BddManager bdd = new BddManager();
+        // register the variable first, so that it becomes the root of the variable order -> cheap restrict
+        int varIndex = bdd.getVariableIndex(new Variable(variable));
+        
+        int result = BddManager.FALSE;
+        for (Formula pc : pcs) {
+            int pcNode = bdd.fromFormula(pc);
+            int xor = bdd.xor(bdd.restrict(pcNode, varIndex, true), bdd.restrict(pcNode, varIndex, false));
+            result = bdd.or(result, xor);
+        }
+        
+        if (this.hasNonBooleanReplacement) {
+            int index = variable.indexOf("_eq_");
+            
+            if (index != -1) {
+                // other values of the same variable can't be selected at the same time
+                String prefix = variable.substring(0, index) + "_eq_";
+                List<@NonNull Variable> variables = bdd.getVariables();
+                for (int i = 0; i < variables.size(); i++) {
+                    if (variables.get(i).getName().startsWith(prefix)) {
+                        result = bdd.restrict(result, i, false);
+                    }
+                }
+            }
+        }
+        
+        return bdd.toFormula(result);
+    }
+
+    /**
+     * Creates the disjunction of the XOR elements as needed by the Feature effect algorithm. Variables with more
+     * presence conditions than the fork-join threshold are processed in parallel.
      * 
      * @param variable The variable name for which we currently compute the feature effect.
      * @param pcs The presence conditions relevant for the variable.
      * @return The feature effect constraint (pre-condition).
      */
     private @NonNull Formula createXorTree(@NonNull String variable, @NonNull Collection<@NonNull Formula> pcs) {
+        Formula result;
         
-        DisjunctionQueue innerElements;
-        DisjunctionQueue xorTrees;
+        if (forkJoinThreshold > 0 && pcs.size() > forkJoinThreshold) {
+            List<@NonNull Formula> pcList = new ArrayList<>(pcs);
+            result = ForkJoinPool.commonPool().invoke(new XorTreeTask(variable, pcList, 0, pcList.size()));
+        } else {
+            result = createSequentialXorTree(variable, pcs);
+        }
         
+        return notNull(result);
+    }
+    
+    /**
+     * Creates the disjunction of the XOR elements in the current thread.
+     * 
+     * @param variable The variable name for which we currently compute the feature effect.
+     * @param pcs The presence conditions relevant for the variable.
+     * @return The feature effect constraint (pre-condition).
+     */
+    private @NonNull Formula createSequentialXorTree(@NonNull String variable,
+            @NonNull Collection<@NonNull Formula> pcs) {
+        
+        DisjunctionQueue xorTrees = createDisjunctionQueue();
+        for (Formula xor : createXorTerms(variable, pcs)) {
+            xorTrees.add(xor);
+        }
+        
+        Formula result = xorTrees.getDisjunction(variable);
+        return result;
+    }
+    
+    /**
+     * Simplifies the given formula, using the persistent cache if set.
+     * 
+     * @param formula The formula to simplify.
+     * @return The simplified formula.
+     */
+    private @NonNull Formula simplify(@NonNull Formula formula) {
+        SimplificationCache cache = this.simplificationCache;
+        return cache != null ? cache.simplify(formula) : FormulaSimplifier.simplify(formula);
+    }
+    
+    /**
+     * Creates a queue to combine XOR elements (or partial disjunctions of them) with.
+     * 
+     * @return A new, empty queue.
+     */
+    private @NonNull DisjunctionQueue createDisjunctionQueue() {
+        DisjunctionQueue result;
         if (this.simplify) {
-            innerElements = new DisjunctionQueue(true, FormulaSimplifier::simplify);
-            xorTrees = new SimplifyingDisjunctionQueue();
+            result = new SimplifyingDisjunctionQueue();
         } else {
-            innerElements = new DisjunctionQueue(true);
-            xorTrees = new DisjunctionQueue(true);
+            result = new DisjunctionQueue(true);
         }
+        return result;
+    }
+    
+    /**
+     * Creates the XOR element <code>PC[variable &lt;- true] XOR PC[variable &lt;- false]</code> for a single presence
+     * condition.
+     * 
+     * @param variable The variable name for which we currently compute the feature effect.
+     * @param pc The presence condition to create the XOR element for.
+     * @param innerElements A (re-usable) queue to build the inner disjunctions with.
+     * @return The XOR element of the presence condition.
+     */
+    private @NonNull Formula createXor(@NonNull String variable, @NonNull Formula pc,
+            @NonNull DisjunctionQueue innerElements) {
         
-        for (Formula pc : pcs) {
+        Formula xor = null;
+        if (simpleXor) {
+            xor = createSimpleXor(variable, pc);
+        }
+        
+        if (xor == null) {
+            // only the generic path is worth caching; simple terms are cheaper to create than to look up
+            XorTermCache cache = this.xorCache;
+            if (cache != null) {
+                xor = cache.get(pc, variable, simplify);
+            }
+            if (xor == null) {
+                xor = createGenericXor(variable, pc, innerElements);
+                if (cache != null) {
+                    cache.put(pc, variable, simplify, xor);
+                }
+            }
+        }
+        return xor;
+    }
+    
+    /**
+     * Creates the XOR element for presence conditions of a simple structure, without replacing the variable in
+     * the presence condition. Supported are:
+     * <ul>
+     *   <li>Single literals: <code>A</code> or <code>!A</code> &rarr; <code>true</code></li>
+     *   <li>Conjunctions of literals: <code>A &amp;&amp; B &amp;&amp; !C</code> &rarr;
+     *       <code>B &amp;&amp; !C</code></li>
+     *   <li>Disjunctions of literals: <code>A || B || !C</code> &rarr; <code>!(B || !C)</code></li>
+     * </ul>
+     * 
+     * @param variable The variable name for which we currently compute the feature effect.
+     * @param pc The presence condition to create the XOR element for.
+     * @return The XOR element of the presence condition, or <code>null</code> if the presence condition has no simple
+     *     structure or does not contain the variable at all.
+     */
+    private @Nullable Formula createSimpleXor(@NonNull String variable, @NonNull Formula pc) {
+        Formula xor = null;
+        
+        boolean isConjunction = pc instanceof Conjunction;
+        if (LiteralRemover.isLiteral(pc)) {
+            if (LiteralRemover.getLiteralVariable(pc).getName().equals(variable)) {
+                xor = True.INSTANCE;
+            }
+            
+        } else if ((isConjunction || pc instanceof Disjunction) && LiteralRemover.isLiteralTree(pc, isConjunction)) {
+            LiteralRemover remover = new LiteralRemover(variable);
+            Formula rest = remover.remove(pc);
+            
+            if (remover.foundPositive && remover.foundNegative) {
+                // (A && !A && ...) <-> false; (A || !A || ...) <-> true; the variable has no effect in both cases
+                xor = False.INSTANCE;
+                
+            } else if (remover.foundPositive || remover.foundNegative) {
+                if (rest == null) {
+                    xor = True.INSTANCE;
+                } else if (isConjunction) {
+                    // A && rest: (rest XOR false) <-> rest
+                    xor = rest;
+                } else {
+                    // A || rest: (true XOR rest) <-> !rest
+                    xor = new Negation(rest);
+                }
+            }
+        }
+        
+        return xor;
+    }
+    
+    /**
+     * Creates the XOR element for an arbitrary presence condition by replacing the variable with <code>true</code>
+     * and <code>false</code>. Both cofactors are computed in a single pass by the {@link CofactorComputer}.
+     * 
+     * @param variable The variable name for which we currently compute the feature effect.
+     * @param pc The presence condition to create the XOR element for.
+     * @param innerElements A (re-usable) queue to build the inner disjunctions with.
+     * @return The XOR element of the presence condition.
+     */
+    private @NonNull Formula createGenericXor(@NonNull String variable, @NonNull Formula pc,
+            @NonNull DisjunctionQueue innerElements) {
+        
+        @NonNull Formula[] cofactors = CofactorComputer.computeCofactors(pc, variable);
+        
+        Formula xor;
+        
+        if (cofactors == null) {
+            // variable does not occur in the PC: A xor A <-> FALSE
+            xor = False.INSTANCE;
+            
+        } else {
             //      A xor B
             // <==> (A || B) && (!A || !B)
-            Formula trueFormula = pc.accept(new VariableValueReplacer(variable, true, true));
-            Formula falseFormula = pc.accept(new VariableValueReplacer(variable, false, true));
+            Formula trueFormula = cofactors[0];
+            Formula falseFormula = cofactors[1];
             
             // (A || B)
             innerElements.add(trueFormula);
@@ -148,8 +653,6 @@ public class FeatureEffectComputer {
             innerElements.add(new Negation(falseFormula));
             Formula atLeastOneNegative = innerElements.getDisjunction(variable);
             
-            Formula xor;
-            
             if (atLeastOnePositive == True.INSTANCE) {
                 // TRUE AND atLeastOneNegative <-> atLeastOneNegative
                 xor = atLeastOneNegative;
@@ -165,11 +668,9 @@ public class FeatureEffectComputer {
             } else {
                 xor = new Conjunction(atLeastOnePositive, atLeastOneNegative);
             }
-            xorTrees.add(xor);
         }
         
-        Formula result = xorTrees.getDisjunction(variable);
-        return result;
+        return xor;
     }
     
 }
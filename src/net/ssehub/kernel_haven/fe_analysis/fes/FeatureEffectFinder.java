@@ -17,11 +17,25 @@ package net.ssehub.kernel_haven.fe_analysis.fes;
 
 import static net.ssehub.kernel_haven.util.null_checks.NullHelpers.notNull;
 
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
 import net.ssehub.kernel_haven.SetUpException;
 import net.ssehub.kernel_haven.analysis.AnalysisComponent;
 import net.ssehub.kernel_haven.config.Configuration;
+import net.ssehub.kernel_haven.config.DefaultSettings;
 import net.ssehub.kernel_haven.fe_analysis.PresenceConditionAnalysisHelper;
+import net.ssehub.kernel_haven.fe_analysis.Settings;
+import net.ssehub.kernel_haven.fe_analysis.Settings.FeComputationType;
 import net.ssehub.kernel_haven.fe_analysis.Settings.SimplificationType;
+import net.ssehub.kernel_haven.fe_analysis.SimplificationCache;
+import net.ssehub.kernel_haven.fe_analysis.StringUtils;
 import net.ssehub.kernel_haven.fe_analysis.fes.FeatureEffectFinder.VariableWithFeatureEffect;
 import net.ssehub.kernel_haven.fe_analysis.pcs.PcFinder.VariableWithPcs;
 import net.ssehub.kernel_haven.util.PerformanceProbe;
@@ -104,6 +118,8 @@ public class FeatureEffectFinder extends AnalysisComponent<VariableWithFeatureEf
         
     }
     
+    private static final @NonNull String INCREMENTAL_STORE_PREFIX = "incremental_feature_effects_";
+    
     /**
      * The component to get the input PCs from.
      */
@@ -113,8 +129,15 @@ public class FeatureEffectFinder extends AnalysisComponent<VariableWithFeatureEf
     
     private @NonNull FeatureEffectComputer computer;
     
+    private @Nullable XorTermCache xorCache;
+    
+    private @Nullable SimplificationCache simplificationCache;
+    
+    private @Nullable IncrementalFeatureEffectStore incrementalStore;
+    
     /**
-     * Creates a new {@link FeatureEffectFinder} for the given PC finder.
+     * Creates a new {@link FeatureEffectFinder} for the given PC finder. Creates its own XOR term cache, if
+     * configured by {@link Settings#XOR_CACHE_SIZE}.
      * 
      * @param config The global configuration.
      * @param pcFinder The component to get the PCs from.
@@ -124,14 +147,145 @@ public class FeatureEffectFinder extends AnalysisComponent<VariableWithFeatureEf
     public FeatureEffectFinder(@NonNull Configuration config, @NonNull AnalysisComponent<VariableWithPcs> pcFinder)
             throws SetUpException {
         
+        this(config, pcFinder, XorTermCache.create(config));
+    }
+    
+    /**
+     * Creates a new {@link FeatureEffectFinder} for the given PC finder, which uses the given XOR term cache. This
+     * allows a pipeline to share a single cache between multiple components.
+     * 
+     * @param config The global configuration.
+     * @param pcFinder The component to get the PCs from.
+     * @param xorCache The cache for XOR terms, <code>null</code> to disable caching.
+     * 
+     * @throws SetUpException If creating this component fails.
+     */
+    public FeatureEffectFinder(@NonNull Configuration config, @NonNull AnalysisComponent<VariableWithPcs> pcFinder,
+            @Nullable XorTermCache xorCache) throws SetUpException {
+        
         super(config);
         this.pcFinder = pcFinder;
         this.helper = new PresenceConditionAnalysisHelper(config);
         
         boolean simplify = helper.getSimplificationMode().ordinal() >= SimplificationType.PRESENCE_CONDITIONS.ordinal();
-        this.computer = new FeatureEffectComputer(simplify, helper.isNonBooleanReplacements());
+        boolean useBdd = helper.getFeComputationMode() == FeComputationType.BDD;
+        this.computer = new FeatureEffectComputer(simplify, helper.isNonBooleanReplacements(), useBdd);
+        
+        this.xorCache = xorCache;
+        computer.setXorCache(xorCache);
+        
+        config.registerSetting(Settings.FE_FORK_JOIN_THRESHOLD);
+        int forkJoinThreshold = config.getValue(Settings.FE_FORK_JOIN_THRESHOLD);
+        if (forkJoinThreshold < 0) {
+            throw new SetUpException("Fork-join threshold can't be " + forkJoinThreshold);
+        }
+        computer.setForkJoinThreshold(forkJoinThreshold);
+        
+        if (simplify) {
+            this.simplificationCache = SimplificationCache.acquire(config);
+            computer.setSimplificationCache(simplificationCache);
+        }
+        
+        config.registerSetting(Settings.INCREMENTAL_FEATURE_EFFECTS);
+        if (config.getValue(Settings.INCREMENTAL_FEATURE_EFFECTS)) {
+            File storeFile = getIncrementalStoreFile(config, pcFinder);
+            // all options that change the feature effect of a given set of presence conditions
+            String fingerprint = "simplify=" + simplify + ", bdd=" + useBdd
+                    + ", non_boolean=" + helper.isNonBooleanReplacements();
+            try {
+                this.incrementalStore = new IncrementalFeatureEffectStore(storeFile, fingerprint);
+            } catch (IOException e) {
+                LOGGER.logException("Can't read feature effects of previous run; computing all feature effects", e);
+            }
+        }
     }
 
+    /**
+     * Determines the file of the incremental store for a new {@link FeatureEffectFinder}. The name of the store is
+     * either configured explicitly by {@link Settings#INCREMENTAL_STORE}, or derived from the source tree and the
+     * classes of the upstream components. Thus, finders of pipelines on different source trees (which share a cache
+     * directory) and finders with different inputs get different files, so that they don't overwrite the feature
+     * effects of each other; the same finder in a later run finds its file again.
+     * 
+     * @param config The pipeline configuration.
+     * @param pcFinder The component to get the PCs from.
+     * 
+     * @return The file to store the feature effects in, in the cache directory.
+     * 
+     * @throws SetUpException If the cache directory is not configured.
+     */
+    static @NonNull File getIncrementalStoreFile(@NonNull Configuration config,
+            @NonNull AnalysisComponent<VariableWithPcs> pcFinder) throws SetUpException {
+        
+        config.registerSetting(DefaultSettings.CACHE_DIR);
+        File cacheDir = config.getValue(DefaultSettings.CACHE_DIR);
+        
+        config.registerSetting(Settings.INCREMENTAL_STORE);
+        String id = config.getValue(Settings.INCREMENTAL_STORE);
+        
+        if (id == null) {
+            String sourceTree = "";
+            try {
+                config.registerSetting(DefaultSettings.SOURCE_TREE);
+                sourceTree = config.getValue(DefaultSettings.SOURCE_TREE).getAbsolutePath();
+            } catch (SetUpException e) {
+                LOGGER.logInfo("No source tree configured (" + e.getMessage() + "); the incremental feature effect "
+                        + "store is only identified by the input components");
+            }
+            
+            StringBuilder chain = new StringBuilder();
+            appendComponentChain(pcFinder, chain, Collections.newSetFromMap(new IdentityHashMap<>()));
+            id = sourceTree + '\n' + chain;
+        }
+        
+        return new File(cacheDir, INCREMENTAL_STORE_PREFIX + StringUtils.sha1Hex(id).substring(0, 16) + ".txt");
+    }
+    
+    /**
+     * Appends the class names of the given component and all of its (transitive) input components to the given
+     * string, e.g. <code>PcFinder(CodeModelComponent(), BuildModelComponent())</code>. The input components are
+     * determined from the fields of the components that store other {@link AnalysisComponent}s, ordered by the name
+     * of the field.
+     * 
+     * @param component The component to start at.
+     * @param result The string to append to.
+     * @param visited The components that were already visited, to stop at cycles.
+     */
+    private static void appendComponentChain(@NonNull AnalysisComponent<?> component, @NonNull StringBuilder result,
+            @NonNull Set<AnalysisComponent<?>> visited) {
+        
+        result.append(component.getClass().getName()).append('(');
+        if (visited.add(component)) {
+            boolean first = true;
+            for (Class<?> cls = component.getClass(); cls != null && cls != AnalysisComponent.class;
+                    cls = cls.getSuperclass()) {
+                
+                Field[] fields = cls.getDeclaredFields();
+                Arrays.sort(fields, (f1, f2) -> f1.getName().compareTo(f2.getName()));
+                for (Field field : fields) {
+                    if (!Modifier.isStatic(field.getModifiers())
+                            && AnalysisComponent.class.isAssignableFrom(field.getType())) {
+                        Object input = null;
+                        try {
+                            field.setAccessible(true);
+                            input = field.get(component);
+                        } catch (ReflectiveOperationException | RuntimeException e) {
+                            // input not accessible; use only the components that are
+                        }
+                        if (input != null) {
+                            if (!first) {
+                                result.append(", ");
+                            }
+                            appendComponentChain((AnalysisComponent<?>) input, result, visited);
+                            first = false;
+                        }
+                    }
+                }
+            }
+        }
+        result.append(')');
+    }
+    
     @Override
     protected void execute() {
         
@@ -148,6 +302,38 @@ public class FeatureEffectFinder extends AnalysisComponent<VariableWithFeatureEf
         }
         
         progress.close();
+        releaseCaches();
+    }
+    
+    /**
+     * Logs the statistics of the XOR term and relevance caches, releases the simplification cache, and stores the
+     * feature effects for the next incremental run, if enabled. Must be called once at the end of {@link #execute()}.
+     */
+    protected void releaseCaches() {
+        XorTermCache cache = this.xorCache;
+        if (cache != null) {
+            LOGGER.logInfo("XOR term cache: " + cache.getHits() + " hits, " + cache.getMisses() + " misses, "
+                    + cache.size() + " cached terms");
+        }
+        
+        LOGGER.logDebug("Relevance of variables: " + helper.getRelevanceCacheMisses() + " computed, "
+                + helper.getRelevanceCacheHits() + " taken from cache");
+        
+        SimplificationCache simplificationCache = this.simplificationCache;
+        if (simplificationCache != null) {
+            simplificationCache.release();
+        }
+        
+        IncrementalFeatureEffectStore incrementalStore = this.incrementalStore;
+        if (incrementalStore != null) {
+            LOGGER.logInfo("Re-used " + incrementalStore.getNumReused() + " feature effects of the previous run, "
+                    + "computed " + incrementalStore.getNumComputed() + " feature effects");
+            try {
+                incrementalStore.save();
+            } catch (IOException e) {
+                LOGGER.logException("Can't store feature effects for the next run", e);
+            }
+        }
     }
     
     /**
@@ -163,7 +349,23 @@ public class FeatureEffectFinder extends AnalysisComponent<VariableWithFeatureEf
         
         String varName = pcs.getVariable();
         if (helper.isRelevant(varName)) {
-            Formula feConstraint = helper.doReplacements(computer.buildFeatureEffefct(pcs));
+            Formula feConstraint = null;
+            
+            IncrementalFeatureEffectStore incrementalStore = this.incrementalStore;
+            String pcHash = null;
+            if (incrementalStore != null) {
+                pcHash = IncrementalFeatureEffectStore.hashPcs(pcs);
+                feConstraint = incrementalStore.getFeatureEffect(varName, pcHash);
+            }
+            
+            if (feConstraint == null) {
+                feConstraint = computer.buildFeatureEffefct(pcs);
+                if (incrementalStore != null) {
+                    incrementalStore.putFeatureEffect(varName, notNull(pcHash), feConstraint);
+                }
+            }
+            
+            feConstraint = helper.doReplacements(feConstraint);
             varName = helper.doReplacements(varName);
             
             result = new VariableWithFeatureEffect(varName, feConstraint);
@@ -25,7 +25,10 @@ import net.ssehub.kernel_haven.analysis.AnalysisComponent;
 import net.ssehub.kernel_haven.config.Configuration;
 import net.ssehub.kernel_haven.config.Setting;
 import net.ssehub.kernel_haven.config.Setting.Type;
+import net.ssehub.kernel_haven.fe_analysis.ConcurrentVariableCache;
+import net.ssehub.kernel_haven.fe_analysis.Settings;
 import net.ssehub.kernel_haven.fe_analysis.fes.FeatureEffectFinder.VariableWithFeatureEffect;
+import net.ssehub.kernel_haven.util.OrderPreservingParallelizer;
 import net.ssehub.kernel_haven.util.io.ITableCollection;
 import net.ssehub.kernel_haven.util.io.ITableReader;
 import net.ssehub.kernel_haven.util.io.TableCollectionReaderFactory;
@@ -35,6 +38,7 @@ import net.ssehub.kernel_haven.util.logic.parser.ExpressionFormatException;
 import net.ssehub.kernel_haven.util.logic.parser.Parser;
 import net.ssehub.kernel_haven.util.logic.parser.VariableCache;
 import net.ssehub.kernel_haven.util.null_checks.NonNull;
+import net.ssehub.kernel_haven.util.null_checks.Nullable;
 
 /**
  * A component that reads {@link VariableWithFeatureEffect}s from a file specified in the configuration.
@@ -48,8 +52,41 @@ public class FeatureEffectReader extends AnalysisComponent<VariableWithFeatureEf
                     "A file containing the feature effects to be read by the "
                     + FeatureEffectReader.class.getName());
     
+    /**
+     * A row read from the file, which still needs to be parsed.
+     */
+    private static final class Row {
+        
+        private @NonNull String name;
+        
+        private @NonNull String featureEffect;
+        
+        private int lineNumber;
+        
+        /**
+         * Creates a row.
+         * 
+         * @param name The name of the variable (first column).
+         * @param featureEffect The feature effect (second column).
+         * @param lineNumber The line number in the file, for error messages.
+         */
+        Row(@NonNull String name, @NonNull String featureEffect, int lineNumber) {
+            this.name = name;
+            this.featureEffect = featureEffect;
+            this.lineNumber = lineNumber;
+        }
+        
+    }
+    
     private @NonNull File inputFile;
     
+    private int numThreads;
+    
+    /**
+     * One parser per thread, since parsers are not thread-safe. All parsers share one variable cache.
+     */
+    private @NonNull ThreadLocal<Parser<@NonNull Formula>> parser;
+    
     /**
      * Creates this component. No input required since the input file is read from the configuration.
      * 
@@ -62,6 +99,15 @@ public class FeatureEffectReader extends AnalysisComponent<VariableWithFeatureEf
         
         config.registerSetting(INPUT_FILE_SETTING);
         this.inputFile = config.getValue(INPUT_FILE_SETTING);
+        
+        config.registerSetting(Settings.READER_THREADS);
+        this.numThreads = config.getValue(Settings.READER_THREADS);
+        if (numThreads < 1) {
+            throw new SetUpException("Number of threads can't be " + numThreads);
+        }
+        
+        VariableCache varCache = numThreads > 1 ? new ConcurrentVariableCache() : new VariableCache();
+        this.parser = ThreadLocal.withInitial(() -> new Parser<>(new CStyleBooleanGrammar(varCache)));
     }
 
     @Override
@@ -90,48 +136,85 @@ public class FeatureEffectReader extends AnalysisComponent<VariableWithFeatureEf
     }
     
     /**
-     * Reads the file contents.
+     * Reads the file contents. The rows are read sequentially; if {@link #numThreads} is greater than 1, they are
+     * parsed in parallel, while the order of the results is preserved.
      * 
      * @param in The reader to use.
      * 
      * @throws IOException If reading the file fails.
      */
     private void readFile(@NonNull ITableReader in) throws IOException {
-        VariableCache varCache = new VariableCache();
-        Parser<@NonNull Formula> parser = new Parser<>(new CStyleBooleanGrammar(varCache));
-        
-        in.readNextRow(); // skip first line (header)
+        OrderPreservingParallelizer<@NonNull Row, @Nullable VariableWithFeatureEffect> parallelizer = null;
+        if (numThreads > 1) {
+            parallelizer = new OrderPreservingParallelizer<>(this::parseRow, (result) -> {
+                if (result != null) {
+                    addResult(result);
+                }
+            }, numThreads);
+        }
         
-        @NonNull String[] line;
-        while ((line = in.readNextRow()) != null) {
-            
-            if (line.length < 2) {
-                LOGGER.logError("Line " + in.getLineNumber() + " in file " + inputFile + " has " + line.length
-                        + " columns, instead of 2");
-                continue;
-            }
+        try {
+            in.readNextRow(); // skip first line (header)
             
-            // Sometimes an FE is too long to be written into a single cell
-            if (line.length > 2) {
-                StringBuilder concat = new StringBuilder(line[1]);
-                for (int i = 2; i < line.length; i++) {
-                    concat.append(line[i]);
+            @NonNull String[] line;
+            while ((line = in.readNextRow()) != null) {
+                
+                if (line.length < 2) {
+                    LOGGER.logError("Line " + in.getLineNumber() + " in file " + inputFile + " has " + line.length
+                            + " columns, instead of 2");
+                    continue;
                 }
-                line[1] = notNull(concat.toString());
-            }
-            
-            try {
-                String varName = notNull(line[0].replace("=", "_eq_"));
-                Formula fe = parser.parse(notNull(line[1].replace("=", "_eq_")));
                 
-                addResult(new VariableWithFeatureEffect(varName, fe));
+                // Sometimes an FE is too long to be written into a single cell
+                if (line.length > 2) {
+                    StringBuilder concat = new StringBuilder(line[1]);
+                    for (int i = 2; i < line.length; i++) {
+                        concat.append(line[i]);
+                    }
+                    line[1] = notNull(concat.toString());
+                }
                 
-            } catch (ExpressionFormatException e) {
-                LOGGER.logException("Can't parse formula in line " + in.getLineNumber() + " in file " + inputFile
-                        + ": \"" + line[1] + "\"", e);
+                Row row = new Row(line[0], line[1], in.getLineNumber());
+                if (parallelizer != null) {
+                    parallelizer.add(row);
+                } else {
+                    VariableWithFeatureEffect result = parseRow(row);
+                    if (result != null) {
+                        addResult(result);
+                    }
+                }
+            }
+            
+        } finally {
+            // also stop the worker threads if reading fails
+            if (parallelizer != null) {
+                parallelizer.end();
+                parallelizer.join();
             }
         }
     }
+    
+    /**
+     * Parses a single row. Errors are logged.
+     * 
+     * @param row The row to parse.
+     * 
+     * @return The result of parsing the row, or <code>null</code> if the feature effect can't be parsed.
+     */
+    private @Nullable VariableWithFeatureEffect parseRow(@NonNull Row row) {
+        VariableWithFeatureEffect result = null;
+        try {
+            String varName = notNull(row.name.replace("=", "_eq_"));
+            Formula fe = notNull(parser.get()).parse(notNull(row.featureEffect.replace("=", "_eq_")));
+            
+            result = new VariableWithFeatureEffect(varName, fe);
+            
+        } catch (ExpressionFormatException e) {
+            LOGGER.logException("Can't parse formula in line " + row.lineNumber + " in file " + inputFile
+                    + ": \"" + row.featureEffect + "\"", e);
+        }
+        return result;
+    }
 
     @Override
     public @NonNull String getResultName() {
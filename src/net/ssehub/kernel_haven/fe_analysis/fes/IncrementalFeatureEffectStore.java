@@ -0,0 +1,252 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis.fes;
+
+import static net.ssehub.kernel_haven.util.null_checks.NullHelpers.notNull;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.ssehub.kernel_haven.fe_analysis.StringUtils;
+import net.ssehub.kernel_haven.fe_analysis.pcs.PcFinder.VariableWithPcs;
+import net.ssehub.kernel_haven.util.logic.Formula;
+import net.ssehub.kernel_haven.util.logic.parser.CStyleBooleanGrammar;
+import net.ssehub.kernel_haven.util.logic.parser.ExpressionFormatException;
+import net.ssehub.kernel_haven.util.logic.parser.Parser;
+import net.ssehub.kernel_haven.util.logic.parser.VariableCache;
+import net.ssehub.kernel_haven.util.null_checks.NonNull;
+import net.ssehub.kernel_haven.util.null_checks.Nullable;
+
+/**
+ * Stores the feature effects of a run together with a fingerprint of the presence conditions they were computed
+ * from. A later run on a (slightly) changed code base re-uses the stored feature effect of each variable whose
+ * presence conditions did not change, and only recomputes the feature effects of the changed variables.
+ * <p>
+ * The store also records a fingerprint of the configuration that influences the computation (e.g. the
+ * simplification mode). If it differs from the stored one, all stored feature effects are discarded.
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ *
+ * @author agent
+ */
+class IncrementalFeatureEffectStore {
+
+    private static final @NonNull String HEADER = "# incremental feature effects v1";
+
+    /**
+     * A stored entry: the fingerprint of the presence conditions and the feature effect.
+     */
+    private static final class Entry {
+
+        private @NonNull String pcHash;
+
+        private @NonNull String featureEffect;
+
+        /**
+         * Creates an entry.
+         *
+         * @param pcHash The fingerprint of the presence conditions.
+         * @param featureEffect The string representation of the feature effect.
+         */
+        Entry(@NonNull String pcHash, @NonNull String featureEffect) {
+            this.pcHash = pcHash;
+            this.featureEffect = featureEffect;
+        }
+
+    }
+
+    private @NonNull File file;
+
+    private @NonNull String configFingerprint;
+
+    /**
+     * The feature effects of the previous run. Read-only after loading.
+     */
+    private @NonNull Map<String, Entry> previous;
+
+    /**
+     * The feature effects of the current run.
+     */
+    private @NonNull Map<String, Entry> current;
+
+    private @NonNull ThreadLocal<Parser<@NonNull Formula>> parser;
+
+    private @NonNull AtomicInteger reused;
+
+    private @NonNull AtomicInteger computed;
+
+    /**
+     * Creates a store and loads the results of the previous run, if they exist and were created with the same
+     * configuration.
+     *
+     * @param file The file to store the feature effects in.
+     * @param configFingerprint A string that identifies all configuration options that influence the feature effect
+     *     of a given set of presence conditions.
+     *
+     * @throws IOException If reading the existing file fails.
+     */
+    IncrementalFeatureEffectStore(@NonNull File file, @NonNull String configFingerprint) throws IOException {
+        this.file = file;
+        this.configFingerprint = configFingerprint;
+        this.previous = new HashMap<>();
+        this.current = new ConcurrentHashMap<>();
+        this.parser = ThreadLocal.withInitial(() -> new Parser<>(new CStyleBooleanGrammar(new VariableCache())));
+        this.reused = new AtomicInteger();
+        this.computed = new AtomicInteger();
+
+        load();
+    }
+
+    /**
+     * Computes the fingerprint of the presence conditions of a variable. The fingerprint does not depend on the
+     * order of the presence conditions.
+     *
+     * @param pcs The variable with its presence conditions.
+     *
+     * @return The fingerprint of the presence conditions.
+     */
+    static @NonNull String hashPcs(@NonNull VariableWithPcs pcs) {
+        List<String> pcStrings = new ArrayList<>(pcs.getPcs().size());
+        for (Formula pc : pcs.getPcs()) {
+            pcStrings.add(pc.toString());
+        }
+        Collections.sort(pcStrings);
+
+        StringBuilder str = new StringBuilder();
+        for (String pc : pcStrings) {
+            str.append(pc).append('\n');
+        }
+        return StringUtils.sha1Hex(notNull(str.toString()));
+    }
+
+    /**
+     * Returns the stored feature effect of the previous run, if the presence conditions did not change.
+     *
+     * @param variable The name of the variable.
+     * @param pcHash The fingerprint of the current presence conditions of the variable, see
+     *     {@link #hashPcs(VariableWithPcs)}.
+     *
+     * @return The stored feature effect, or <code>null</code> if it needs to be computed.
+     */
+    @Nullable Formula getFeatureEffect(@NonNull String variable, @NonNull String pcHash) {
+        Formula result = null;
+
+        Entry entry = previous.get(variable);
+        if (entry != null && entry.pcHash.equals(pcHash)) {
+            try {
+                result = notNull(parser.get()).parse(entry.featureEffect);
+                current.put(variable, entry);
+                reused.incrementAndGet();
+            } catch (ExpressionFormatException e) {
+                // corrupted entry, compute again
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Stores a newly computed feature effect.
+     *
+     * @param variable The name of the variable.
+     * @param pcHash The fingerprint of the presence conditions of the variable.
+     * @param featureEffect The feature effect of the variable.
+     */
+    void putFeatureEffect(@NonNull String variable, @NonNull String pcHash, @NonNull Formula featureEffect) {
+        current.put(variable, new Entry(pcHash, notNull(featureEffect.toString())));
+        computed.incrementAndGet();
+    }
+
+    /**
+     * Returns the number of feature effects that were re-used from the previous run.
+     *
+     * @return The number of re-used feature effects.
+     */
+    int getNumReused() {
+        return reused.get();
+    }
+
+    /**
+     * Returns the number of feature effects that were computed in this run.
+     *
+     * @return The number of computed feature effects.
+     */
+    int getNumComputed() {
+        return computed.get();
+    }
+
+    /**
+     * Loads the feature effects of the previous run.
+     *
+     * @throws IOException If reading the file fails.
+     */
+    private void load() throws IOException {
+        if (file.isFile()) {
+            try (BufferedReader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                if (HEADER.equals(in.readLine()) && configFingerprint.equals(in.readLine())) {
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        String[] parts = line.split("\t", 3);
+                        if (parts.length == 3) {
+                            previous.put(parts[0], new Entry(notNull(parts[1]), notNull(parts[2])));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the feature effects of the current run, replacing the results of the previous run. Variables that
+     * were not processed in this run are dropped.
+     *
+     * @throws IOException If writing the file fails.
+     */
+    void save() throws IOException {
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8)) {
+            out.write(HEADER);
+            out.newLine();
+            out.write(configFingerprint);
+            out.newLine();
+            for (Map.Entry<String, Entry> entry : new TreeMap<>(current).entrySet()) {
+                out.write(entry.getKey());
+                out.write('\t');
+                out.write(entry.getValue().pcHash);
+                out.write('\t');
+                out.write(entry.getValue().featureEffect);
+                out.newLine();
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+}
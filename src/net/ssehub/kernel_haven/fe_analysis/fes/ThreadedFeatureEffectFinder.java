@@ -17,6 +17,15 @@ package net.ssehub.kernel_haven.fe_analysis.fes;
 
 import static net.ssehub.kernel_haven.util.null_checks.NullHelpers.notNull;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import net.ssehub.kernel_haven.SetUpException;
 import net.ssehub.kernel_haven.analysis.AnalysisComponent;
 import net.ssehub.kernel_haven.config.Configuration;
@@ -25,7 +34,16 @@ import net.ssehub.kernel_haven.config.Setting.Type;
 import net.ssehub.kernel_haven.fe_analysis.pcs.PcFinder.VariableWithPcs;
 import net.ssehub.kernel_haven.util.OrderPreservingParallelizer;
 import net.ssehub.kernel_haven.util.ProgressLogger;
+import net.ssehub.kernel_haven.util.logic.Conjunction;
+import net.ssehub.kernel_haven.util.logic.Disjunction;
+import net.ssehub.kernel_haven.util.logic.False;
+import net.ssehub.kernel_haven.util.logic.Formula;
+import net.ssehub.kernel_haven.util.logic.IVoidFormulaVisitor;
+import net.ssehub.kernel_haven.util.logic.Negation;
+import net.ssehub.kernel_haven.util.logic.True;
+import net.ssehub.kernel_haven.util.logic.Variable;
 import net.ssehub.kernel_haven.util.null_checks.NonNull;
+import net.ssehub.kernel_haven.util.null_checks.Nullable;
 
 /**
  * A {@link FeatureEffectFinder} that utilizes multiple threads. This helps with performance if simplification takes
@@ -39,8 +57,95 @@ public class ThreadedFeatureEffectFinder extends FeatureEffectFinder {
             "analysis.fe_finder.threads", Type.INTEGER, true, "4", "Defines the number of threads the "
             + ThreadedFeatureEffectFinder.class.getSimpleName() + " should use.");
     
+    public static final @NonNull Setting<@NonNull Boolean> COST_AWARE_SCHEDULING_SETTING = new Setting<>(
+            "analysis.fe_finder.cost_aware_scheduling", Type.BOOLEAN, true, "false", "If enabled, the "
+            + ThreadedFeatureEffectFinder.class.getSimpleName() + " reads all presence conditions first, estimates "
+            + "the cost of each variable and starts with the most expensive ones. This avoids a long tail where "
+            + "only a single thread is busy. The results are still passed on in their original order. A comparison "
+            + "of the estimated and the actual costs is logged at the end.");
+    
+    /**
+     * The number of variables for which the estimated and actual cost is logged on info level.
+     */
+    private static final int NUM_REPORTED_VARIABLES = 10;
+    
+    /**
+     * Estimates the cost of computing the feature effect of a single variable by counting the nodes of its
+     * presence conditions and the occurrences of the variable in them.
+     */
+    private static class CostEstimator implements IVoidFormulaVisitor {
+        
+        private @NonNull String variable;
+        
+        private long numNodes;
+        
+        private long numOccurrences;
+        
+        /**
+         * Creates a {@link CostEstimator}.
+         * 
+         * @param variable The variable to compute the feature effect for.
+         */
+        CostEstimator(@NonNull String variable) {
+            this.variable = variable;
+        }
+        
+        /**
+         * Returns the estimated cost. Each presence condition is walked twice (once per cofactor) and each
+         * occurrence of the variable creates additional terms that need to be simplified.
+         * 
+         * @param numPcs The number of presence conditions.
+         * 
+         * @return The estimated cost, without a unit.
+         */
+        long getCost(int numPcs) {
+            return numPcs + 2 * numNodes + 4 * numOccurrences;
+        }
+        
+        @Override
+        public void visitFalse(@NonNull False falseConstant) {
+            numNodes++;
+        }
+        
+        @Override
+        public void visitTrue(@NonNull True trueConstant) {
+            numNodes++;
+        }
+        
+        @Override
+        public void visitVariable(@NonNull Variable variable) {
+            numNodes++;
+            if (variable.getName().equals(this.variable)) {
+                numOccurrences++;
+            }
+        }
+        
+        @Override
+        public void visitNegation(@NonNull Negation formula) {
+            numNodes++;
+            formula.getFormula().accept(this);
+        }
+        
+        @Override
+        public void visitDisjunction(@NonNull Disjunction formula) {
+            numNodes++;
+            formula.getLeft().accept(this);
+            formula.getRight().accept(this);
+        }
+        
+        @Override
+        public void visitConjunction(@NonNull Conjunction formula) {
+            numNodes++;
+            formula.getLeft().accept(this);
+            formula.getRight().accept(this);
+        }
+        
+    }
+    
     private int numThreads;
     
+    private boolean costAwareScheduling;
+    
     /**
      * Creates a new {@link ThreadedFeatureEffectFinder} for the given PC finder.
      * 
@@ -51,7 +156,22 @@ public class ThreadedFeatureEffectFinder extends FeatureEffectFinder {
      */
     public ThreadedFeatureEffectFinder(@NonNull Configuration config,
             @NonNull AnalysisComponent<VariableWithPcs> pcFinder) throws SetUpException {
-        super(config, pcFinder);
+        this(config, pcFinder, XorTermCache.create(config));
+    }
+    
+    /**
+     * Creates a new {@link ThreadedFeatureEffectFinder} for the given PC finder, which uses the given XOR term cache.
+     * 
+     * @param config The global configuration.
+     * @param pcFinder The component to get the PCs from.
+     * @param xorCache The cache for XOR terms, <code>null</code> to disable caching.
+     * 
+     * @throws SetUpException If creating this component fails.
+     */
+    public ThreadedFeatureEffectFinder(@NonNull Configuration config,
+            @NonNull AnalysisComponent<VariableWithPcs> pcFinder, @Nullable XorTermCache xorCache)
+            throws SetUpException {
+        super(config, pcFinder, xorCache);
         
         config.registerSetting(THREAD_SETTING);
         numThreads = config.getValue(THREAD_SETTING);
@@ -59,12 +179,31 @@ public class ThreadedFeatureEffectFinder extends FeatureEffectFinder {
         if (numThreads < 1) {
             throw new SetUpException("Number of threads can't be " + numThreads);
         }
+        
+        config.registerSetting(COST_AWARE_SCHEDULING_SETTING);
+        costAwareScheduling = config.getValue(COST_AWARE_SCHEDULING_SETTING);
     }
     
     @Override
     protected void execute() {
         ProgressLogger progress = new ProgressLogger(notNull(getClass().getSimpleName()));
         
+        if (costAwareScheduling) {
+            executeCostAware(progress);
+        } else {
+            executeInOrder(progress);
+        }
+        
+        progress.close();
+        releaseCaches();
+    }
+    
+    /**
+     * Computes the feature effects in the order in which the variables are received.
+     * 
+     * @param progress The progress logger to report processed variables to.
+     */
+    private void executeInOrder(@NonNull ProgressLogger progress) {
         OrderPreservingParallelizer<VariableWithPcs, VariableWithFeatureEffect> parallelizer
             = new OrderPreservingParallelizer<>(this::processSingle, (result) -> {
                 if (result != null) {
@@ -82,8 +221,115 @@ public class ThreadedFeatureEffectFinder extends FeatureEffectFinder {
         
         parallelizer.end();
         parallelizer.join();
+    }
+    
+    /**
+     * Reads all variables first and computes the feature effects of the most expensive variables first. Results are
+     * passed on in the order in which the variables were received.
+     * 
+     * @param progress The progress logger to report processed variables to.
+     */
+    private void executeCostAware(@NonNull ProgressLogger progress) {
+        List<@NonNull VariableWithPcs> inputs = new ArrayList<>();
+        VariableWithPcs pcs;
+        while ((pcs = pcFinder.getNextResult()) != null) {
+            inputs.add(pcs);
+        }
         
-        progress.close();
+        int size = inputs.size();
+        long[] estimatedCosts = new long[size];
+        Integer[] schedule = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            estimatedCosts[i] = estimateCost(notNull(inputs.get(i)));
+            schedule[i] = i;
+        }
+        Arrays.sort(schedule, Comparator.comparingLong((Integer i) -> estimatedCosts[i]).reversed());
+        
+        long[] actualCosts = new long[size];
+        VariableWithFeatureEffect[] results = new VariableWithFeatureEffect[size];
+        Future<?>[] futures = new Future<?>[size];
+        
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        boolean interrupted = false;
+        for (int s = 0; s < size && !interrupted; s++) {
+            int i = schedule[s];
+            futures[i] = executor.submit(() -> {
+                long start = System.nanoTime();
+                results[i] = processSingle(notNull(inputs.get(i)));
+                actualCosts[i] = System.nanoTime() - start;
+            });
+            interrupted = Thread.currentThread().isInterrupted();
+        }
+        executor.shutdown();
+        
+        // pass on the results in the original order, as soon as they are available
+        for (int i = 0; i < size && !interrupted; i++) {
+            try {
+                futures[i].get();
+                VariableWithFeatureEffect result = results[i];
+                if (result != null) {
+                    addResult(result);
+                }
+            } catch (ExecutionException e) {
+                LOGGER.logException("Can't compute feature effect for " + inputs.get(i).getVariable(), e);
+            } catch (InterruptedException e) {
+                interrupted = true;
+                Thread.currentThread().interrupt();
+            }
+            
+            progress.processedOne();
+        }
+        
+        if (interrupted) {
+            executor.shutdownNow();
+            LOGGER.logWarning("Interrupted while computing feature effects; remaining variables are skipped");
+        } else {
+            logCostReport(inputs, estimatedCosts, actualCosts);
+        }
+    }
+    
+    /**
+     * Estimates the cost of computing the feature effect for the given variable.
+     * 
+     * @param pcs The variable with its presence conditions.
+     * 
+     * @return The estimated cost, without a unit.
+     */
+    private static long estimateCost(@NonNull VariableWithPcs pcs) {
+        CostEstimator estimator = new CostEstimator(pcs.getVariable());
+        for (Formula pc : pcs.getPcs()) {
+            pc.accept(estimator);
+        }
+        return estimator.getCost(pcs.getPcs().size());
+    }
+    
+    /**
+     * Logs the estimated and the actual costs of the variables. The most expensive variables are logged on info
+     * level, all variables on debug level.
+     * 
+     * @param inputs The variables in their original order.
+     * @param estimatedCosts The estimated cost of each variable.
+     * @param actualCosts The actual computation time of each variable, in nanoseconds.
+     */
+    private void logCostReport(@NonNull List<@NonNull VariableWithPcs> inputs, long @NonNull [] estimatedCosts,
+            long @NonNull [] actualCosts) {
+        
+        Integer[] byActualCost = new Integer[inputs.size()];
+        for (int i = 0; i < byActualCost.length; i++) {
+            byActualCost[i] = i;
+        }
+        Arrays.sort(byActualCost, Comparator.comparingLong((Integer i) -> actualCosts[i]).reversed());
+        
+        List<@NonNull String> lines = new ArrayList<>(byActualCost.length + 1);
+        lines.add("Estimated cost vs. actual time (ms) per variable:");
+        for (Integer i : byActualCost) {
+            lines.add(inputs.get(i).getVariable() + ": " + estimatedCosts[i] + " vs. "
+                    + (actualCosts[i] / 1000000));
+        }
+        
+        int numInfoLines = Math.min(lines.size(), NUM_REPORTED_VARIABLES + 1);
+        LOGGER.logInfo(notNull(lines.subList(0, numInfoLines).toArray(new String[0])));
+        LOGGER.logDebug(notNull(lines.toArray(new String[0])));
     }
 
 }
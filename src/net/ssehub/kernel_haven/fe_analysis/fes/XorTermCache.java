@@ -0,0 +1,217 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis.fes;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.ssehub.kernel_haven.SetUpException;
+import net.ssehub.kernel_haven.config.Configuration;
+import net.ssehub.kernel_haven.fe_analysis.Settings;
+import net.ssehub.kernel_haven.util.logic.Formula;
+import net.ssehub.kernel_haven.util.null_checks.NonNull;
+import net.ssehub.kernel_haven.util.null_checks.Nullable;
+
+/**
+ * A bounded cache for the XOR terms <code>PC[variable &lt;- true] XOR PC[variable &lt;- false]</code> computed by
+ * the {@link FeatureEffectComputer}. Each presence condition is stored for every variable that it mentions and may
+ * be processed by several components, thus the same term is requested multiple times within one run. A pipeline
+ * can pass the same cache to several components (e.g. a {@link FeatureEffectFinder} and a
+ * {@link net.ssehub.kernel_haven.fe_analysis.relations.PotentialParentFinder}), so that they share the terms.
+ * <p>
+ * Only terms that are expensive to compute are cached; the terms of presence conditions with a simple structure are
+ * cheaper to create than to look up.
+ * </p>
+ * <p>
+ * Presence conditions are compared by identity, which is cheap and works best if they are interned (see
+ * {@link Settings#INTERN_FORMULAS}). The least recently used entries are evicted if the cache is full.
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ *
+ * @author agent
+ */
+public class XorTermCache {
+
+    /**
+     * The lookup key of a single XOR term.
+     */
+    private static final class Key {
+
+        private @NonNull Formula pc;
+
+        private @NonNull String variable;
+
+        private boolean simplify;
+
+        private int hash;
+
+        /**
+         * Creates a lookup key.
+         *
+         * @param pc The presence condition (compared by identity).
+         * @param variable The variable that is replaced in the presence condition.
+         * @param simplify Whether the term was created with simplification.
+         */
+        Key(@NonNull Formula pc, @NonNull String variable, boolean simplify) {
+            this.pc = pc;
+            this.variable = variable;
+            this.simplify = simplify;
+            this.hash = 31 * (31 * System.identityHashCode(pc) + variable.hashCode()) + (simplify ? 1 : 0);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            boolean equal = false;
+            if (obj instanceof Key) {
+                Key other = (Key) obj;
+                equal = this.pc == other.pc && this.simplify == other.simplify
+                        && this.variable.equals(other.variable);
+            }
+            return equal;
+        }
+
+    }
+
+    private @NonNull LinkedHashMap<Key, Formula> cache;
+
+    private @NonNull AtomicLong hits;
+
+    private @NonNull AtomicLong misses;
+
+    /**
+     * Creates an empty {@link XorTermCache}.
+     *
+     * @param maxSize The maximum number of terms to keep. Must be greater than 0.
+     */
+    public XorTermCache(int maxSize) {
+        this.cache = new LinkedHashMap<Key, Formula>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = -2263306106584462585L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Formula> eldest) {
+                return size() > maxSize;
+            }
+
+        };
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    /**
+     * Creates a new cache with the size configured by {@link Settings#XOR_CACHE_SIZE}.
+     *
+     * @param config The pipeline configuration.
+     *
+     * @return The new cache, or <code>null</code> if caching is disabled.
+     *
+     * @throws SetUpException If the setting is invalid.
+     */
+    public static @Nullable XorTermCache create(@NonNull Configuration config) throws SetUpException {
+        config.registerSetting(Settings.XOR_CACHE_SIZE);
+        int maxSize = config.getValue(Settings.XOR_CACHE_SIZE);
+
+        if (maxSize < 0) {
+            throw new SetUpException("Size of XOR term cache can't be " + maxSize);
+        }
+
+        XorTermCache result = null;
+        if (maxSize > 0) {
+            result = new XorTermCache(maxSize);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the cached XOR term.
+     *
+     * @param pc The presence condition.
+     * @param variable The variable that is replaced in the presence condition.
+     * @param simplify Whether the term was created with simplification.
+     *
+     * @return The cached term, or <code>null</code> if it is not cached.
+     */
+    public @Nullable Formula get(@NonNull Formula pc, @NonNull String variable, boolean simplify) {
+        Formula result;
+        synchronized (cache) {
+            result = cache.get(new Key(pc, variable, simplify));
+        }
+
+        if (result != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return result;
+    }
+
+    /**
+     * Stores a XOR term.
+     *
+     * @param pc The presence condition.
+     * @param variable The variable that is replaced in the presence condition.
+     * @param simplify Whether the term was created with simplification.
+     * @param xor The XOR term to store.
+     */
+    public void put(@NonNull Formula pc, @NonNull String variable, boolean simplify, @NonNull Formula xor) {
+        synchronized (cache) {
+            cache.put(new Key(pc, variable, simplify), xor);
+        }
+    }
+
+    /**
+     * Returns the number of currently cached terms.
+     *
+     * @return The number of cached terms.
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * Returns the number of successful lookups so far.
+     *
+     * @return The number of cache hits.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of failed lookups so far.
+     *
+     * @return The number of cache misses.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public @NonNull String toString() {
+        return "XorTermCache[size=" + size() + ", hits=" + getHits() + ", misses=" + getMisses() + "]";
+    }
+
+}
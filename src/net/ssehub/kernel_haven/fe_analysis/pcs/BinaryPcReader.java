@@ -0,0 +1,81 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis.pcs;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+
+import net.ssehub.kernel_haven.SetUpException;
+import net.ssehub.kernel_haven.analysis.AnalysisComponent;
+import net.ssehub.kernel_haven.config.Configuration;
+import net.ssehub.kernel_haven.config.Setting;
+import net.ssehub.kernel_haven.config.Setting.Type;
+import net.ssehub.kernel_haven.fe_analysis.BinaryFormulaReader;
+import net.ssehub.kernel_haven.fe_analysis.BinaryFormulaWriter;
+import net.ssehub.kernel_haven.fe_analysis.pcs.PcFinder.VariableWithPcs;
+import net.ssehub.kernel_haven.util.FormatException;
+import net.ssehub.kernel_haven.util.null_checks.NonNull;
+
+/**
+ * A component that reads {@link VariableWithPcs} from a binary file written by the {@link BinaryPcWriter}. This is
+ * much faster than reading a CSV file with the {@link PcReader}, since no formulas need to be parsed.
+ * 
+ * @author agent
+ */
+public class BinaryPcReader extends AnalysisComponent<VariableWithPcs> {
+
+    public static final @NonNull Setting<@NonNull File> INPUT_FILE_SETTING
+        = new Setting<>("analysis.presence_conditions.binary_file", Type.FILE, true, null,
+            "A binary file containing the presence conditions to be read by the "
+            + BinaryPcReader.class.getName());
+    
+    private @NonNull File inputFile;
+    
+    /**
+     * Creates this component. No input required since the input file is read from the configuration.
+     * 
+     * @param config The pipeline configuration.
+     * 
+     * @throws SetUpException If reading the configuration for the input file fails.
+     */
+    public BinaryPcReader(@NonNull Configuration config) throws SetUpException {
+        super(config);
+        
+        config.registerSetting(INPUT_FILE_SETTING);
+        this.inputFile = config.getValue(INPUT_FILE_SETTING);
+    }
+
+    @Override
+    protected void execute() {
+        try (BinaryFormulaReader in
+                = new BinaryFormulaReader(inputFile, BinaryFormulaWriter.KIND_PRESENCE_CONDITIONS)) {
+            
+            while (in.next()) {
+                addResult(new VariableWithPcs(in.getName(), new HashSet<>(in.getFormulas())));
+            }
+            
+        } catch (IOException | FormatException e) {
+            LOGGER.logException("Can't read binary input file " + inputFile, e);
+        }
+    }
+
+    @Override
+    public @NonNull String getResultName() {
+        return "Presence Conditions (read from file)";
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis.pcs;
+
+import java.io.File;
+import java.io.IOException;
+
+import net.ssehub.kernel_haven.SetUpException;
+import net.ssehub.kernel_haven.analysis.AnalysisComponent;
+import net.ssehub.kernel_haven.config.Configuration;
+import net.ssehub.kernel_haven.config.DefaultSettings;
+import net.ssehub.kernel_haven.config.Setting;
+import net.ssehub.kernel_haven.config.Setting.Type;
+import net.ssehub.kernel_haven.fe_analysis.BinaryFormulaWriter;
+import net.ssehub.kernel_haven.fe_analysis.pcs.PcFinder.VariableWithPcs;
+import net.ssehub.kernel_haven.util.null_checks.NonNull;
+
+/**
+ * A component that writes the {@link VariableWithPcs} of its input component into a binary file in the output
+ * directory, which can be read fast by the {@link BinaryPcReader}. All input results are passed on unchanged.
+ * 
+ * @author agent
+ */
+public class BinaryPcWriter extends AnalysisComponent<VariableWithPcs> {
+
+    public static final @NonNull Setting<@NonNull String> OUTPUT_FILE_SETTING
+        = new Setting<>("analysis.presence_conditions.binary_output_file", Type.STRING, true,
+            "presence_conditions.khb", "The name of the binary file in the output directory that the "
+            + BinaryPcWriter.class.getName() + " writes the presence conditions to.");
+    
+    private @NonNull AnalysisComponent<VariableWithPcs> pcFinder;
+    
+    private @NonNull File outputFile;
+    
+    /**
+     * Creates this component.
+     * 
+     * @param config The pipeline configuration.
+     * @param pcFinder The component to get the presence conditions from.
+     * 
+     * @throws SetUpException If reading the configuration fails.
+     */
+    public BinaryPcWriter(@NonNull Configuration config, @NonNull AnalysisComponent<VariableWithPcs> pcFinder)
+            throws SetUpException {
+        
+        super(config);
+        this.pcFinder = pcFinder;
+        
+        config.registerSetting(DefaultSettings.OUTPUT_DIR);
+        config.registerSetting(OUTPUT_FILE_SETTING);
+        this.outputFile = new File(config.getValue(DefaultSettings.OUTPUT_DIR),
+                config.getValue(OUTPUT_FILE_SETTING));
+    }
+
+    @Override
+    protected void execute() {
+        VariableWithPcs pcs = null;
+        
+        try (BinaryFormulaWriter out
+                = new BinaryFormulaWriter(outputFile, BinaryFormulaWriter.KIND_PRESENCE_CONDITIONS)) {
+            
+            while ((pcs = pcFinder.getNextResult()) != null) {
+                addResult(pcs);
+                out.writeRecord(pcs.getVariable(), pcs.getPcs());
+            }
+            
+        } catch (IOException e) {
+            LOGGER.logException("Can't write binary presence conditions to " + outputFile, e);
+        }
+        
+        // pass on the remaining results, if writing failed
+        while ((pcs = pcFinder.getNextResult()) != null) {
+            addResult(pcs);
+        }
+    }
+
+    @Override
+    public @NonNull String getResultName() {
+        return "Presence Conditions";
+    }
+
+}
@@ -15,16 +15,27 @@
  */
 package net.ssehub.kernel_haven.fe_analysis.pcs;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
 import net.ssehub.kernel_haven.SetUpException;
 import net.ssehub.kernel_haven.analysis.AnalysisComponent;
 import net.ssehub.kernel_haven.build_model.BuildModel;
 import net.ssehub.kernel_haven.code_model.CodeElement;
 import net.ssehub.kernel_haven.code_model.SourceFile;
 import net.ssehub.kernel_haven.config.Configuration;
+import net.ssehub.kernel_haven.config.DefaultSettings;
 import net.ssehub.kernel_haven.config.Setting;
 import net.ssehub.kernel_haven.config.Setting.Type;
+import net.ssehub.kernel_haven.fe_analysis.FormulaInterner;
+import net.ssehub.kernel_haven.fe_analysis.Settings;
+import net.ssehub.kernel_haven.fe_analysis.SimplificationCache;
 import net.ssehub.kernel_haven.fe_analysis.pcs.CodeBlockAnalysis.CodeBlock;
 import net.ssehub.kernel_haven.fe_analysis.pcs.PcFinder.VariableWithPcs;
+import net.ssehub.kernel_haven.util.OrderPreservingParallelizer;
 import net.ssehub.kernel_haven.util.ProgressLogger;
 import net.ssehub.kernel_haven.util.io.TableElement;
 import net.ssehub.kernel_haven.util.io.TableRow;
@@ -53,6 +64,25 @@ public class CodeBlockAnalysis extends AnalysisComponent<CodeBlock> {
         + CodeBlockAnalysis.class.getName() + " should treat missing build information as FALSE (e.g., as this belongs"
         + " to another architecture). This will only be considered if a build model was passed to the analysis.");
     
+    public static final @NonNull Setting<@NonNull Integer> THREADS = new Setting<>(
+        "analysis.code_block.threads", Type.INTEGER, true, "1", "Defines the number of threads the "
+        + CodeBlockAnalysis.class.getSimpleName() + " should use for collecting and simplifying the code blocks of the"
+        + " source files. If greater than 1, the files are processed in parallel; the blocks are still passed on in"
+        + " the order of the source files.");
+    
+    public static final @NonNull Setting<@NonNull Integer> SPILL_THRESHOLD = new Setting<>(
+        "analysis.code_block.spill_threshold", Type.INTEGER, true, "0", "Only considered if "
+        + ORDER_RESULTS.getKey() + " is true. If greater than 0, the " + CodeBlockAnalysis.class.getSimpleName()
+        + " writes the collected code blocks to a sorted run file in the cache directory ("
+        + DefaultSettings.CACHE_DIR.getKey() + ") whenever more than this number of blocks are held in memory. At the"
+        + " end, all runs are merged in a streaming k-way merge. This bounds the memory used for ordering very large"
+        + " inputs, at the cost of writing and parsing the conditions. 0 disables spilling.");
+    
+    /**
+     * The maximum number of conditions kept in the memo of simplified conditions.
+     */
+    private static final int MAX_SIMPLIFICATIONS = 1 << 16;
+    
     /**
      * An entry that stores a condition of a <b>code block</b> of a code file.
      * The entry consists of:
@@ -167,6 +197,14 @@ public class CodeBlockAnalysis extends AnalysisComponent<CodeBlock> {
     private boolean orderResults;
     private boolean missingBuildAsFalse;
     private CodeBlockStore results;
+    private @Nullable FormulaInterner interner;
+    private @Nullable SimplificationCache simplificationCache;
+    private int numThreads;
+    
+    /**
+     * Already simplified (and interned) conditions of the current execution. Shared by all threads.
+     */
+    private @NonNull Map<Formula, Formula> simplifications = new ConcurrentHashMap<>();
 
     /**
      * Creates a {@link PcFinder} for the given code model.
@@ -184,10 +222,34 @@ public class CodeBlockAnalysis extends AnalysisComponent<CodeBlock> {
         
         config.registerSetting(ORDER_RESULTS);
         orderResults = config.getValue(ORDER_RESULTS);
-        results = new CodeBlockStore();
+        
+        config.registerSetting(SPILL_THRESHOLD);
+        int spillThreshold = config.getValue(SPILL_THRESHOLD);
+        if (spillThreshold < 0) {
+            throw new SetUpException("Spill threshold can't be " + spillThreshold);
+        }
+        if (spillThreshold > 0) {
+            config.registerSetting(DefaultSettings.CACHE_DIR);
+            results = new CodeBlockStore(spillThreshold, config.getValue(DefaultSettings.CACHE_DIR));
+        } else {
+            results = new CodeBlockStore();
+        }
         
         config.registerSetting(MISSING_BUILD_INFORMATION_AS_FALSE);
         missingBuildAsFalse = config.getValue(MISSING_BUILD_INFORMATION_AS_FALSE);
+        
+        config.registerSetting(Settings.INTERN_FORMULAS);
+        if (config.getValue(Settings.INTERN_FORMULAS)) {
+            interner = new FormulaInterner();
+        }
+        
+        simplificationCache = SimplificationCache.acquire(config);
+        
+        config.registerSetting(THREADS);
+        numThreads = config.getValue(THREADS);
+        if (numThreads < 1) {
+            throw new SetUpException("Number of threads can't be " + numThreads);
+        }
     }
     
     /**
@@ -227,35 +289,88 @@ public class CodeBlockAnalysis extends AnalysisComponent<CodeBlock> {
         ProgressLogger progress = new ProgressLogger(getResultName() + " Collecting");
         
         // Iterate through code files to detect all code blocks
-        SourceFile<?> file;
-        while ((file = sourceFiles.getNextResult()) != null) {
-            Formula filePc = null;
-            if (null != bm) {
-                filePc = bm.getPc(file.getPath());
-                
-                if (null == filePc) {
-                    filePc = missingBuildAsFalse ? False.INSTANCE : True.INSTANCE;
-                }
+        if (numThreads > 1) {
+            analyzeInParallel(bm, progress);
+        } else {
+            SourceFile<?> file;
+            while ((file = sourceFiles.getNextResult()) != null) {
+                analyzeFile(file, bm, this::progressResult);
+                progress.processedOne();
+            }
+        }
+        
+        try {
+            if (orderResults) {
+                results.forEachOrdered(this::intern, this::addResult);
             }
             
-            // Code block parameters, which are constant for the whole file
-            @NonNull String path = NullHelpers.notNull(file.getPath().getPath());
-            @NonNull Formula fileCondition = getCondition(filePc);
+        } finally {
+            // All files processed
+            progress.close();
+            simplifications.clear();
             
-            // Recursively analyze all top level blocks of the file
-            for (CodeElement<?> block : file) {
-                analyzeBlock(block, path, fileCondition);
+            if (null != simplificationCache) {
+                simplificationCache.release();
             }
-
-            progress.processedOne();
         }
+    }
+    
+    /**
+     * Analyzes all source files with {@link #numThreads} threads. The code blocks of each file are collected in a
+     * list by a worker thread and passed on in the order of the source files.
+     * @param bm The build model to consider, may be <tt>null</tt>.
+     * @param progress The progress logger to notify about each processed file.
+     */
+    private void analyzeInParallel(@Nullable BuildModel bm, @NonNull ProgressLogger progress) {
+        OrderPreservingParallelizer<SourceFile<?>, List<@NonNull CodeBlock>> parallelizer
+            = new OrderPreservingParallelizer<>((file) -> {
+                List<@NonNull CodeBlock> blocks = new ArrayList<>();
+                analyzeFile(NullHelpers.notNull(file), bm, blocks::add);
+                return blocks;
+                
+            }, (blocks) -> {
+                NullHelpers.notNull(blocks).forEach(this::progressResult);
+                progress.processedOne();
+                
+            }, numThreads);
+        
+        try {
+            SourceFile<?> file;
+            while ((file = sourceFiles.getNextResult()) != null) {
+                parallelizer.add(file);
+            }
+        } finally {
+            parallelizer.end();
+            parallelizer.join();
+        }
+    }
+    
+    /**
+     * Analyzes all code blocks of a single source file.
+     * @param file The source file to analyze.
+     * @param bm The build model to consider, may be <tt>null</tt>.
+     * @param consumer Receives the code blocks of the file, in the order of the file.
+     */
+    private void analyzeFile(@NonNull SourceFile<?> file, @Nullable BuildModel bm,
+        @NonNull Consumer<@NonNull CodeBlock> consumer) {
         
-        if (orderResults) {
-            results.getOrderedStream().forEach(this::addResult);
+        Formula filePc = null;
+        if (null != bm) {
+            filePc = bm.getPc(file.getPath());
+            
+            if (null == filePc) {
+                filePc = missingBuildAsFalse ? False.INSTANCE : True.INSTANCE;
+            }
         }
         
-        // All files processed
-        progress.close();
+        // Code block parameters, which are constant for the whole file
+        @NonNull String path = NullHelpers.notNull(file.getPath().getPath());
+        @NonNull Formula fileCondition = getCondition(filePc);
+        
+        // Recursively analyze all top level blocks of the file
+        for (CodeElement<?> block : file) {
+            analyzeBlock(block, path, fileCondition, consumer);
+        }
     }
     
     /**
@@ -263,16 +378,19 @@ public class CodeBlockAnalysis extends AnalysisComponent<CodeBlock> {
      * @param block The block to analyze, start with top level blocks of a file.
      * @param path The path of the file.
      * @param fileCondition The path to the analyzed file.
+     * @param consumer Receives the analyzed block and all nested blocks.
      */
-    private void analyzeBlock(CodeElement<?> block, @NonNull String path, @NonNull Formula fileCondition) {
+    private void analyzeBlock(CodeElement<?> block, @NonNull String path, @NonNull Formula fileCondition,
+        @NonNull Consumer<@NonNull CodeBlock> consumer) {
+        
         Formula blockCondition = getCondition(block.getCondition());
         Formula pcCondition = computePresenceCondition(block.getPresenceCondition(), fileCondition);
         
-        progressResult(new CodeBlock(path, fileCondition, blockCondition, pcCondition, block.getLineStart(),
+        consumer.accept(new CodeBlock(path, fileCondition, blockCondition, pcCondition, block.getLineStart(),
             block.getLineEnd()));
         
         for (CodeElement<?> nested : block) {
-            analyzeBlock(nested, path, fileCondition);
+            analyzeBlock(nested, path, fileCondition, consumer);
         }
     }
     
@@ -307,7 +425,7 @@ public class CodeBlockAnalysis extends AnalysisComponent<CodeBlock> {
             result = null != fileCondition ? fileCondition : True.INSTANCE;
         }
         
-        return FormulaSimplifier.simplify(result);
+        return simplifyAndIntern(result);
     }
     
     /**
@@ -317,7 +435,44 @@ public class CodeBlockAnalysis extends AnalysisComponent<CodeBlock> {
      */
     private @NonNull Formula getCondition(@Nullable Formula condition) {
         Formula result = null != condition ? condition : True.INSTANCE;
-        return FormulaSimplifier.simplify(result);
+        return simplifyAndIntern(result);
+    }
+    
+    /**
+     * Simplifies and interns the given condition. Equal conditions are simplified only once, as long as the memo of
+     * simplified conditions is not full.
+     * @param condition The condition to simplify.
+     * @return The simplified condition.
+     */
+    private @NonNull Formula simplifyAndIntern(@NonNull Formula condition) {
+        Formula result = simplifications.get(condition);
+        if (null == result) {
+            result = intern(simplify(condition));
+            if (simplifications.size() < MAX_SIMPLIFICATIONS) {
+                simplifications.put(condition, result);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Simplifies the given condition, using the persistent cache if enabled.
+     * @param condition The condition to simplify.
+     * @return The simplified condition.
+     */
+    private @NonNull Formula simplify(@NonNull Formula condition) {
+        SimplificationCache cache = this.simplificationCache;
+        return null != cache ? cache.simplify(condition) : FormulaSimplifier.simplify(condition);
+    }
+    
+    /**
+     * Returns the canonical instance of the given condition, if interning is enabled.
+     * @param condition The condition to intern.
+     * @return The canonical instance of the condition, or the given instance if interning is disabled.
+     */
+    private @NonNull Formula intern(@NonNull Formula condition) {
+        FormulaInterner interner = this.interner;
+        return null != interner ? interner.intern(condition) : condition;
     }
 
     @Override
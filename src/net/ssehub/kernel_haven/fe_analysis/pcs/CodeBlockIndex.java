@@ -0,0 +1,355 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis.pcs;
+
+import static net.ssehub.kernel_haven.util.null_checks.NullHelpers.notNull;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import net.ssehub.kernel_haven.fe_analysis.pcs.CodeBlockAnalysis.CodeBlock;
+import net.ssehub.kernel_haven.util.FormatException;
+import net.ssehub.kernel_haven.util.logic.Formula;
+import net.ssehub.kernel_haven.util.logic.parser.CStyleBooleanGrammar;
+import net.ssehub.kernel_haven.util.logic.parser.ExpressionFormatException;
+import net.ssehub.kernel_haven.util.logic.parser.Parser;
+import net.ssehub.kernel_haven.util.logic.parser.VariableCache;
+import net.ssehub.kernel_haven.util.null_checks.NonNull;
+import net.ssehub.kernel_haven.util.null_checks.Nullable;
+
+/**
+ * Answers queries for the presence condition of lines in source files, based on an index file written by the
+ * {@link CodeBlockIndexWriter}. Only the directory of the file is loaded into memory; the blocks of a source file are
+ * searched directly in the memory-mapped file, thus a query takes logarithmic time in the number of blocks of the
+ * source file.
+ * <p>
+ * The index file starts with {@link #MAGIC} and {@link #VERSION}, followed by one section per source file. A section
+ * contains the number of blocks, the file condition, a table of fixed-size block entries and a pool of the presence
+ * conditions of the blocks. The block entries are sorted by start line (enclosing blocks first) and contain the start
+ * line, end line, index of the enclosing (parent) block and the offset of the presence condition in the pool. At the
+ * end of the index file follows the directory (the paths of the source files, sorted, with the offset of their
+ * section) and the offset of the directory. All numbers are 32 bit integers; strings are stored as their length
+ * followed by their UTF-8 bytes; conditions are stored in their C-style string representation.
+ * </p>
+ * <p>
+ * Code blocks must be properly nested, as created by the {@link CodeBlockAnalysis}. The innermost block containing a
+ * line is then the last block starting at or before the line, or one of its parents. This class is not thread-safe.
+ * </p>
+ *
+ * @author agent
+ */
+public class CodeBlockIndex implements Closeable {
+
+    static final byte @NonNull [] MAGIC = {'K', 'H', 'C', 'I'};
+
+    static final int VERSION = 1;
+
+    /**
+     * The size of a block entry in bytes: start, end, parent and offset of the presence condition.
+     */
+    static final int ENTRY_SIZE = 16;
+
+    /**
+     * The parent of top-level blocks.
+     */
+    static final int NO_PARENT = -1;
+
+    private @NonNull File file;
+
+    private @NonNull FileChannel channel;
+
+    private @NonNull MappedByteBuffer buffer;
+
+    private @NonNull String @NonNull [] paths;
+
+    private int @NonNull [] sectionOffsets;
+
+    private @NonNull Parser<@NonNull Formula> parser;
+
+    /**
+     * Opens the given index file and reads its directory.
+     *
+     * @param file The index file written by the {@link CodeBlockIndexWriter}.
+     *
+     * @throws IOException If reading the file fails.
+     * @throws FormatException If the file is not a code block index.
+     */
+    public CodeBlockIndex(@NonNull File file) throws IOException, FormatException {
+        this.file = file;
+        this.channel = notNull(FileChannel.open(file.toPath(), StandardOpenOption.READ));
+        if (channel.size() > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException("File is too large to be mapped into memory: " + file);
+        }
+        this.buffer = notNull(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+        this.parser = new Parser<>(new CStyleBooleanGrammar(new VariableCache()));
+
+        try {
+            boolean valid = buffer.capacity() >= MAGIC.length + 8;
+            for (int i = 0; valid && i < MAGIC.length; i++) {
+                valid = buffer.get(i) == MAGIC[i];
+            }
+            if (!valid || buffer.getInt(MAGIC.length) != VERSION) {
+                throw new FormatException("Not a code block index (version " + VERSION + "): " + file);
+            }
+
+            buffer.position(buffer.getInt(buffer.capacity() - 4));
+            int numFiles = buffer.getInt();
+            this.paths = new @NonNull String[numFiles];
+            this.sectionOffsets = new int[numFiles];
+            for (int i = 0; i < numFiles; i++) {
+                paths[i] = readString(buffer.position());
+                sectionOffsets[i] = buffer.getInt();
+            }
+
+        } catch (FormatException e) {
+            close();
+            throw e;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | BufferUnderflowException
+                | NegativeArraySizeException e) {
+            close();
+            throw new FormatException(e);
+        }
+    }
+
+    /**
+     * Returns the paths of all source files in this index.
+     *
+     * @return The paths of the source files, sorted.
+     */
+    public @NonNull List<@NonNull String> getPaths() {
+        return notNull(Arrays.asList(paths));
+    }
+
+    /**
+     * Returns the presence condition of a single line, i.e. the presence condition of the innermost block containing
+     * the line.
+     *
+     * @param path The path of the source file, as in {@link CodeBlock#getPath()}.
+     * @param line The line number.
+     *
+     * @return The presence condition of the line; the file condition if the line is not part of any block;
+     *     <code>null</code> if the source file is not part of this index.
+     *
+     * @throws FormatException If the index file is corrupted.
+     */
+    public @Nullable Formula getPresenceCondition(@NonNull String path, int line) throws FormatException {
+        Formula result = null;
+        int section = findSection(path);
+        if (section != -1) {
+            int block = findInnermostBlock(section, line);
+            result = block != NO_PARENT ? readPresenceCondition(section, block) : readFileCondition(section);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the presence conditions of all blocks that overlap the given range of lines. The blocks containing the
+     * first line are found in logarithmic time (outermost first), followed by all blocks starting within the range.
+     *
+     * @param path The path of the source file, as in {@link CodeBlock#getPath()}.
+     * @param from The first line of the range.
+     * @param to The last line of the range (inclusive).
+     *
+     * @return The distinct presence conditions of the blocks, in the order of the blocks. Empty if no block overlaps
+     *     the range or the source file is not part of this index.
+     *
+     * @throws FormatException If the index file is corrupted.
+     */
+    public @NonNull List<@NonNull Formula> getPresenceConditions(@NonNull String path, int from, int to)
+            throws FormatException {
+
+        Set<@NonNull Formula> result = new LinkedHashSet<>();
+        int section = findSection(path);
+        if (section != -1) {
+            // blocks containing the first line: the innermost block and all of its parents
+            List<@NonNull Formula> enclosing = new ArrayList<>();
+            for (int block = findInnermostBlock(section, from); block != NO_PARENT;
+                    block = getEntry(section, block, 2)) {
+                enclosing.add(0, readPresenceCondition(section, block));
+            }
+            result.addAll(enclosing);
+
+            // blocks starting within the range
+            int numBlocks = buffer.getInt(section);
+            for (int block = findLastBlockStartingAtOrBefore(section, from) + 1;
+                    block < numBlocks && getEntry(section, block, 0) <= to; block++) {
+                result.add(readPresenceCondition(section, block));
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Finds the section of the given source file in the directory.
+     *
+     * @param path The path of the source file.
+     *
+     * @return The offset of the section, or -1 if the source file is not part of this index.
+     */
+    private int findSection(@NonNull String path) {
+        int index = Arrays.binarySearch(paths, path);
+        return index >= 0 ? sectionOffsets[index] : -1;
+    }
+
+    /**
+     * Finds the innermost block that contains the given line.
+     *
+     * @param section The offset of the section.
+     * @param line The line number.
+     *
+     * @return The index of the innermost block containing the line, or {@link #NO_PARENT} if no block contains it.
+     */
+    private int findInnermostBlock(int section, int line) {
+        int block = findLastBlockStartingAtOrBefore(section, line);
+        while (block != NO_PARENT && getEntry(section, block, 1) < line) {
+            block = getEntry(section, block, 2);
+        }
+        return block;
+    }
+
+    /**
+     * Binary search for the last block that starts at or before the given line.
+     *
+     * @param section The offset of the section.
+     * @param line The line number.
+     *
+     * @return The index of the last block starting at or before the line, or -1 if all blocks start after the line.
+     */
+    private int findLastBlockStartingAtOrBefore(int section, int line) {
+        int low = 0;
+        int high = buffer.getInt(section) - 1;
+        int result = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (getEntry(section, mid, 0) <= line) {
+                result = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the offset of the block entries of a section.
+     *
+     * @param section The offset of the section.
+     *
+     * @return The offset of the first block entry.
+     */
+    private int getEntriesOffset(int section) {
+        // number of blocks, followed by the file condition
+        return section + 8 + buffer.getInt(section + 4);
+    }
+
+    /**
+     * Reads a single field of a block entry.
+     *
+     * @param section The offset of the section.
+     * @param block The index of the block.
+     * @param field The field: 0 = start, 1 = end, 2 = parent, 3 = offset of the presence condition.
+     *
+     * @return The value of the field.
+     */
+    private int getEntry(int section, int block, int field) {
+        return buffer.getInt(getEntriesOffset(section) + block * ENTRY_SIZE + field * 4);
+    }
+
+    /**
+     * Reads the file condition of a section.
+     *
+     * @param section The offset of the section.
+     *
+     * @return The file condition.
+     *
+     * @throws FormatException If the condition can't be read.
+     */
+    private @NonNull Formula readFileCondition(int section) throws FormatException {
+        return parse(section + 4);
+    }
+
+    /**
+     * Reads the presence condition of a block.
+     *
+     * @param section The offset of the section.
+     * @param block The index of the block.
+     *
+     * @return The presence condition of the block.
+     *
+     * @throws FormatException If the condition can't be read.
+     */
+    private @NonNull Formula readPresenceCondition(int section, int block) throws FormatException {
+        int pool = getEntriesOffset(section) + buffer.getInt(section) * ENTRY_SIZE;
+        return parse(pool + getEntry(section, block, 3));
+    }
+
+    /**
+     * Reads and parses a condition.
+     *
+     * @param offset The offset of the string representation of the condition.
+     *
+     * @return The parsed condition.
+     *
+     * @throws FormatException If the condition can't be read or parsed.
+     */
+    private @NonNull Formula parse(int offset) throws FormatException {
+        String condition = null;
+        Formula result;
+        try {
+            condition = readString(offset);
+            result = parser.parse(condition);
+        } catch (ExpressionFormatException | IllegalArgumentException | IndexOutOfBoundsException
+                | BufferUnderflowException | NegativeArraySizeException e) {
+            throw new FormatException("Can't read condition " + condition + " at " + offset + " in " + file + ": "
+                    + e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * Reads a string at the given offset. Afterwards, the position of the buffer is directly after the string.
+     *
+     * @param offset The offset of the string.
+     *
+     * @return The read string.
+     */
+    private @NonNull String readString(int offset) {
+        buffer.position(offset);
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
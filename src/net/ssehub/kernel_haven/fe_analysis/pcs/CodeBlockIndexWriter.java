@@ -0,0 +1,220 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis.pcs;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import net.ssehub.kernel_haven.SetUpException;
+import net.ssehub.kernel_haven.analysis.AnalysisComponent;
+import net.ssehub.kernel_haven.config.Configuration;
+import net.ssehub.kernel_haven.config.DefaultSettings;
+import net.ssehub.kernel_haven.config.Setting;
+import net.ssehub.kernel_haven.config.Setting.Type;
+import net.ssehub.kernel_haven.fe_analysis.pcs.CodeBlockAnalysis.CodeBlock;
+import net.ssehub.kernel_haven.util.null_checks.NonNull;
+
+/**
+ * A component that writes the {@link CodeBlock}s of its input component into an index file in the output directory,
+ * which answers queries for the presence condition of a line via {@link CodeBlockIndex}. All input results are passed
+ * on unchanged.
+ * <p>
+ * The blocks of a source file must be passed consecutively, as done by the {@link CodeBlockAnalysis}. Only the blocks
+ * of the current source file are held in memory.
+ * </p>
+ *
+ * @author agent
+ */
+public class CodeBlockIndexWriter extends AnalysisComponent<CodeBlock> {
+
+    public static final @NonNull Setting<@NonNull String> OUTPUT_FILE_SETTING
+        = new Setting<>("analysis.code_block.index_file", Type.STRING, true, "code_blocks.khci",
+            "The name of the file in the output directory that the " + CodeBlockIndexWriter.class.getName()
+            + " writes the index of the code blocks to.");
+
+    private @NonNull AnalysisComponent<CodeBlock> codeBlocks;
+
+    private @NonNull File outputFile;
+
+    /**
+     * The offsets of the already written sections, by the path of their source file.
+     */
+    private @NonNull Map<String, Integer> sections;
+
+    /**
+     * Creates this component.
+     *
+     * @param config The pipeline configuration.
+     * @param codeBlocks The component to get the code blocks from.
+     *
+     * @throws SetUpException If reading the configuration fails.
+     */
+    public CodeBlockIndexWriter(@NonNull Configuration config, @NonNull AnalysisComponent<CodeBlock> codeBlocks)
+            throws SetUpException {
+
+        super(config);
+        this.codeBlocks = codeBlocks;
+        this.sections = new TreeMap<>();
+
+        config.registerSetting(DefaultSettings.OUTPUT_DIR);
+        config.registerSetting(OUTPUT_FILE_SETTING);
+        this.outputFile = new File(config.getValue(DefaultSettings.OUTPUT_DIR),
+                config.getValue(OUTPUT_FILE_SETTING));
+    }
+
+    @Override
+    protected void execute() {
+        CodeBlock block = null;
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(outputFile), 1 << 16))) {
+
+            out.write(CodeBlockIndex.MAGIC);
+            out.writeInt(CodeBlockIndex.VERSION);
+
+            List<@NonNull CodeBlock> blocksOfFile = new ArrayList<>();
+            while ((block = codeBlocks.getNextResult()) != null) {
+                addResult(block);
+
+                if (!blocksOfFile.isEmpty() && !blocksOfFile.get(0).getPath().equals(block.getPath())) {
+                    writeSection(out, blocksOfFile);
+                    blocksOfFile.clear();
+                }
+                blocksOfFile.add(block);
+            }
+            if (!blocksOfFile.isEmpty()) {
+                writeSection(out, blocksOfFile);
+            }
+
+            writeDirectory(out);
+
+        } catch (IOException e) {
+            LOGGER.logException("Can't write code block index to " + outputFile, e);
+        }
+
+        // pass on the remaining results, if writing failed
+        while ((block = codeBlocks.getNextResult()) != null) {
+            addResult(block);
+        }
+    }
+
+    /**
+     * Writes the section for the blocks of a single source file.
+     *
+     * @param out The index file.
+     * @param blocks The blocks of the source file. Will be sorted.
+     *
+     * @throws IOException If writing fails.
+     */
+    private void writeSection(@NonNull DataOutputStream out, @NonNull List<@NonNull CodeBlock> blocks)
+            throws IOException {
+
+        String path = blocks.get(0).getPath();
+        if (sections.containsKey(path)) {
+            LOGGER.logError("Code blocks of " + path + " are not consecutive; ignoring " + blocks.size()
+                + " blocks in the index");
+
+        } else {
+            sections.put(path, out.size());
+
+            // enclosing blocks first
+            blocks.sort((b1, b2) -> b1.getStart() != b2.getStart() ? Integer.compare(b1.getStart(), b2.getStart())
+                : Integer.compare(b2.getEnd(), b1.getEnd()));
+
+            out.writeInt(blocks.size());
+            writeString(out, blocks.get(0).getFileCondition().toString());
+
+            // the parent of each block is the innermost block on the stack, that still contains the block
+            Deque<Integer> enclosing = new ArrayDeque<>();
+            ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+            DataOutputStream pool = new DataOutputStream(poolBytes);
+            Map<String, Integer> poolOffsets = new HashMap<>();
+            for (int i = 0; i < blocks.size(); i++) {
+                CodeBlock block = blocks.get(i);
+                while (!enclosing.isEmpty() && blocks.get(enclosing.peek()).getEnd() < block.getEnd()) {
+                    enclosing.pop();
+                }
+                Integer parent = enclosing.peek();
+                enclosing.push(i);
+
+                String pc = block.getPresenceCondition().toString();
+                Integer pcOffset = poolOffsets.get(pc);
+                if (pcOffset == null) {
+                    pcOffset = pool.size();
+                    poolOffsets.put(pc, pcOffset);
+                    writeString(pool, pc);
+                }
+
+                out.writeInt(block.getStart());
+                out.writeInt(block.getEnd());
+                out.writeInt(parent != null ? parent : CodeBlockIndex.NO_PARENT);
+                out.writeInt(pcOffset);
+            }
+
+            pool.flush();
+            poolBytes.writeTo(out);
+        }
+    }
+
+    /**
+     * Writes the directory of all sections, followed by its offset.
+     *
+     * @param out The index file.
+     *
+     * @throws IOException If writing fails.
+     */
+    private void writeDirectory(@NonNull DataOutputStream out) throws IOException {
+        int offset = out.size();
+        out.writeInt(sections.size());
+        for (Map.Entry<String, Integer> section : sections.entrySet()) {
+            writeString(out, section.getKey());
+            out.writeInt(section.getValue());
+        }
+        out.writeInt(offset);
+    }
+
+    /**
+     * Writes a string as its length, followed by its UTF-8 bytes.
+     *
+     * @param out The stream to write to.
+     * @param string The string to write.
+     *
+     * @throws IOException If writing fails.
+     */
+    private static void writeString(@NonNull DataOutputStream out, @NonNull String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @Override
+    public @NonNull String getResultName() {
+        return "Conditional Code Blocks";
+    }
+
+}
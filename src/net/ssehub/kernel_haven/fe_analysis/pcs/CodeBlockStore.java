@@ -15,24 +15,60 @@
  */
 package net.ssehub.kernel_haven.fe_analysis.pcs;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import net.ssehub.kernel_haven.fe_analysis.pcs.CodeBlockAnalysis.CodeBlock;
+import net.ssehub.kernel_haven.util.Logger;
+import net.ssehub.kernel_haven.util.logic.Formula;
 import net.ssehub.kernel_haven.util.null_checks.NonNull;
+import net.ssehub.kernel_haven.util.null_checks.Nullable;
 
 /**
  * 
  * Stores computes {@link CodeBlock} results.
+ * If a spill threshold is set, the blocks are written to sorted runs on disk whenever more than this number of blocks
+ * are held in memory, see {@link SpilledCodeBlockRuns}.
  * @author El-Sharkawy
  */
 class CodeBlockStore {
 
+    private static final @NonNull Logger LOGGER = Logger.get();
+    
     private Map<String, List<@NonNull CodeBlock>> map = new HashMap<>();
     
+    private int size;
+    
+    private int spillThreshold;
+    
+    private @Nullable SpilledCodeBlockRuns runs;
+    
+    /**
+     * Creates a store that keeps all blocks in memory.
+     */
+    public CodeBlockStore() {
+    }
+    
+    /**
+     * Creates a store that spills its blocks to disk if it holds too many of them.
+     * @param spillThreshold The maximum number of blocks to keep in memory, 0 to keep all blocks in memory.
+     * @param spillDirectory The directory to write the spilled runs to.
+     */
+    public CodeBlockStore(int spillThreshold, @NonNull File spillDirectory) {
+        this.spillThreshold = spillThreshold;
+        if (spillThreshold > 0) {
+            runs = new SpilledCodeBlockRuns(spillDirectory);
+        }
+    }
+    
     /**
      * Adds a new {@link CodeBlock} to this store.
      * @param block The newly computed {@link CodeBlock} to store.
@@ -44,10 +80,83 @@ class CodeBlockStore {
             map.put(block.getPath(), blocksOfFile);
         }
         blocksOfFile.add(block);
+        size++;
+        
+        if (null != runs && size > spillThreshold && !spill()) {
+            LOGGER.logWarning("Disabling spilling of code blocks; keeping them in memory");
+            spillThreshold = Integer.MAX_VALUE;
+        }
+    }
+    
+    /**
+     * Writes the blocks held in memory to a new run file and removes them from memory. If writing fails, the blocks
+     * stay in memory.
+     * @return Whether spilling was successful.
+     */
+    private boolean spill() {
+        boolean success = false;
+        SpilledCodeBlockRuns runs = this.runs;
+        if (null != runs) {
+            List<@NonNull CodeBlock> orderedList = new ArrayList<>(size);
+            getOrderedStream().forEach(orderedList::add);
+            try {
+                runs.write(orderedList);
+                LOGGER.logDebug("Spilled " + size + " code blocks to disk (run " + runs.getNumRuns() + ")");
+                map = new HashMap<>();
+                size = 0;
+                success = true;
+            } catch (IOException e) {
+                LOGGER.logException("Can't spill code blocks to disk", e);
+            }
+        }
+        return success;
+    }
+    
+    /**
+     * Passes all stored {@link CodeBlock}s to the consumer, sorted by path. If blocks were spilled to disk, the
+     * remaining blocks are spilled, too, and all runs are merged. Afterwards, this store is empty.
+     * @param intern A function to apply to each condition read back from disk (e.g. interning).
+     * @param consumer The consumer of the sorted blocks.
+     * @throws UncheckedIOException If merging the spilled runs fails.
+     */
+    public void forEachOrdered(@NonNull Function<@NonNull Formula, @NonNull Formula> intern,
+        @NonNull Consumer<@NonNull CodeBlock> consumer) {
+        
+        SpilledCodeBlockRuns runs = this.runs;
+        try {
+            if (null != runs && runs.getNumRuns() > 0) {
+                // the remaining blocks have to be on disk, too, so that they are merged with the other runs
+                if (size > 0 && !spill()) {
+                    LOGGER.logWarning("Merging the last " + size + " code blocks from memory, since they could not "
+                        + "be spilled to disk");
+                    List<@NonNull CodeBlock> orderedList = new ArrayList<>(size);
+                    getOrderedStream().forEach(orderedList::add);
+                    runs.addUnspilledRun(orderedList);
+                    map = new HashMap<>();
+                    size = 0;
+                }
+                LOGGER.logInfo("Merging " + runs.getNumRuns() + " spilled runs of code blocks");
+                try {
+                    runs.merge(intern, consumer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Can't merge spilled code blocks", e);
+                }
+            }
+            // blocks that are still in memory (all blocks, if nothing was spilled)
+            getOrderedStream().forEach(consumer);
+            
+        } finally {
+            if (null != runs) {
+                runs.close();
+            }
+            map = new HashMap<>();
+            size = 0;
+        }
     }
     
     /**
      * Returns a sorted list of all stored {@link CodeBlock}s.
+     * Does not include blocks that were spilled to disk.
      * @return A sorted list of all stored {@link CodeBlock}s.
      */
     public Stream<@NonNull CodeBlock> getOrderedStream() {
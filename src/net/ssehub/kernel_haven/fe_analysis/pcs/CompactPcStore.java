@@ -0,0 +1,413 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis.pcs;
+
+import static net.ssehub.kernel_haven.util.null_checks.NullHelpers.notNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.ssehub.kernel_haven.util.logic.Formula;
+import net.ssehub.kernel_haven.util.null_checks.NonNull;
+import net.ssehub.kernel_haven.util.null_checks.Nullable;
+
+/**
+ * A compact storage of the mapping {@code variable -> set of all PCs the variable is used in}. Each distinct
+ * presence condition is stored only once and gets an integer ID; each variable (identified by the ID of a
+ * {@link VariableDictionary}) stores a plain <code>int</code> array of the IDs of its presence conditions. This
+ * avoids one {@link HashSet} (and its entry objects) per variable, which dominates the heap for large code bases.
+ * <p>
+ * Duplicate presence conditions of a variable are removed lazily, when the presence conditions are retrieved, when
+ * the number of entries has doubled since the last compaction, or when {@link #compact()} is called.
+ * </p>
+ * <p>
+ * By default, the variable IDs of the {@link VariableDictionary} directly index the arrays of this store. Short-lived
+ * stores that only hold the presence conditions of a few variables (e.g. of a single source file) should use a local
+ * mapping of the variables instead, so that their size does not depend on the size of a shared dictionary.
+ * </p>
+ * <p>
+ * This class is not thread-safe. The {@link VariableDictionary} may be shared between multiple stores.
+ * </p>
+ *
+ * @author agent
+ */
+final class CompactPcStore {
+
+    private static final int @NonNull [] EMPTY = new int[0];
+
+    /**
+     * The minimum number of entries before duplicates are removed automatically.
+     */
+    private static final long MIN_ENTRIES_BEFORE_COMPACTION = 1 << 16;
+
+    private @NonNull VariableDictionary dictionary;
+
+    private @NonNull Map<Formula, Integer> pcIds;
+
+    private @NonNull List<@NonNull Formula> pcs;
+
+    /**
+     * The PC IDs per variable slot. <code>null</code> for variables without presence conditions in this store.
+     */
+    private int @NonNull [] [] pcsPerVariable;
+
+    /**
+     * The number of used elements in each array of {@link #pcsPerVariable}.
+     */
+    private int @NonNull [] numPcsPerVariable;
+
+    /**
+     * The slots of the variables, if this store uses a local mapping of the variables. <code>null</code> if the slot
+     * of a variable is its ID in the {@link VariableDictionary}.
+     */
+    private @Nullable Map<Integer, Integer> localSlots;
+
+    /**
+     * The variable ID of each used slot, if this store uses a local mapping of the variables.
+     */
+    private int @NonNull [] variableOfSlot;
+
+    /**
+     * Whether the PC IDs of all variables are sorted and free of duplicates.
+     */
+    private boolean compacted;
+
+    /**
+     * The number of stored (variable, PC ID) pairs, including not yet removed duplicates.
+     */
+    private long numEntries;
+
+    /**
+     * The number of entries after the last compaction.
+     */
+    private long numEntriesAfterCompaction;
+
+    /**
+     * Creates an empty store, which indexes its arrays by the variable IDs of the dictionary.
+     *
+     * @param dictionary The dictionary that assigns the IDs of the variables.
+     */
+    CompactPcStore(@NonNull VariableDictionary dictionary) {
+        this(dictionary, false);
+    }
+
+    /**
+     * Creates an empty store.
+     *
+     * @param dictionary The dictionary that assigns the IDs of the variables.
+     * @param localVariables Whether to map the variables to local slots, so that the size of this store only depends
+     *     on the number of variables in this store (and not on the highest variable ID of the dictionary).
+     */
+    CompactPcStore(@NonNull VariableDictionary dictionary, boolean localVariables) {
+        int initialSize = localVariables ? 16 : 64;
+        this.dictionary = dictionary;
+        this.pcIds = new HashMap<>();
+        this.pcs = new ArrayList<>();
+        this.pcsPerVariable = new int[initialSize][];
+        this.numPcsPerVariable = new int[initialSize];
+        this.localSlots = localVariables ? new HashMap<>() : null;
+        this.variableOfSlot = localVariables ? new int[initialSize] : EMPTY;
+        this.compacted = true;
+    }
+
+    /**
+     * Removes all presence conditions from this store. The {@link VariableDictionary} is not changed.
+     */
+    void clear() {
+        Map<Integer, Integer> localSlots = this.localSlots;
+        int initialSize = localSlots != null ? 16 : 64;
+        this.pcIds = new HashMap<>();
+        this.pcs = new ArrayList<>();
+        this.pcsPerVariable = new int[initialSize][];
+        this.numPcsPerVariable = new int[initialSize];
+        if (localSlots != null) {
+            localSlots.clear();
+            this.variableOfSlot = new int[initialSize];
+        }
+        this.compacted = true;
+        this.numEntries = 0;
+        this.numEntriesAfterCompaction = 0;
+    }
+
+    /**
+     * Returns the dictionary that assigns the IDs of the variables.
+     *
+     * @return The variable dictionary.
+     */
+    @NonNull VariableDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Adds a presence condition to this store, if it is not yet stored.
+     *
+     * @param pc The presence condition to add.
+     *
+     * @return The ID of the presence condition in this store.
+     */
+    int addPc(@NonNull Formula pc) {
+        Integer id = pcIds.get(pc);
+        if (id == null) {
+            id = pcs.size();
+            pcs.add(pc);
+            pcIds.put(pc, id);
+        }
+        return id;
+    }
+
+    /**
+     * Adds a presence condition for the given variable.
+     *
+     * @param variable The ID of the variable in the {@link VariableDictionary}.
+     * @param pcId The ID of the presence condition, as returned by {@link #addPc(Formula)}.
+     */
+    void add(int variable, int pcId) {
+        addToSlot(getOrCreateSlot(variable), pcId);
+    }
+
+    /**
+     * Adds all presence conditions of the other store to this store. Both stores must use the same
+     * {@link VariableDictionary}. Only the variables of the other store are visited.
+     *
+     * @param other The store to add the presence conditions of.
+     */
+    void addAll(@NonNull CompactPcStore other) {
+        int[] idMapping = new int[other.pcs.size()];
+        for (int i = 0; i < idMapping.length; i++) {
+            idMapping[i] = addPc(notNull(other.pcs.get(i)));
+        }
+
+        for (int otherSlot = 0; otherSlot < other.getNumSlots(); otherSlot++) {
+            int[] ids = other.pcsPerVariable[otherSlot];
+            if (ids != null) {
+                int slot = getOrCreateSlot(other.getVariable(otherSlot));
+                for (int i = 0; i < other.numPcsPerVariable[otherSlot]; i++) {
+                    addToSlot(slot, idMapping[ids[i]]);
+                }
+            }
+        }
+
+        // don't let duplicates of many merged stores pile up
+        if (numEntries > 2 * Math.max(numEntriesAfterCompaction, MIN_ENTRIES_BEFORE_COMPACTION)) {
+            compact();
+        }
+    }
+
+    /**
+     * Adds a presence condition ID to the given slot.
+     *
+     * @param slot The slot of the variable.
+     * @param pcId The ID of the presence condition.
+     */
+    private void addToSlot(int slot, int pcId) {
+        int[] ids = pcsPerVariable[slot];
+        int size = numPcsPerVariable[slot];
+        if (ids == null) {
+            ids = new int[4];
+            pcsPerVariable[slot] = ids;
+        } else if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            pcsPerVariable[slot] = ids;
+        }
+        ids[size] = pcId;
+        numPcsPerVariable[slot] = size + 1;
+        numEntries++;
+        compacted = false;
+    }
+
+    /**
+     * Returns the slot of a variable in the arrays of this store, and creates it if needed.
+     *
+     * @param variable The ID of the variable.
+     *
+     * @return The slot of the variable.
+     */
+    private int getOrCreateSlot(int variable) {
+        int slot = variable;
+        Map<Integer, Integer> localSlots = this.localSlots;
+        if (localSlots != null) {
+            Integer existing = localSlots.get(variable);
+            if (existing != null) {
+                slot = existing;
+            } else {
+                slot = localSlots.size();
+                localSlots.put(variable, slot);
+            }
+        }
+
+        if (slot >= pcsPerVariable.length) {
+            int newLength = Math.max(pcsPerVariable.length * 2, slot + 1);
+            pcsPerVariable = notNull(Arrays.copyOf(pcsPerVariable, newLength));
+            numPcsPerVariable = notNull(Arrays.copyOf(numPcsPerVariable, newLength));
+            if (localSlots != null) {
+                variableOfSlot = notNull(Arrays.copyOf(variableOfSlot, newLength));
+            }
+        }
+        if (localSlots != null) {
+            variableOfSlot[slot] = variable;
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the slot of a variable in the arrays of this store.
+     *
+     * @param variable The ID of the variable.
+     *
+     * @return The slot of the variable, or -1 if the variable has no slot in this store.
+     */
+    private int getSlot(int variable) {
+        int slot;
+        Map<Integer, Integer> localSlots = this.localSlots;
+        if (localSlots != null) {
+            Integer existing = localSlots.get(variable);
+            slot = existing != null ? existing : -1;
+        } else {
+            slot = variable < pcsPerVariable.length ? variable : -1;
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the variable ID of a slot.
+     *
+     * @param slot The slot in the arrays of this store.
+     *
+     * @return The ID of the variable in the {@link VariableDictionary}.
+     */
+    private int getVariable(int slot) {
+        return localSlots != null ? variableOfSlot[slot] : slot;
+    }
+
+    /**
+     * Returns the number of slots that may contain presence conditions.
+     *
+     * @return The number of (possibly) used slots.
+     */
+    private int getNumSlots() {
+        Map<Integer, Integer> localSlots = this.localSlots;
+        return localSlots != null ? localSlots.size() : pcsPerVariable.length;
+    }
+
+    /**
+     * Sorts the presence condition IDs of each variable and removes duplicates. This frees the memory of
+     * duplicates and unused array capacity.
+     */
+    void compact() {
+        for (int slot = 0; slot < getNumSlots(); slot++) {
+            int[] ids = pcsPerVariable[slot];
+            if (ids != null) {
+                int size = numPcsPerVariable[slot];
+                Arrays.sort(ids, 0, size);
+
+                int unique = 0;
+                for (int i = 0; i < size; i++) {
+                    if (unique == 0 || ids[unique - 1] != ids[i]) {
+                        ids[unique++] = ids[i];
+                    }
+                }
+
+                pcsPerVariable[slot] = unique == ids.length ? ids : Arrays.copyOf(ids, unique);
+                numEntries -= size - unique;
+                numPcsPerVariable[slot] = unique;
+            }
+        }
+        compacted = true;
+        numEntriesAfterCompaction = numEntries;
+    }
+
+    /**
+     * Returns the number of stored (variable, presence condition) pairs. This is a measure for the memory used by
+     * this store. May include duplicates that are not yet removed by {@link #compact()}.
+     *
+     * @return The number of stored entries.
+     */
+    long getNumEntries() {
+        return numEntries;
+    }
+
+    /**
+     * Returns all distinct presence conditions of this store. The index in the list is the ID of the presence
+     * condition.
+     *
+     * @return The distinct presence conditions. Must not be modified.
+     */
+    @NonNull List<@NonNull Formula> getDistinctPcs() {
+        return pcs;
+    }
+
+    /**
+     * Returns the IDs of all variables that have at least one presence condition in this store.
+     *
+     * @return The IDs of the variables, in ascending order.
+     */
+    int @NonNull [] getVariables() {
+        int[] result = new int[getNumSlots()];
+        int size = 0;
+        for (int slot = 0; slot < result.length; slot++) {
+            if (numPcsPerVariable[slot] > 0) {
+                result[size++] = getVariable(slot);
+            }
+        }
+        result = Arrays.copyOf(result, size);
+        if (this.localSlots != null) {
+            Arrays.sort(result);
+        }
+        return notNull(result);
+    }
+
+    /**
+     * Returns the IDs of the distinct presence conditions of a variable. Calls {@link #compact()} if presence
+     * conditions were added since the last compaction.
+     *
+     * @param variable The ID of the variable.
+     *
+     * @return The IDs of the presence conditions of the variable, in ascending order. Must not be modified.
+     */
+    int @NonNull [] getPcIds(int variable) {
+        int[] result = EMPTY;
+        int slot = getSlot(variable);
+        if (slot != -1 && pcsPerVariable[slot] != null) {
+            if (!compacted) {
+                compact();
+            }
+            result = pcsPerVariable[slot];
+        }
+        return notNull(result);
+    }
+
+    /**
+     * Returns the presence conditions of a variable as a set.
+     *
+     * @param variable The ID of the variable.
+     *
+     * @return A new set with all presence conditions of the variable.
+     */
+    @NonNull Set<@NonNull Formula> getPcs(int variable) {
+        int[] ids = getPcIds(variable);
+        Set<@NonNull Formula> result = new HashSet<>((int) (ids.length / 0.75f) + 1);
+        for (int id : ids) {
+            result.add(notNull(pcs.get(id)));
+        }
+        return result;
+    }
+
+}
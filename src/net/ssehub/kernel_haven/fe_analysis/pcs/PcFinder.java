@@ -18,12 +18,15 @@ package net.ssehub.kernel_haven.fe_analysis.pcs;
 import static net.ssehub.kernel_haven.util.null_checks.NullHelpers.notNull;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
 
 import net.ssehub.kernel_haven.SetUpException;
 import net.ssehub.kernel_haven.analysis.AnalysisComponent;
@@ -31,11 +34,16 @@ import net.ssehub.kernel_haven.build_model.BuildModel;
 import net.ssehub.kernel_haven.code_model.CodeElement;
 import net.ssehub.kernel_haven.code_model.SourceFile;
 import net.ssehub.kernel_haven.config.Configuration;
+import net.ssehub.kernel_haven.config.DefaultSettings;
 import net.ssehub.kernel_haven.config.Setting;
 import net.ssehub.kernel_haven.config.Setting.Type;
+import net.ssehub.kernel_haven.fe_analysis.FormulaInterner;
 import net.ssehub.kernel_haven.fe_analysis.PresenceConditionAnalysisHelper;
+import net.ssehub.kernel_haven.fe_analysis.Settings;
 import net.ssehub.kernel_haven.fe_analysis.Settings.SimplificationType;
+import net.ssehub.kernel_haven.fe_analysis.SimplificationCache;
 import net.ssehub.kernel_haven.fe_analysis.pcs.PcFinder.VariableWithPcs;
+import net.ssehub.kernel_haven.util.OrderPreservingParallelizer;
 import net.ssehub.kernel_haven.util.PerformanceProbe;
 import net.ssehub.kernel_haven.util.ProgressLogger;
 import net.ssehub.kernel_haven.util.io.TableElement;
@@ -64,6 +72,29 @@ public class PcFinder extends AnalysisComponent<VariableWithPcs> {
             + PcFinder.class.getSimpleName() + " should collapse all non-boolean replacements to a single variable ("
             + "i.e. VAR and VAR_eq_1 will be treated as the same variable VAR)");
     
+    public static final @NonNull Setting<@NonNull Integer> THREADS = new Setting<>(
+            "analysis.pc_finder.threads", Type.INTEGER, true, "1", "Defines the number of threads the "
+            + PcFinder.class.getSimpleName() + " should use for collecting the presence conditions of the source "
+            + "files. If greater than 1, the files are walked in parallel and the partial results are merged; the "
+            + "result is the same as with a single thread.");
+    
+    public static final @NonNull Setting<@NonNull Boolean> RELEVANT_VARIABLES_ONLY = new Setting<>(
+            "analysis.pc_finder.relevant_variables_only", Type.BOOLEAN, true, "false", "Whether the "
+            + PcFinder.class.getSimpleName() + " (and " + PcReader.class.getSimpleName() + ") should only store the "
+            + "presence conditions of variables that are relevant according to " + Settings.RELEVANT_VARIABLES.getKey()
+            + " and " + DefaultSettings.ANALYSIS_USE_VARMODEL_VARIABLES_ONLY.getKey() + ". This saves memory and "
+            + "simplification time, if only components are used that ignore irrelevant variables anyway (e.g. the "
+            + "feature effect analysis). Presence conditions are still collected if they contain at least one relevant "
+            + "variable.");
+    
+    public static final @NonNull Setting<@NonNull Integer> SPILL_THRESHOLD = new Setting<>(
+            "analysis.pc_finder.spill_threshold", Type.INTEGER, true, "0", "If greater than 0, the "
+            + PcFinder.class.getSimpleName() + " writes the collected presence conditions to a sorted run file in the "
+            + "cache directory (" + DefaultSettings.CACHE_DIR.getKey() + ") whenever more than this number of "
+            + "(variable, presence condition) pairs are held in memory. At the end, all runs are merged in a streaming "
+            + "k-way merge. This bounds the memory used for very large inputs, at the cost of writing and parsing the "
+            + "presence conditions. 0 disables spilling.");
+    
     /**
      * A variable together with all presence conditions it is used in.
      * 
@@ -114,6 +145,30 @@ public class PcFinder extends AnalysisComponent<VariableWithPcs> {
         
     }
     
+    /**
+     * The prepared presence condition of a source file, which is shared by all elements of the file (and of all other
+     * files with an equal presence condition).
+     */
+    private static final class FileContext {
+        
+        private @NonNull Formula pc;
+        
+        private @NonNull Set<@NonNull Variable> variables;
+        
+        /**
+         * Creates a file context.
+         * 
+         * @param pc The file presence condition, with non-boolean replacements already removed (if configured) and
+         *     interned.
+         * @param variables The variables of the presence condition.
+         */
+        FileContext(@NonNull Formula pc, @NonNull Set<@NonNull Variable> variables) {
+            this.pc = pc;
+            this.variables = variables;
+        }
+        
+    }
+    
     private @NonNull AnalysisComponent<SourceFile<?>> sourceFiles;
     
     private @Nullable AnalysisComponent<BuildModel> bmComponent;
@@ -123,6 +178,37 @@ public class PcFinder extends AnalysisComponent<VariableWithPcs> {
     private boolean addAllBmPcs;
     
     private boolean combineNonBoolean;
+    
+    private int numThreads;
+    
+    private boolean relevantVariablesOnly;
+    
+    private @Nullable FormulaInterner interner;
+    
+    private @Nullable SimplificationCache simplificationCache;
+    
+    private int spillThreshold;
+    
+    /**
+     * The directory to write the spilled runs to. <code>null</code> if spilling is disabled.
+     */
+    private @Nullable File spillDirectory;
+    
+    /**
+     * The runs spilled to disk during the current execution. <code>null</code> if spilling is disabled.
+     */
+    private @Nullable SpilledPcRuns runs;
+    
+    /**
+     * The prepared file presence conditions of the current execution, by the file presence condition of the build
+     * model.
+     */
+    private @NonNull Map<Formula, FileContext> fileContexts = new ConcurrentHashMap<>();
+    
+    /**
+     * The paths of the source files whose file presence condition was already added in the current execution.
+     */
+    private @NonNull Set<File> processedFiles = notNull(ConcurrentHashMap.newKeySet());
 
     /**
      * Creates a {@link PcFinder} for the given code model.
@@ -144,6 +230,34 @@ public class PcFinder extends AnalysisComponent<VariableWithPcs> {
         
         config.registerSetting(COMBINE_NON_BOOLEAN);
         combineNonBoolean = config.getValue(COMBINE_NON_BOOLEAN);
+        
+        config.registerSetting(THREADS);
+        numThreads = config.getValue(THREADS);
+        if (numThreads < 1) {
+            throw new SetUpException("Number of threads can't be " + numThreads);
+        }
+        
+        config.registerSetting(RELEVANT_VARIABLES_ONLY);
+        relevantVariablesOnly = config.getValue(RELEVANT_VARIABLES_ONLY);
+        
+        config.registerSetting(Settings.INTERN_FORMULAS);
+        if (config.getValue(Settings.INTERN_FORMULAS)) {
+            interner = new FormulaInterner();
+        }
+        
+        config.registerSetting(SPILL_THRESHOLD);
+        spillThreshold = config.getValue(SPILL_THRESHOLD);
+        if (spillThreshold < 0) {
+            throw new SetUpException("Spill threshold can't be " + spillThreshold);
+        }
+        if (spillThreshold > 0) {
+            config.registerSetting(DefaultSettings.CACHE_DIR);
+            spillDirectory = config.getValue(DefaultSettings.CACHE_DIR);
+        }
+        
+        if (helper.getSimplificationMode() == SimplificationType.PRESENCE_CONDITIONS) {
+            simplificationCache = SimplificationCache.acquire(config);
+        }
     }
     
     /**
@@ -177,78 +291,282 @@ public class PcFinder extends AnalysisComponent<VariableWithPcs> {
             LOGGER.logDebug("Calculating presence conditions without considering build model");
         }
 
-        Map<String, Set<@NonNull Formula>> result = new HashMap<>();
+        CompactPcStore result = new CompactPcStore(new VariableDictionary());
+        if (spillThreshold > 0) {
+            runs = new SpilledPcRuns(notNull(spillDirectory));
+        }
         
         ProgressLogger progress = new ProgressLogger(getClass().getSimpleName() + " Collecting");
         
-        SourceFile<?> file;
-        while ((file = sourceFiles.getNextResult()) != null) {
-            Formula filePc = null;
-            if (null != bm) {
-                filePc = bm.getPc(file.getPath());
+        if (numThreads > 1) {
+            collectInParallel(bm, result, progress);
+        } else {
+            SourceFile<?> file;
+            while ((file = sourceFiles.getNextResult()) != null) {
+                findPcsInFile(file, bm, result);
+                spillIfNeeded(result);
+                progress.processedOne();
+            }
+        }
+        
+        // consider all presence conditions from the build model, if configured
+        if (null != bm && addAllBmPcs) {
+            findPcsInBuildModel(bm, result);
+        }
+        
+        progress.close();
+        
+        SpilledPcRuns runs = this.runs;
+        try {
+            if (runs != null && runs.getNumRuns() > 0) {
+                // the last part has to be merged with the other runs; from memory, if it can't be spilled to disk
+                @NonNull Formula[] pcs = preparePcsForRun(result);
+                if (!spill(result, pcs)) {
+                    LOGGER.logWarning("Merging the last " + result.getNumEntries() + " presence conditions from "
+                            + "memory, since they could not be spilled to disk");
+                    runs.addUnspilledRun(result, pcs);
+                }
+                mergeRuns(runs);
                 
-                if (filePc != null) {
-                    LOGGER.logDebug("File PC for " + file.getPath() + ": " + filePc);
-                    // add the file PC as a stand-alone PC
-                    addPcToResult(result, filePc);
-                    
-                } else {
-                    LOGGER.logWarning("No file PC for " + file.getPath() + " in build model");
+            } else {
+                @NonNull VariableWithPcs[] list = sortResults(result);
+                
+                for (VariableWithPcs var : list) {
+                    addResult(var);
                 }
             }
             
-            for (CodeElement<?> b : file) {
-                // TODO: check if parentIsRelevant should be true if we added the file PC to the result above
-                findPcsInElement(b, result, filePc, false);
+            if (interner != null) {
+                LOGGER.logDebug("Interned " + interner.size() + " distinct formula nodes");
             }
+            LOGGER.logDebug("Relevance of variables: " + helper.getRelevanceCacheMisses() + " computed, "
+                    + helper.getRelevanceCacheHits() + " taken from cache");
             
-            progress.processedOne();
+        } finally {
+            if (runs != null) {
+                runs.close();
+                this.runs = null;
+            }
+            fileContexts.clear();
+            processedFiles.clear();
+            
+            if (simplificationCache != null) {
+                simplificationCache.release();
+            }
         }
+    }
+
+    /**
+     * Collects the presence conditions of all source files with {@link #numThreads} threads. Each file is walked into
+     * its own partial store (sharing the variable dictionary of the result), which is then merged into the result.
+     * Merging a partial store only visits the variables of its file.
+     * 
+     * @param bm The build model to consider. May be <code>null</code>.
+     * @param result The result store to add the PCs to.
+     * @param progress The progress logger to notify about each processed file.
+     */
+    private void collectInParallel(@Nullable BuildModel bm, @NonNull CompactPcStore result,
+            @NonNull ProgressLogger progress) {
         
-        // consider all presence conditions from the build model, if configured
-        if (null != bm && addAllBmPcs) {
-            findPcsInBuildModel(bm, result);
+        OrderPreservingParallelizer<SourceFile<?>, CompactPcStore> parallelizer
+            = new OrderPreservingParallelizer<>((file) -> {
+                // local variable slots: the size of the partial store only depends on the variables of the file
+                CompactPcStore partialResult = new CompactPcStore(result.getDictionary(), true);
+                findPcsInFile(notNull(file), bm, partialResult);
+                partialResult.compact();
+                return partialResult;
+                
+            }, (partialResult) -> {
+                result.addAll(notNull(partialResult));
+                spillIfNeeded(result);
+                progress.processedOne();
+                
+            }, numThreads);
+        
+        SourceFile<?> file;
+        while ((file = sourceFiles.getNextResult()) != null) {
+            parallelizer.add(file);
         }
         
-        progress.close();
+        parallelizer.end();
+        parallelizer.join();
+    }
+    
+    /**
+     * Writes the collected presence conditions to a run file on disk, if spilling is enabled and the store holds more
+     * entries than {@link #spillThreshold}.
+     * 
+     * @param store The store of collected presence conditions. Will be cleared if it is spilled.
+     */
+    private void spillIfNeeded(@NonNull CompactPcStore store) {
+        if (runs != null && store.getNumEntries() > spillThreshold) {
+            // duplicates don't count towards the memory limit
+            store.compact();
+            if (store.getNumEntries() > spillThreshold && !spill(store, preparePcsForRun(store))) {
+                LOGGER.logWarning("Disabling spilling of presence conditions; keeping them in memory");
+                spillThreshold = Integer.MAX_VALUE;
+            }
+        }
+    }
+    
+    /**
+     * Returns the presence conditions to write into a run for each PC ID of the store. The presence conditions are
+     * simplified, if configured.
+     * 
+     * @param store The store of collected presence conditions.
+     * 
+     * @return The (simplified) distinct presence conditions of the store.
+     */
+    private @NonNull Formula @NonNull [] preparePcsForRun(@NonNull CompactPcStore store) {
+        @NonNull Formula[] pcs;
+        if (helper.getSimplificationMode() == SimplificationType.PRESENCE_CONDITIONS) {
+            pcs = simplifyDistinctPcs(store, store.getVariables().length);
+        } else {
+            pcs = store.getDistinctPcs().toArray(new @NonNull Formula[0]);
+        }
+        return pcs;
+    }
+    
+    /**
+     * Writes the collected presence conditions to a new run file on disk and clears the store. If writing fails, the
+     * presence conditions stay in the store.
+     * 
+     * @param store The store of collected presence conditions.
+     * @param pcs The presence conditions to write for each PC ID of the store, see
+     *     {@link #preparePcsForRun(CompactPcStore)}.
+     * 
+     * @return Whether the presence conditions were written successfully.
+     */
+    private boolean spill(@NonNull CompactPcStore store, @NonNull Formula @NonNull [] pcs) {
+        SpilledPcRuns runs = notNull(this.runs);
         
-        @NonNull VariableWithPcs[] list = sortResults(result);
+        boolean success = false;
+        try {
+            runs.write(store, pcs);
+            LOGGER.logDebug("Spilled " + store.getNumEntries() + " presence conditions to disk (run "
+                    + runs.getNumRuns() + ")");
+            store.clear();
+            success = true;
+            
+        } catch (IOException e) {
+            LOGGER.logException("Can't spill presence conditions to disk", e);
+        }
+        return success;
+    }
+    
+    /**
+     * Merges all spilled runs and adds the merged variables as results, sorted by variable name.
+     * 
+     * @param runs The runs to merge.
+     * 
+     * @throws UncheckedIOException If reading a run fails. Some variables may already be passed on as results, thus
+     *     this component fails instead of passing on an incomplete result.
+     */
+    private void mergeRuns(@NonNull SpilledPcRuns runs) throws UncheckedIOException {
+        LOGGER.logInfo("Merging " + runs.getNumRuns() + " spilled runs of presence conditions");
         
-        for (VariableWithPcs var : list) {
-            addResult(var);
+        ProgressLogger progress = new ProgressLogger(getClass().getSimpleName() + " Merging");
+        try {
+            runs.merge(this::intern, (var) -> {
+                addResult(var);
+                progress.processedOne();
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't merge spilled presence conditions", e);
+        } finally {
+            progress.close();
         }
     }
-
+    
     /**
-     * Turns the map of collected PCs into a sorted array of {@link VariableWithPcs}s. The results are sorted by
+     * Finds all PCs of a single source file and adds them to the result.
+     * 
+     * @param file The source file to walk through.
+     * @param bm The build model to consider. May be <code>null</code>.
+     * @param result The result store to add the PCs to.
+     */
+    private void findPcsInFile(@NonNull SourceFile<?> file, @Nullable BuildModel bm,
+            @NonNull CompactPcStore result) {
+        
+        FileContext fileContext = null;
+        if (null != bm) {
+            Formula filePc = bm.getPc(file.getPath());
+            
+            if (filePc != null) {
+                LOGGER.logDebug("File PC for " + file.getPath() + ": " + filePc);
+                fileContext = getFileContext(filePc);
+                // add the file PC as a stand-alone PC
+                addPcToResult(result, fileContext.pc, fileContext.variables, null);
+                processedFiles.add(file.getPath());
+                
+            } else {
+                LOGGER.logWarning("No file PC for " + file.getPath() + " in build model");
+            }
+        }
+        
+        for (CodeElement<?> b : file) {
+            // TODO: check if parentIsRelevant should be true if we added the file PC to the result above
+            findPcsInElement(b, result, fileContext, false);
+        }
+    }
+    
+    /**
+     * Returns the prepared context for a file presence condition. The replacements are removed and the variables are
+     * determined only once per (equal) file presence condition.
+     * 
+     * @param filePc The presence condition of the file, as stored in the build model.
+     * 
+     * @return The context for the file presence condition.
+     */
+    private @NonNull FileContext getFileContext(@NonNull Formula filePc) {
+        return notNull(fileContexts.computeIfAbsent(filePc, (original) -> {
+            Formula pc = intern(prepare(notNull(original)));
+            return new FileContext(pc, helper.getVariables(pc));
+        }));
+    }
+    
+    /**
+     * Turns the store of collected PCs into a sorted array of {@link VariableWithPcs}s. The results are sorted by
      * variable name. If enabled in the config, this also simplifies the presence conditions.
      * 
-     * @param pcMap The map of collected presence conditions.
+     * @param store The store of collected presence conditions.
      * 
-     * @return A sorted array of {@link VariableWithPcs}s created from the map.
+     * @return A sorted array of {@link VariableWithPcs}s created from the store.
      */
-    @SuppressWarnings("null") // stream API and null annotations don't work so nicely together :-/
-    private @NonNull VariableWithPcs @NonNull [] sortResults(Map<String, Set<@NonNull Formula>> pcMap) {
+    private @NonNull VariableWithPcs @NonNull [] sortResults(@NonNull CompactPcStore store) {
         boolean simplify = helper.getSimplificationMode() == SimplificationType.PRESENCE_CONDITIONS;
         
+        store.compact();
+        int[] variables = store.getVariables();
+        
         ProgressLogger progress = new ProgressLogger(getClass().getSimpleName() + " Sorting"
-                + (simplify ? " and simplifying" : ""), pcMap.size());
+                + (simplify ? " and simplifying" : ""), variables.length);
         
         LOGGER.logInfo("Sorting " + (simplify ? "and simplifying " : "") + "PCs; this may take a long time");
         
         PerformanceProbe p = new PerformanceProbe("PcFinder simplification");
         
-        @NonNull VariableWithPcs[] result = new @NonNull VariableWithPcs[pcMap.size()];
-        int i = 0;
-        for (Map.Entry<String, Set<@NonNull Formula>> entry : pcMap.entrySet()) {
-            Set<@NonNull Formula> pcs = notNull(entry.getValue());
+        @NonNull Formula @Nullable [] simplified = null;
+        if (simplify) {
+            simplified = simplifyDistinctPcs(store, variables.length);
+        }
+        
+        @NonNull VariableWithPcs[] result = new @NonNull VariableWithPcs[variables.length];
+        for (int i = 0; i < variables.length; i++) {
+            Set<@NonNull Formula> pcs;
             
-            if (simplify) {
-                // Stream-based simplification of formulas and re-creation of set in multiple threads.
-                pcs = notNull(pcs.parallelStream().map(FormulaSimplifier::simplify).collect(Collectors.toSet()));
+            if (simplified != null) {
+                // create the set from the already simplified formulas
+                int[] pcIds = store.getPcIds(variables[i]);
+                pcs = new HashSet<>((int) (pcIds.length / 0.75f) + 1);
+                for (int pcId : pcIds) {
+                    pcs.add(simplified[pcId]);
+                }
+            } else {
+                pcs = store.getPcs(variables[i]);
             }
             
-            result[i++] = new VariableWithPcs(notNull(entry.getKey()), pcs);
+            result[i] = new VariableWithPcs(store.getDictionary().getName(variables[i]), pcs);
             
             progress.processedOne();
         }
@@ -262,67 +580,158 @@ public class PcFinder extends AnalysisComponent<VariableWithPcs> {
         return result;
     }
     
+    /**
+     * Simplifies all distinct presence conditions of the given store. Each presence condition is stored for every
+     * variable it contains, but is simplified only once. The simplification runs on all distinct presence conditions
+     * in a single parallel stream.
+     * 
+     * @param store The store of collected presence conditions.
+     * @param numVariables The number of variables in the store, for logging.
+     * 
+     * @return The simplified (and interned) form of each distinct presence condition, indexed by its ID in the store.
+     */
+    private @NonNull Formula @NonNull [] simplifyDistinctPcs(@NonNull CompactPcStore store, int numVariables) {
+        List<@NonNull Formula> distinctPcs = store.getDistinctPcs();
+        
+        LOGGER.logDebug("Simplifying " + distinctPcs.size() + " distinct PCs of " + numVariables + " variables");
+        
+        @NonNull Formula[] simplified = new @NonNull Formula[distinctPcs.size()];
+        IntStream.range(0, simplified.length).parallel()
+                .forEach((id) -> simplified[id] = intern(simplify(notNull(distinctPcs.get(id)))));
+        
+        return simplified;
+    }
+    
     /**
      * Finds all PCs in an element and recursively in all child elements. Adds the PC to the set for
      * all variables that are found in the PC.
      * 
      * @param element The element to find PCs in.
      * @param result The result to add the PCs to.
-     * @param filePc Optional: The presence condition of the file which is currently processed. Will be ignored if it is
-     * <tt>null</tt>.
+     * @param fileContext Optional: The presence condition of the file which is currently processed. Will be ignored if
+     * it is <tt>null</tt>.
      * @param parentIsRelevant Used for optimization (<tt>true</tt> parent condition is relevant and, thus, also all
      * nested conditions are relevant, <tt>false</tt> this method will check if the condition should be considered).
      */
-    private void findPcsInElement(@NonNull CodeElement<?> element, @NonNull Map<String, Set<@NonNull Formula>> result,
-            @Nullable Formula filePc, boolean parentIsRelevant) {
+    private void findPcsInElement(@NonNull CodeElement<?> element, @NonNull CompactPcStore result,
+            @Nullable FileContext fileContext, boolean parentIsRelevant) {
         
         Formula pc = element.getPresenceCondition();
         
         if (parentIsRelevant || helper.isRelevant(pc)) {
             // Skip retrieval of variables for nested conditions (last for loop)
             parentIsRelevant = true;
-            if (null != filePc) {
-                pc = new Conjunction(filePc, pc);
+            pc = intern(prepare(pc));
+            if (null != fileContext) {
+                // the file PC is already prepared, don't walk through it again
+                addPcToResult(result, intern(new Conjunction(fileContext.pc, pc)), fileContext.variables,
+                        helper.getVariables(pc));
+            } else {
+                addPcToResult(result, pc, helper.getVariables(pc), null);
             }
-            
-            addPcToResult(result, pc);
         }
         
         for (CodeElement<?> child : element) {
-            findPcsInElement(child, result, filePc, parentIsRelevant);
+            findPcsInElement(child, result, fileContext, parentIsRelevant);
         }
     }
     
     /**
-     * Adds a presence condition to the result.
+     * Prepares a presence condition for the result, i.e. removes the non-boolean replacements if configured.
      * 
-     * @param result The result map to add to.
      * @param pc The presence condition that was found.
+     * 
+     * @return The prepared presence condition.
+     */
+    private @NonNull Formula prepare(@NonNull Formula pc) {
+        return combineNonBoolean ? helper.removeReplacements(pc) : pc;
+    }
+    
+    /**
+     * Adds a prepared presence condition to the result, for all of its (relevant) variables. The variables are
+     * passed as two sets, so that the variables of a conjunction can be passed without copying them into a new set.
+     * 
+     * @param result The result store to add to.
+     * @param pc The prepared and interned presence condition, see {@link #prepare(Formula)}.
+     * @param vars The variables of the presence condition.
+     * @param moreVars Optional: More variables of the presence condition; variables that are also in
+     *     <code>vars</code> are skipped. Will be ignored if it is <tt>null</tt>.
      */
-    private void addPcToResult(@NonNull Map<String, Set<@NonNull Formula>> result, @NonNull Formula pc) {
-        if (combineNonBoolean) {
-            pc = helper.removeReplacements(pc);
+    private void addPcToResult(@NonNull CompactPcStore result, @NonNull Formula pc,
+            @NonNull Set<@NonNull Variable> vars, @Nullable Set<@NonNull Variable> moreVars) {
+        
+        int pcId = addPcForVariables(result, pc, -1, vars, null);
+        if (moreVars != null) {
+            addPcForVariables(result, pc, pcId, moreVars, vars);
         }
+    }
+    
+    /**
+     * Adds a presence condition to the result for the given variables.
+     * 
+     * @param result The result store to add to.
+     * @param pc The prepared and interned presence condition.
+     * @param pcId The ID of the presence condition in the result, or -1 if it was not yet added.
+     * @param vars The variables to add the presence condition for.
+     * @param skip Optional: Variables that are skipped. Will be ignored if it is <tt>null</tt>.
+     * 
+     * @return The ID of the presence condition in the result, or -1 if it was not yet added.
+     */
+    private int addPcForVariables(@NonNull CompactPcStore result, @NonNull Formula pc, int pcId,
+            @NonNull Set<@NonNull Variable> vars, @Nullable Set<@NonNull Variable> skip) {
         
-        Set<@NonNull Variable> vars = new HashSet<>();
-        helper.findVars(pc, vars);
         for (Variable var : vars)  {
-            result.putIfAbsent(var.getName(), new HashSet<>());
-            result.get(var.getName()).add(pc);
+            // skip variables that are discarded by all later analysis steps anyway, if configured
+            if ((skip == null || !skip.contains(var))
+                    && (!relevantVariablesOnly || helper.isRelevant(var.getName()))) {
+                if (pcId == -1) {
+                    pcId = result.addPc(pc);
+                }
+                result.add(result.getDictionary().getId(var.getName()), pcId);
+            }
         }
+        return pcId;
+    }
+    
+    /**
+     * Simplifies the given presence condition, using the persistent cache if enabled.
+     * 
+     * @param pc The presence condition to simplify.
+     * 
+     * @return The simplified presence condition.
+     */
+    private @NonNull Formula simplify(@NonNull Formula pc) {
+        SimplificationCache cache = this.simplificationCache;
+        return cache != null ? cache.simplify(pc) : FormulaSimplifier.simplify(pc);
+    }
+    
+    /**
+     * Returns the canonical instance of the given presence condition, if interning is enabled.
+     * 
+     * @param pc The presence condition to intern.
+     * 
+     * @return The canonical instance of the presence condition, or the given instance if interning is disabled.
+     */
+    private @NonNull Formula intern(@NonNull Formula pc) {
+        FormulaInterner interner = this.interner;
+        return interner != null ? interner.intern(pc) : pc;
     }
     
     /**
      * Adds all PCs found in the build model to the result set.
      * 
      * @param bm The build model to walk through.
-     * @param result The result set to add PCs to.
+     * @param result The result store to add PCs to.
      */
-    private void findPcsInBuildModel(@NonNull BuildModel bm, @NonNull Map<String, Set<@NonNull Formula>> result) {
+    private void findPcsInBuildModel(@NonNull BuildModel bm, @NonNull CompactPcStore result) {
         for (File f : bm) {
-            Formula pc = bm.getPc(f);
-            if (pc != null) {
-                addPcToResult(result, pc);
+            // the PCs of processed source files are already added
+            if (!processedFiles.contains(f)) {
+                Formula pc = bm.getPc(f);
+                if (pc != null) {
+                    FileContext fileContext = getFileContext(pc);
+                    addPcToResult(result, fileContext.pc, fileContext.variables, null);
+                }
             }
         }
     }
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis.pcs;
+
+import net.ssehub.kernel_haven.util.FormatException;
+import net.ssehub.kernel_haven.util.null_checks.NonNull;
+import net.ssehub.kernel_haven.util.null_checks.Nullable;
+
+/**
+ * Splits a list of presence conditions in the form <code>[pc1, pc2, ...]</code> into the single presence conditions.
+ * The list may be spread over multiple cells, if it was too long to be written into a single cell; the cells are
+ * treated as if they were concatenated, but are never actually copied into one string. Each presence condition is
+ * returned as soon as it is found, thus the caller can parse the presence conditions one by one.
+ * <p>
+ * Only presence conditions that span multiple cells are assembled in a buffer; all others are a single substring of
+ * their cell.
+ * </p>
+ *
+ * @author agent
+ */
+final class PcListTokenizer {
+
+    private @NonNull String @NonNull [] cells;
+
+    /**
+     * The index of the last cell of the list.
+     */
+    private int lastCell;
+
+    /**
+     * The cell of the current position.
+     */
+    private int cell;
+
+    /**
+     * The index of the current position in the current {@link #cell}.
+     */
+    private int index;
+
+    private boolean done;
+
+    private boolean first;
+
+    /**
+     * The number of empty elements to return before {@link #pending}.
+     */
+    private int pendingEmpty;
+
+    /**
+     * An element that was read ahead after empty elements, to check that these are not trailing.
+     */
+    private @Nullable String pending;
+
+    /**
+     * Creates a tokenizer for the list in the given cells.
+     *
+     * @param cells The cells of the row.
+     * @param firstCell The index of the cell where the list starts. All cells from this one to the last are part of
+     *     the list.
+     *
+     * @throws FormatException If the list does not start with <code>[</code> or does not end with <code>]</code>.
+     */
+    PcListTokenizer(@NonNull String @NonNull [] cells, int firstCell) throws FormatException {
+        this.cells = cells;
+        this.lastCell = cells.length - 1;
+        this.cell = firstCell;
+        this.index = 1;
+        this.first = true;
+
+        String firstCellContent = cells[firstCell];
+        String lastCellContent = cells[lastCell];
+        if (!firstCellContent.startsWith("[") || !lastCellContent.endsWith("]")
+                || (firstCell == lastCell && firstCellContent.length() < 2)) {
+            throw new FormatException("List does not start with '[' or does not end with ']'");
+        }
+    }
+
+    /**
+     * Returns the next presence condition of the list. Like {@link String#split(String)}, trailing empty elements are
+     * ignored, except for the single element of an empty list (<code>[]</code>).
+     *
+     * @return The string of the next presence condition (including surrounding whitespace), or <code>null</code> if
+     *     all presence conditions have been returned.
+     */
+    @Nullable String next() {
+        String result = null;
+
+        if (pendingEmpty > 0) {
+            pendingEmpty--;
+            result = "";
+        } else if (pending != null) {
+            result = pending;
+            pending = null;
+        } else {
+            int numEmpty = 0;
+            boolean firstElement = first;
+            String element = readElement();
+            // the only element of an empty list is not ignored
+            while (element != null && element.isEmpty() && !(firstElement && done)) {
+                numEmpty++;
+                firstElement = first;
+                element = readElement();
+            }
+
+            if (element != null && numEmpty > 0) {
+                // the empty elements are not trailing, thus return them before the found element
+                pending = element;
+                pendingEmpty = numEmpty - 1;
+                result = "";
+            } else {
+                result = element;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads the next element of the list, including empty ones.
+     *
+     * @return The string of the next element (including surrounding whitespace), or <code>null</code> if the end of
+     *     the list is reached.
+     */
+    private @Nullable String readElement() {
+        String result = null;
+
+        StringBuilder spanning = null;
+        while (result == null && !done) {
+            String current = cells[cell];
+            // the closing bracket is not part of the last presence condition
+            int end = cell == lastCell ? current.length() - 1 : current.length();
+            int comma = current.indexOf(',', index);
+            if (comma >= end) {
+                comma = -1;
+            }
+
+            if (comma != -1 || cell == lastCell) {
+                int pcEnd = comma != -1 ? comma : end;
+                if (spanning == null) {
+                    result = current.substring(index, pcEnd);
+                } else {
+                    result = spanning.append(current, index, pcEnd).toString();
+                }
+
+                if (comma != -1) {
+                    index = comma + 1;
+                } else {
+                    done = true;
+                }
+                first = false;
+
+            } else {
+                // the presence condition continues in the next cell
+                if (spanning == null) {
+                    spanning = new StringBuilder();
+                }
+                spanning.append(current, index, end);
+                cell++;
+                index = 0;
+            }
+        }
+
+        return result;
+    }
+
+}
@@ -27,10 +27,15 @@ import net.ssehub.kernel_haven.analysis.AnalysisComponent;
 import net.ssehub.kernel_haven.config.Configuration;
 import net.ssehub.kernel_haven.config.Setting;
 import net.ssehub.kernel_haven.config.Setting.Type;
+import net.ssehub.kernel_haven.fe_analysis.ConcurrentVariableCache;
+import net.ssehub.kernel_haven.fe_analysis.FormulaInterner;
+import net.ssehub.kernel_haven.fe_analysis.PresenceConditionAnalysisHelper;
 import net.ssehub.kernel_haven.fe_analysis.Settings;
 import net.ssehub.kernel_haven.fe_analysis.Settings.SimplificationType;
+import net.ssehub.kernel_haven.fe_analysis.SimplificationCache;
 import net.ssehub.kernel_haven.fe_analysis.pcs.PcFinder.VariableWithPcs;
 import net.ssehub.kernel_haven.util.FormatException;
+import net.ssehub.kernel_haven.util.OrderPreservingParallelizer;
 import net.ssehub.kernel_haven.util.io.ITableCollection;
 import net.ssehub.kernel_haven.util.io.ITableReader;
 import net.ssehub.kernel_haven.util.io.TableCollectionReaderFactory;
@@ -41,6 +46,7 @@ import net.ssehub.kernel_haven.util.logic.parser.ExpressionFormatException;
 import net.ssehub.kernel_haven.util.logic.parser.Parser;
 import net.ssehub.kernel_haven.util.logic.parser.VariableCache;
 import net.ssehub.kernel_haven.util.null_checks.NonNull;
+import net.ssehub.kernel_haven.util.null_checks.Nullable;
 
 /**
  * A component that reads {@link VariableWithPcs} from a file specified in the configuration.
@@ -54,14 +60,49 @@ public class PcReader extends AnalysisComponent<VariableWithPcs> {
             "A file containing the presence conditions to be read by the "
             + PcReader.class.getName());
 
+    /**
+     * A row read from the file, which still needs to be parsed.
+     */
+    private static final class Row {
+        
+        private @NonNull String @NonNull [] cells;
+        
+        private int lineNumber;
+        
+        /**
+         * Creates a row.
+         * 
+         * @param cells The cells of the row: the name of the variable, followed by the list of presence conditions
+         *     (which may be spread over multiple cells).
+         * @param lineNumber The line number in the file, for error messages.
+         */
+        Row(@NonNull String @NonNull [] cells, int lineNumber) {
+            this.cells = cells;
+            this.lineNumber = lineNumber;
+        }
+        
+    }
+    
     private @NonNull File inputFile;
     
-    private @NonNull VariableCache varCache;
+    /**
+     * One parser per thread, since parsers are not thread-safe. All parsers share one variable cache.
+     */
+    private @NonNull ThreadLocal<Parser<@NonNull Formula>> parser;
     
-    private @NonNull Parser<@NonNull Formula> parser;
+    private int numThreads;
     
     private boolean simplify;
     
+    private @Nullable FormulaInterner interner;
+    
+    private @Nullable SimplificationCache simplificationCache;
+    
+    /**
+     * The helper to check for relevant variables; <code>null</code> if all variables should be read.
+     */
+    private @Nullable PresenceConditionAnalysisHelper relevanceHelper;
+    
     /**
      * Creates this component. No input required since the input file is read from the configuration.
      * 
@@ -75,11 +116,30 @@ public class PcReader extends AnalysisComponent<VariableWithPcs> {
         config.registerSetting(INPUT_FILE_SETTING);
         this.inputFile = config.getValue(INPUT_FILE_SETTING);
         
-        this.varCache = new VariableCache();
-        this.parser = new Parser<>(new CStyleBooleanGrammar(varCache));
+        config.registerSetting(Settings.READER_THREADS);
+        this.numThreads = config.getValue(Settings.READER_THREADS);
+        if (numThreads < 1) {
+            throw new SetUpException("Number of threads can't be " + numThreads);
+        }
+        
+        VariableCache varCache = numThreads > 1 ? new ConcurrentVariableCache() : new VariableCache();
+        this.parser = ThreadLocal.withInitial(() -> new Parser<>(new CStyleBooleanGrammar(varCache)));
         
         config.registerSetting(Settings.SIMPLIFIY);
         this.simplify = config.getValue(Settings.SIMPLIFIY) == SimplificationType.PRESENCE_CONDITIONS;
+        if (simplify) {
+            this.simplificationCache = SimplificationCache.acquire(config);
+        }
+        
+        config.registerSetting(Settings.INTERN_FORMULAS);
+        if (config.getValue(Settings.INTERN_FORMULAS)) {
+            this.interner = new FormulaInterner();
+        }
+        
+        config.registerSetting(PcFinder.RELEVANT_VARIABLES_ONLY);
+        if (config.getValue(PcFinder.RELEVANT_VARIABLES_ONLY)) {
+            this.relevanceHelper = new PresenceConditionAnalysisHelper(config);
+        }
     }
 
     @Override
@@ -105,74 +165,117 @@ public class PcReader extends AnalysisComponent<VariableWithPcs> {
         } catch (IOException e) {
             LOGGER.logException("Can't read input file", e);
         }
+        
+        SimplificationCache cache = this.simplificationCache;
+        if (cache != null) {
+            cache.release();
+        }
     }
     
     /**
-     * Reads the file contents.
+     * Reads the file contents. The rows are read sequentially; if {@link #numThreads} is greater than 1, they are
+     * parsed in parallel, while the order of the results is preserved.
      * 
      * @param in The reader to use.
      * 
      * @throws IOException If reading the file fails.
      */
     private void readFile(@NonNull ITableReader in) throws IOException {
+        OrderPreservingParallelizer<@NonNull Row, @Nullable VariableWithPcs> parallelizer = null;
+        if (numThreads > 1) {
+            parallelizer = new OrderPreservingParallelizer<>(this::parseRow, (result) -> {
+                if (result != null) {
+                    addResult(result);
+                }
+            }, numThreads);
+        }
         
-        in.readNextRow(); // skip first line (header)
-        
-        @NonNull String[] line;
-        while ((line = in.readNextRow()) != null) {
+        try {
+            in.readNextRow(); // skip first line (header)
             
-            if (line.length < 2) {
-                LOGGER.logError("Line " + in.getLineNumber() + " in file " + inputFile + " has " + line.length
-                        + " columns, instead of 2");
-                continue;
-            }
-            
-            // Sometimes an entry is too long to be written into a single cell
-            if (line.length > 2) {
-                StringBuilder concat = new StringBuilder(line[1]);
-                for (int i = 2; i < line.length; i++) {
-                    concat.append(line[i]);
+            @NonNull String[] line;
+            while ((line = in.readNextRow()) != null) {
+                
+                if (line.length < 2) {
+                    LOGGER.logError("Line " + in.getLineNumber() + " in file " + inputFile + " has " + line.length
+                            + " columns, instead of 2");
+                    continue;
+                }
+                
+                PresenceConditionAnalysisHelper relevanceHelper = this.relevanceHelper;
+                if (relevanceHelper != null && !relevanceHelper.isRelevant(line[0])) {
+                    // skip irrelevant variables before parsing their presence conditions
+                    continue;
+                }
+                
+                // an entry that is too long to be written into a single cell is continued in the next cells; this is
+                // handled by the PcListTokenizer
+                Row row = new Row(line, in.getLineNumber());
+                if (parallelizer != null) {
+                    parallelizer.add(row);
+                } else {
+                    VariableWithPcs result = parseRow(row);
+                    if (result != null) {
+                        addResult(result);
+                    }
                 }
-                line[1] = notNull(concat.toString());
             }
             
-            try {
-                addResult(readSingleLine(line[0], line[1]));
-            } catch (FormatException e) {
-                LOGGER.logException("Line " + in.getLineNumber() + " can not be read", e);
+        } finally {
+            // also stop the worker threads if reading fails
+            if (parallelizer != null) {
+                parallelizer.end();
+                parallelizer.join();
             }
-            
         }
     }
     
     /**
-     * Reads a single line from the sheet.
+     * Parses a single row. Errors are logged.
      * 
-     * @param name The name of the variable (first column).
-     * @param pcList The list of presence conditions (second column).
+     * @param row The row to parse.
+     * 
+     * @return The result of parsing the row, or <code>null</code> if the row has an invalid format.
+     */
+    private @Nullable VariableWithPcs parseRow(@NonNull Row row) {
+        VariableWithPcs result = null;
+        try {
+            result = readSingleLine(row.cells);
+        } catch (FormatException e) {
+            LOGGER.logException("Line " + row.lineNumber + " can not be read", e);
+        }
+        return result;
+    }
+    
+    /**
+     * Reads a single line from the sheet. The presence conditions are parsed one by one, as they are found in the
+     * list.
+     * 
+     * @param cells The cells of the line: the name of the variable (first column), followed by the list of presence
+     *     conditions (second and, if it was too long for a single cell, following columns).
      * 
      * @return The result of parsing the line.
      * 
      * @throws FormatException If the presence condition list has an invalid format.
      */
-    private @NonNull VariableWithPcs readSingleLine(@NonNull String name, @NonNull String pcList)
-            throws FormatException {
-
-        if (!pcList.startsWith("[") || !pcList.endsWith("]")) {
-            throw new FormatException("List does not start with '[' or does not end with ']'");
-        }
+    private @NonNull VariableWithPcs readSingleLine(@NonNull String @NonNull [] cells) throws FormatException {
+        PcListTokenizer tokenizer = new PcListTokenizer(cells, 1);
         
-        @SuppressWarnings("null") // String.split() returns @NonNull String @NonNull []
-        @NonNull String[] pcStrs = pcList.substring(1, pcList.length() - 1).split(",");
+        Set<@NonNull Formula> pcs = new HashSet<>();
         
-        Set<@NonNull Formula> pcs = new HashSet<>((int) (pcStrs.length * 1.5));
-        
-        for (String pcStr : pcStrs) {
+        String pcStr;
+        while ((pcStr = tokenizer.next()) != null) {
             try {
-                Formula pc = parser.parse(pcStr);
+                Formula pc = notNull(parser.get()).parse(pcStr);
                 
                 if (simplify) {
-                    pc = FormulaSimplifier.simplify(pc);
+                    SimplificationCache cache = this.simplificationCache;
+                    pc = cache != null ? cache.simplify(pc) : FormulaSimplifier.simplify(pc);
+                }
+                
+                FormulaInterner interner = this.interner;
+                if (interner != null) {
+                    pc = interner.intern(pc);
                 }
                 
                 pcs.add(pc);
@@ -182,7 +285,7 @@ public class PcReader extends AnalysisComponent<VariableWithPcs> {
             }
         }
         
-        return new VariableWithPcs(name, pcs);
+        return new VariableWithPcs(cells[0], pcs);
     }
 
     @Override
@@ -0,0 +1,409 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis.pcs;
+
+import static net.ssehub.kernel_haven.util.null_checks.NullHelpers.notNull;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import net.ssehub.kernel_haven.fe_analysis.pcs.CodeBlockAnalysis.CodeBlock;
+import net.ssehub.kernel_haven.util.logic.Formula;
+import net.ssehub.kernel_haven.util.logic.parser.CStyleBooleanGrammar;
+import net.ssehub.kernel_haven.util.logic.parser.ExpressionFormatException;
+import net.ssehub.kernel_haven.util.logic.parser.Parser;
+import net.ssehub.kernel_haven.util.logic.parser.VariableCache;
+import net.ssehub.kernel_haven.util.null_checks.NonNull;
+import net.ssehub.kernel_haven.util.null_checks.Nullable;
+
+/**
+ * Sorted runs of code blocks on disk. If ordered results are requested, the {@link CodeBlockStore} writes its blocks as
+ * a run file (sorted by path, blocks of a file in their original order) whenever it holds too many blocks. At the end,
+ * all runs are merged with a k-way merge, which only needs to hold a single block per run in memory.
+ * <p>
+ * Each line of a run file contains a single block: the path, the start and end line, the file condition, the block
+ * condition and the presence condition, separated by tabs. The conditions are written in their C-style string
+ * representation and parsed again when merging.
+ * </p>
+ * <p>
+ * If the last blocks can't be written to disk, they are merged from memory instead (see
+ * {@link #addUnspilledRun(List)}).
+ * </p>
+ *
+ * @author agent
+ */
+class SpilledCodeBlockRuns implements Closeable {
+
+    /**
+     * A run of blocks sorted by path, which knows its current block.
+     */
+    private abstract static class RunSource implements Closeable {
+
+        /**
+         * The index of the run. Runs with a lower index were written earlier.
+         */
+        protected int index;
+
+        /**
+         * Creates a run with the given index.
+         *
+         * @param index The index of the run. Runs with a lower index were written earlier.
+         */
+        RunSource(int index) {
+            this.index = index;
+        }
+
+        /**
+         * Returns whether there is a current block, i.e. whether the end of the run is not reached yet.
+         *
+         * @return Whether there is a current block.
+         */
+        abstract boolean hasBlock();
+
+        /**
+         * Returns the path of the current block.
+         *
+         * @return The path of the current block.
+         */
+        abstract @NonNull String getPath();
+
+        /**
+         * Returns the current block.
+         *
+         * @param parse The function to parse a condition.
+         *
+         * @return The current block.
+         *
+         * @throws IOException If the block can't be read.
+         */
+        abstract @NonNull CodeBlock getBlock(@NonNull ParseFunction parse) throws IOException;
+
+        /**
+         * Moves to the next block.
+         *
+         * @throws IOException If reading the next block fails.
+         */
+        abstract void next() throws IOException;
+
+    }
+
+    /**
+     * A reader for a single run file, which knows the block of its current line.
+     */
+    private static final class RunReader extends RunSource {
+
+        private @NonNull BufferedReader in;
+
+        private @NonNull String @Nullable [] parts;
+
+        private @Nullable String fileConditionString;
+
+        private @Nullable Formula fileCondition;
+
+        /**
+         * Opens the given run file and reads the first line.
+         *
+         * @param file The run file to read.
+         * @param index The index of the run. Runs with a lower index were written earlier.
+         *
+         * @throws IOException If reading the file fails.
+         */
+        RunReader(@NonNull File file, int index) throws IOException {
+            super(index);
+            this.in = notNull(Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8));
+            next();
+        }
+
+        /**
+         * Reads the next line of the run file. Sets {@link #parts} to <code>null</code> at the end of the file.
+         *
+         * @throws IOException If reading the file fails or the line is malformed.
+         */
+        @Override
+        void next() throws IOException {
+            String line = in.readLine();
+            if (line != null) {
+                parts = line.split("\t");
+                if (notNull(parts).length != 6) {
+                    throw new IOException("Malformed line in spilled code block run: " + line);
+                }
+            } else {
+                parts = null;
+            }
+        }
+
+        @Override
+        boolean hasBlock() {
+            return parts != null;
+        }
+
+        @Override
+        @NonNull String getPath() {
+            return notNull(notNull(parts)[0]);
+        }
+
+        @Override
+        @NonNull CodeBlock getBlock(@NonNull ParseFunction parse) throws IOException {
+            @NonNull String[] parts = notNull(this.parts);
+            try {
+                // all blocks of a file share the same file condition, thus parse it only once per file
+                if (!parts[3].equals(fileConditionString)) {
+                    fileConditionString = parts[3];
+                    fileCondition = parse.apply(parts[3]);
+                }
+                return new CodeBlock(parts[0], notNull(fileCondition), parse.apply(parts[4]), parse.apply(parts[5]),
+                    Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+
+            } catch (ExpressionFormatException | NumberFormatException e) {
+                throw new IOException("Can't parse spilled code block of " + parts[0], e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+    }
+
+    /**
+     * A run that is kept in memory, since it could not be written to disk.
+     */
+    private static final class UnspilledRun extends RunSource {
+
+        private @NonNull List<@NonNull CodeBlock> blocks;
+
+        private int position;
+
+        /**
+         * Creates a run for the given blocks.
+         *
+         * @param blocks The blocks of the run, sorted like the blocks of a run file.
+         * @param index The index of the run. Runs with a lower index were written earlier.
+         */
+        UnspilledRun(@NonNull List<@NonNull CodeBlock> blocks, int index) {
+            super(index);
+            this.blocks = blocks;
+        }
+
+        @Override
+        boolean hasBlock() {
+            return position < blocks.size();
+        }
+
+        @Override
+        @NonNull String getPath() {
+            return blocks.get(position).getPath();
+        }
+
+        @Override
+        @NonNull CodeBlock getBlock(@NonNull ParseFunction parse) {
+            // the conditions of blocks in memory were never converted to strings, thus they don't need to be parsed
+            return blocks.get(position);
+        }
+
+        @Override
+        void next() {
+            position++;
+        }
+
+        @Override
+        public void close() {
+        }
+
+    }
+
+    /**
+     * Parses a condition.
+     */
+    @FunctionalInterface
+    private interface ParseFunction {
+
+        /**
+         * Parses the given condition.
+         *
+         * @param condition The string representation of the condition.
+         *
+         * @return The parsed condition.
+         *
+         * @throws ExpressionFormatException If the condition can't be parsed.
+         */
+        @NonNull Formula apply(@NonNull String condition) throws ExpressionFormatException;
+
+    }
+
+    private @NonNull File directory;
+
+    private @NonNull List<@NonNull File> runs;
+
+    private @Nullable List<@NonNull CodeBlock> unspilledRun;
+
+    /**
+     * Creates an empty set of runs.
+     *
+     * @param directory The directory to store the run files in.
+     */
+    SpilledCodeBlockRuns(@NonNull File directory) {
+        this.directory = directory;
+        this.runs = new ArrayList<>();
+    }
+
+    /**
+     * Returns the number of runs written so far.
+     *
+     * @return The number of run files.
+     */
+    int getNumRuns() {
+        return runs.size();
+    }
+
+    /**
+     * Writes the given blocks as a new run file.
+     *
+     * @param blocks The blocks to write, sorted by path. Blocks of the same file must be in their original order.
+     *
+     * @throws IOException If writing the run file fails. The incomplete run file is discarded.
+     */
+    void write(@NonNull Iterable<@NonNull CodeBlock> blocks) throws IOException {
+        File run = notNull(Files.createTempFile(directory.toPath(), "code_block_run", ".txt").toFile());
+        boolean success = false;
+        try {
+            try (BufferedWriter out = Files.newBufferedWriter(run.toPath(), StandardCharsets.UTF_8)) {
+                Formula lastFileCondition = null;
+                String lastFileConditionString = null;
+                for (CodeBlock block : blocks) {
+                    // all blocks of a file share the same file condition, thus convert it only once per file
+                    if (block.getFileCondition() != lastFileCondition) {
+                        lastFileCondition = block.getFileCondition();
+                        lastFileConditionString = lastFileCondition.toString();
+                    }
+
+                    out.write(block.getPath());
+                    out.write('\t');
+                    out.write(Integer.toString(block.getStart()));
+                    out.write('\t');
+                    out.write(Integer.toString(block.getEnd()));
+                    out.write('\t');
+                    out.write(notNull(lastFileConditionString));
+                    out.write('\t');
+                    out.write(block.getCondition().toString());
+                    out.write('\t');
+                    out.write(block.getPresenceCondition().toString());
+                    out.newLine();
+                }
+            }
+            success = true;
+
+        } finally {
+            if (success) {
+                runs.add(run);
+            } else {
+                run.delete();
+            }
+        }
+    }
+
+    /**
+     * Adds blocks that could not be written to disk as an additional run. It is merged together with the run files,
+     * after all runs that were written so far.
+     *
+     * @param blocks The blocks to merge from memory, sorted like in {@link #write(Iterable)}.
+     */
+    void addUnspilledRun(@NonNull List<@NonNull CodeBlock> blocks) {
+        this.unspilledRun = blocks;
+    }
+
+    /**
+     * Merges all runs and passes the blocks to the consumer, sorted by path. Blocks of the same file keep their
+     * original order, even if they are spread over multiple runs.
+     *
+     * @param intern A function to apply to each parsed condition (e.g. interning).
+     * @param consumer The consumer of the merged blocks.
+     *
+     * @throws IOException If reading or parsing a run file fails.
+     */
+    void merge(@NonNull Function<@NonNull Formula, @NonNull Formula> intern,
+        @NonNull Consumer<@NonNull CodeBlock> consumer) throws IOException {
+
+        Parser<@NonNull Formula> parser = new Parser<>(new CStyleBooleanGrammar(new VariableCache()));
+        ParseFunction parse = (condition) -> intern.apply(parser.parse(condition));
+
+        // runs that were written earlier contain the earlier blocks of a file that is spread over multiple runs
+        PriorityQueue<@NonNull RunSource> queue = new PriorityQueue<>(Math.max(1, runs.size() + 1), (r1, r2) -> {
+            int result = r1.getPath().compareTo(r2.getPath());
+            return result != 0 ? result : Integer.compare(r1.index, r2.index);
+        });
+
+        List<@NonNull RunSource> readers = new ArrayList<>(runs.size() + 1);
+        try {
+            for (File run : runs) {
+                readers.add(new RunReader(run, readers.size()));
+            }
+            List<@NonNull CodeBlock> unspilledRun = this.unspilledRun;
+            if (unspilledRun != null) {
+                readers.add(new UnspilledRun(unspilledRun, readers.size()));
+            }
+            for (RunSource reader : readers) {
+                if (reader.hasBlock()) {
+                    queue.add(reader);
+                }
+            }
+
+            while (!queue.isEmpty()) {
+                RunSource reader = notNull(queue.poll());
+                String path = reader.getPath();
+
+                // pass all consecutive blocks of this file in this run, before switching to another run
+                do {
+                    consumer.accept(reader.getBlock(parse));
+                    reader.next();
+                } while (reader.hasBlock() && path.equals(reader.getPath()));
+
+                if (reader.hasBlock()) {
+                    queue.add(reader);
+                }
+            }
+
+        } finally {
+            for (RunSource reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Deletes all run files.
+     */
+    @Override
+    public void close() {
+        for (File run : runs) {
+            run.delete();
+        }
+        runs.clear();
+        unspilledRun = null;
+    }
+
+}
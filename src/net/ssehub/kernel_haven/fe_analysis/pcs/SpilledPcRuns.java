@@ -0,0 +1,375 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis.pcs;
+
+import static net.ssehub.kernel_haven.util.null_checks.NullHelpers.notNull;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import net.ssehub.kernel_haven.fe_analysis.pcs.PcFinder.VariableWithPcs;
+import net.ssehub.kernel_haven.util.logic.Formula;
+import net.ssehub.kernel_haven.util.logic.parser.CStyleBooleanGrammar;
+import net.ssehub.kernel_haven.util.logic.parser.ExpressionFormatException;
+import net.ssehub.kernel_haven.util.logic.parser.Parser;
+import net.ssehub.kernel_haven.util.logic.parser.VariableCache;
+import net.ssehub.kernel_haven.util.null_checks.NonNull;
+import net.ssehub.kernel_haven.util.null_checks.Nullable;
+
+/**
+ * Sorted runs of collected presence conditions on disk. If the collected presence conditions don't fit into memory,
+ * the {@link PcFinder} writes its {@link CompactPcStore} as a run file (sorted by variable name) and clears it. At the
+ * end, all runs are merged with a k-way merge, which only needs to hold the presence conditions of a single variable
+ * in memory.
+ * <p>
+ * Each line of a run file contains a variable name followed by its presence conditions, separated by tabs. The
+ * presence conditions are written in their C-style string representation and parsed again when merging.
+ * </p>
+ * <p>
+ * If the last part of the presence conditions can't be written to disk, it is merged from memory instead (see
+ * {@link #addUnspilledRun(CompactPcStore, Formula[])}).
+ * </p>
+ *
+ * @author agent
+ */
+class SpilledPcRuns implements Closeable {
+
+    /**
+     * A sorted source of variables with their presence conditions, which knows its current variable.
+     */
+    private abstract static class RunSource implements Closeable {
+
+        protected @Nullable String variable;
+
+        protected @NonNull String @Nullable [] pcs;
+
+        /**
+         * Moves to the next variable. Sets {@link #variable} to <code>null</code> at the end of the run.
+         *
+         * @throws IOException If reading the run fails.
+         */
+        abstract void next() throws IOException;
+
+    }
+
+    /**
+     * A reader for a single run file, which knows the variable of its current line.
+     */
+    private static final class RunReader extends RunSource {
+
+        private @NonNull BufferedReader in;
+
+        /**
+         * Opens the given run file and reads the first line.
+         *
+         * @param file The run file to read.
+         *
+         * @throws IOException If reading the file fails.
+         */
+        RunReader(@NonNull File file) throws IOException {
+            this.in = notNull(Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8));
+            next();
+        }
+
+        @Override
+        void next() throws IOException {
+            String line = in.readLine();
+            if (line != null) {
+                String[] parts = line.split("\t");
+                variable = parts[0];
+                pcs = Arrays.copyOfRange(parts, 1, parts.length);
+            } else {
+                variable = null;
+                pcs = null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+    }
+
+    /**
+     * A run that is kept in memory, since it could not be written to disk.
+     */
+    private static final class UnspilledRun extends RunSource {
+
+        private @NonNull CompactPcStore store;
+
+        private @NonNull Formula @NonNull [] storePcs;
+
+        private int @NonNull [] variables;
+
+        private @NonNull String @NonNull [] names;
+
+        private @NonNull Integer @NonNull [] order;
+
+        private int position;
+
+        /**
+         * Creates a run for the given store and moves to its first variable.
+         *
+         * @param store The store of the run. Will be compacted.
+         * @param storePcs The presence conditions for each PC ID of the store.
+         */
+        UnspilledRun(@NonNull CompactPcStore store, @NonNull Formula @NonNull [] storePcs) {
+            store.compact();
+            this.store = store;
+            this.storePcs = storePcs;
+            this.variables = store.getVariables();
+            this.names = getNames(store, variables);
+            this.order = sortByName(names);
+            next();
+        }
+
+        @Override
+        void next() {
+            if (position < order.length) {
+                int index = order[position++];
+                Set<String> pcStrings = new LinkedHashSet<>();
+                for (int pcId : store.getPcIds(variables[index])) {
+                    pcStrings.add(storePcs[pcId].toString());
+                }
+                variable = names[index];
+                pcs = pcStrings.toArray(new @NonNull String[0]);
+            } else {
+                variable = null;
+                pcs = null;
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+
+    }
+
+    private @NonNull File directory;
+
+    private @NonNull List<@NonNull File> runs;
+
+    private @Nullable UnspilledRun unspilledRun;
+
+    /**
+     * Creates an empty set of runs.
+     *
+     * @param directory The directory to store the run files in.
+     */
+    SpilledPcRuns(@NonNull File directory) {
+        this.directory = directory;
+        this.runs = new ArrayList<>();
+    }
+
+    /**
+     * Returns the names of the given variables.
+     *
+     * @param store The store that contains the variables.
+     * @param variables The IDs of the variables.
+     *
+     * @return The name of each variable.
+     */
+    private static @NonNull String @NonNull [] getNames(@NonNull CompactPcStore store, int @NonNull [] variables) {
+        VariableDictionary dictionary = store.getDictionary();
+        @NonNull String[] names = new @NonNull String[variables.length];
+        for (int i = 0; i < variables.length; i++) {
+            names[i] = dictionary.getName(variables[i]);
+        }
+        return names;
+    }
+
+    /**
+     * Sorts the indices of the given names by name.
+     *
+     * @param names The names to sort.
+     *
+     * @return The indices of the names, in the order of the names.
+     */
+    private static @NonNull Integer @NonNull [] sortByName(@NonNull String @NonNull [] names) {
+        @NonNull Integer[] order = new @NonNull Integer[names.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (o1, o2) -> names[o1].compareTo(names[o2]));
+        return order;
+    }
+
+    /**
+     * Returns the number of runs written so far.
+     *
+     * @return The number of run files.
+     */
+    int getNumRuns() {
+        return runs.size();
+    }
+
+    /**
+     * Writes the content of the given store as a new run file, sorted by variable name.
+     *
+     * @param store The store to write. Will be compacted.
+     * @param pcs The presence conditions to write for each PC ID of the store. Usually the (simplified) distinct
+     *     presence conditions of the store.
+     *
+     * @throws IOException If writing the run file fails. The incomplete run file is discarded.
+     */
+    void write(@NonNull CompactPcStore store, @NonNull Formula @NonNull [] pcs) throws IOException {
+        store.compact();
+
+        int[] variables = store.getVariables();
+        @NonNull String[] names = getNames(store, variables);
+        @NonNull Integer[] order = sortByName(names);
+
+        // convert each PC only once, and not at all if it is not used by any variable
+        @Nullable String[] pcStrings = new @Nullable String[pcs.length];
+
+        File run = notNull(Files.createTempFile(directory.toPath(), "pc_run", ".txt").toFile());
+        boolean success = false;
+        try {
+            try (BufferedWriter out = Files.newBufferedWriter(run.toPath(), StandardCharsets.UTF_8)) {
+                for (int index : order) {
+                    out.write(names[index]);
+
+                    // the simplification may map different PCs to the same string
+                    Set<String> written = new HashSet<>();
+                    for (int pcId : store.getPcIds(variables[index])) {
+                        String pc = pcStrings[pcId];
+                        if (pc == null) {
+                            pc = pcs[pcId].toString();
+                            pcStrings[pcId] = pc;
+                        }
+                        if (written.add(pc)) {
+                            out.write('\t');
+                            out.write(pc);
+                        }
+                    }
+                    out.newLine();
+                }
+            }
+            success = true;
+
+        } finally {
+            if (success) {
+                runs.add(run);
+            } else {
+                run.delete();
+            }
+        }
+    }
+
+    /**
+     * Adds the content of a store that could not be written to disk as an additional run. It is merged together with
+     * the run files, thus the results are still sorted by variable name. The store must not be changed until the runs
+     * are merged.
+     *
+     * @param store The store to merge from memory. Will be compacted.
+     * @param pcs The presence conditions for each PC ID of the store, see
+     *     {@link #write(CompactPcStore, Formula[])}.
+     */
+    void addUnspilledRun(@NonNull CompactPcStore store, @NonNull Formula @NonNull [] pcs) {
+        this.unspilledRun = new UnspilledRun(store, pcs);
+    }
+
+    /**
+     * Merges all runs and passes the variables with their presence conditions to the consumer, sorted by variable
+     * name. Presence conditions that are equal in different runs are only passed once per variable.
+     *
+     * @param intern A function to apply to each parsed presence condition (e.g. interning).
+     * @param consumer The consumer of the merged results.
+     *
+     * @throws IOException If reading or parsing a run file fails.
+     */
+    void merge(@NonNull Function<@NonNull Formula, @NonNull Formula> intern,
+            @NonNull Consumer<@NonNull VariableWithPcs> consumer) throws IOException {
+
+        Parser<@NonNull Formula> parser = new Parser<>(new CStyleBooleanGrammar(new VariableCache()));
+        PriorityQueue<@NonNull RunSource> queue = new PriorityQueue<>(Math.max(1, runs.size() + 1),
+            (r1, r2) -> notNull(r1.variable).compareTo(notNull(r2.variable)));
+
+        List<@NonNull RunSource> readers = new ArrayList<>(runs.size() + 1);
+        try {
+            for (File run : runs) {
+                readers.add(new RunReader(run));
+            }
+            UnspilledRun unspilledRun = this.unspilledRun;
+            if (unspilledRun != null) {
+                readers.add(unspilledRun);
+            }
+            for (RunSource reader : readers) {
+                if (reader.variable != null) {
+                    queue.add(reader);
+                }
+            }
+
+            while (!queue.isEmpty()) {
+                String variable = notNull(notNull(queue.peek()).variable);
+
+                // collect the strings first, so that PCs that occur in multiple runs are parsed only once
+                Set<String> pcStrings = new LinkedHashSet<>();
+                while (!queue.isEmpty() && variable.equals(notNull(queue.peek()).variable)) {
+                    RunSource reader = notNull(queue.poll());
+                    pcStrings.addAll(Arrays.asList(notNull(reader.pcs)));
+                    reader.next();
+                    if (reader.variable != null) {
+                        queue.add(reader);
+                    }
+                }
+
+                Set<@NonNull Formula> pcs = new HashSet<>((int) (pcStrings.size() / 0.75f) + 1);
+                for (String pc : pcStrings) {
+                    try {
+                        pcs.add(intern.apply(parser.parse(notNull(pc))));
+                    } catch (ExpressionFormatException e) {
+                        throw new IOException("Can't parse spilled presence condition of " + variable + ": " + pc, e);
+                    }
+                }
+                consumer.accept(new VariableWithPcs(variable, pcs));
+            }
+
+        } finally {
+            for (RunSource reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Deletes all run files.
+     */
+    @Override
+    public void close() {
+        for (File run : runs) {
+            run.delete();
+        }
+        runs.clear();
+        unspilledRun = null;
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis.pcs;
+
+import static net.ssehub.kernel_haven.util.null_checks.NullHelpers.notNull;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.ssehub.kernel_haven.util.null_checks.NonNull;
+
+/**
+ * Assigns dense integer IDs to variable names. This allows to store per-variable data in arrays indexed by the ID,
+ * instead of maps that hash (long) variable names on each access. Each name is stored only once.
+ * <p>
+ * A dictionary is used by a {@link PcFinder} while it collects the presence conditions of one run; it is shared by
+ * the (partial) {@link CompactPcStore}s of this collection only. The results of the {@link PcFinder} and all later
+ * components are keyed by variable names again: they either handle one variable at a time, or (like the
+ * {@link net.ssehub.kernel_haven.fe_analysis.fes.FeAggregator}) only the few values of one variable.
+ * </p>
+ * <p>
+ * This class is thread-safe. Looking up an already known name does not lock.
+ * </p>
+ *
+ * @author agent
+ */
+final class VariableDictionary {
+
+    private @NonNull Map<String, Integer> ids;
+
+    private @NonNull String @NonNull [] names;
+
+    private int size;
+
+    /**
+     * Creates an empty {@link VariableDictionary}.
+     */
+    VariableDictionary() {
+        this.ids = new ConcurrentHashMap<>();
+        this.names = new @NonNull String[64];
+    }
+
+    /**
+     * Returns the ID of the given variable name. If the name is not yet known, it gets the next free ID.
+     *
+     * @param name The name of the variable.
+     *
+     * @return The ID of the variable; IDs are assigned consecutively, starting at 0.
+     */
+    int getId(@NonNull String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            synchronized (this) {
+                id = ids.get(name);
+                if (id == null) {
+                    if (size == names.length) {
+                        names = notNull(Arrays.copyOf(names, size * 2));
+                    }
+                    names[size] = name;
+                    id = size++;
+                    // publish only after the name is stored, so that getName() works for each visible ID
+                    ids.put(name, id);
+                }
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Returns the name of the variable with the given ID.
+     *
+     * @param id An ID that was returned by {@link #getId(String)}.
+     *
+     * @return The name of the variable.
+     *
+     * @throws IndexOutOfBoundsException If the ID was not assigned by this dictionary.
+     */
+    synchronized @NonNull String getName(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Unknown variable ID: " + id);
+        }
+        return names[id];
+    }
+
+    /**
+     * Returns the number of known variables. The valid IDs are <code>0</code> to <code>size() - 1</code>.
+     *
+     * @return The number of known variables.
+     */
+    synchronized int size() {
+        return size;
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis.relations;
+
+import net.ssehub.kernel_haven.SetUpException;
+import net.ssehub.kernel_haven.analysis.AnalysisComponent;
+import net.ssehub.kernel_haven.config.Configuration;
+import net.ssehub.kernel_haven.fe_analysis.fes.FeatureEffectFinder.VariableWithFeatureEffect;
+import net.ssehub.kernel_haven.fe_analysis.relations.SharedFeatureEffectFinder.FeatureEffectWithParents;
+import net.ssehub.kernel_haven.util.null_checks.NonNull;
+
+/**
+ * Passes on the feature effects computed by the {@link SharedFeatureEffectFinder}. The results are the same as the
+ * ones of the {@link net.ssehub.kernel_haven.fe_analysis.fes.FeatureEffectFinder}, i.e. variables that are not
+ * relevant are skipped.
+ *
+ * @author agent
+ */
+public class FeatureEffectSelector extends AnalysisComponent<VariableWithFeatureEffect> {
+
+    private @NonNull AnalysisComponent<FeatureEffectWithParents> sharedFinder;
+
+    /**
+     * Creates a new {@link FeatureEffectSelector}.
+     *
+     * @param config The pipeline configuration.
+     * @param sharedFinder The component to get the combined results from.
+     *
+     * @throws SetUpException If creating this component fails.
+     */
+    public FeatureEffectSelector(@NonNull Configuration config,
+            @NonNull AnalysisComponent<FeatureEffectWithParents> sharedFinder) throws SetUpException {
+
+        super(config);
+        this.sharedFinder = sharedFinder;
+    }
+
+    @Override
+    protected void execute() {
+        FeatureEffectWithParents result;
+        while ((result = sharedFinder.getNextResult()) != null) {
+            VariableWithFeatureEffect featureEffect = result.getFeatureEffect();
+            if (featureEffect != null) {
+                addResult(featureEffect);
+            }
+        }
+    }
+
+    @Override
+    public @NonNull String getResultName() {
+        return "Feature Effects";
+    }
+
+}
@@ -20,9 +20,11 @@ import static net.ssehub.kernel_haven.util.null_checks.NullHelpers.notNull;
 import java.util.HashSet;
 import java.util.Set;
 
+import net.ssehub.kernel_haven.SetUpException;
 import net.ssehub.kernel_haven.analysis.AnalysisComponent;
 import net.ssehub.kernel_haven.config.Configuration;
 import net.ssehub.kernel_haven.fe_analysis.fes.FeatureEffectComputer;
+import net.ssehub.kernel_haven.fe_analysis.fes.XorTermCache;
 import net.ssehub.kernel_haven.fe_analysis.pcs.PcFinder.VariableWithPcs;
 import net.ssehub.kernel_haven.fe_analysis.relations.VariableWithPotentialParents.PotentialParent;
 import net.ssehub.kernel_haven.util.ProgressLogger;
@@ -35,6 +37,7 @@ import net.ssehub.kernel_haven.util.logic.Negation;
 import net.ssehub.kernel_haven.util.logic.True;
 import net.ssehub.kernel_haven.util.logic.Variable;
 import net.ssehub.kernel_haven.util.null_checks.NonNull;
+import net.ssehub.kernel_haven.util.null_checks.Nullable;
 
 /**
  * An analysis component that finds potential "parent" variables for variability variables. This is done by checking
@@ -46,20 +49,45 @@ public class PotentialParentFinder extends AnalysisComponent<VariableWithPotenti
 
     private @NonNull AnalysisComponent<VariableWithPcs> pcFinder;
     
+    private @Nullable XorTermCache xorCache;
+    
+    /**
+     * Creates a new {@link PotentialParentFinder}. Creates its own XOR term cache, if configured.
+     * 
+     * @param config The pipeline configuration.
+     * @param pcFinder The component to get the presence conditions from.
+     * 
+     * @throws SetUpException If the configuration is invalid.
+     */
+    public PotentialParentFinder(@NonNull Configuration config, @NonNull AnalysisComponent<VariableWithPcs> pcFinder)
+            throws SetUpException {
+        
+        this(config, pcFinder, XorTermCache.create(config));
+    }
+    
     /**
-     * Creates a new {@link PotentialParentFinder}.
+     * Creates a new {@link PotentialParentFinder}, which uses the given XOR term cache. This allows a pipeline to
+     * share a single cache with other components, e.g. a
+     * {@link net.ssehub.kernel_haven.fe_analysis.fes.FeatureEffectFinder}.
      * 
      * @param config The pipeline configuration.
      * @param pcFinder The component to get the presence conditions from.
+     * @param xorCache The cache for XOR terms, <code>null</code> to disable caching.
+     * 
+     * @throws SetUpException If the configuration is invalid.
      */
-    public PotentialParentFinder(@NonNull Configuration config, @NonNull AnalysisComponent<VariableWithPcs> pcFinder) {
+    public PotentialParentFinder(@NonNull Configuration config, @NonNull AnalysisComponent<VariableWithPcs> pcFinder,
+            @Nullable XorTermCache xorCache) throws SetUpException {
+        
         super(config);
         this.pcFinder = pcFinder;
+        this.xorCache = xorCache;
     }
 
     @Override
     protected void execute() {
         FeatureEffectComputer computer = new FeatureEffectComputer(true);
+        computer.setXorCache(xorCache);
         
         ProgressLogger progress = new ProgressLogger(notNull(getClass().getSimpleName()));
         
@@ -68,54 +96,14 @@ public class PotentialParentFinder extends AnalysisComponent<VariableWithPotenti
             
             VariableWithPotentialParents result = new VariableWithPotentialParents(varPcs.getVariable());
             
-            Set<String> seenVariables = new HashSet<>();
             int numPcs = varPcs.getPcs().size();
             for (Formula pc : varPcs.getPcs()) {
-                seenVariables.clear();
-                seenVariables.add(varPcs.getVariable()); // don't visit self
-                
                 // create a temporary VariableWithPcs to calculate the FE for a single PC
                 Set<Formula> tmpPc = new HashSet<>();
                 tmpPc.add(pc);
                 VariableWithPcs tmp = new VariableWithPcs(varPcs.getVariable(), tmpPc);
-                pc = computer.buildFeatureEffefct(tmp);
                 
-                pc.accept(new IVoidFormulaVisitor() {
-                    
-                    @Override
-                    public void visitVariable(@NonNull Variable variable) {
-                        if (seenVariables.add(variable.getName())) {
-                            
-                            PotentialParent pp = result.getOrCreatePotentialParent(variable.getName());
-                            pp.setProbability(pp.getProbability() + (1.0 / numPcs));
-                        }
-                    }
-                    
-                    @Override
-                    public void visitTrue(@NonNull True trueConstant) {
-                    }
-                    
-                    @Override
-                    public void visitNegation(@NonNull Negation formula) {
-                        formula.getFormula().accept(this);
-                    }
-                    
-                    @Override
-                    public void visitFalse(@NonNull False falseConstant) {
-                    }
-                    
-                    @Override
-                    public void visitDisjunction(@NonNull Disjunction formula) {
-                        formula.getLeft().accept(this);
-                        formula.getRight().accept(this);
-                    }
-                    
-                    @Override
-                    public void visitConjunction(@NonNull Conjunction formula) {
-                        formula.getLeft().accept(this);
-                        formula.getRight().accept(this);
-                    }
-                });
+                addPotentialParents(result, computer.buildFeatureEffefct(tmp), numPcs);
             }
             
             result.sort();
@@ -127,6 +115,58 @@ public class PotentialParentFinder extends AnalysisComponent<VariableWithPotenti
         progress.close();
     }
 
+    /**
+     * Adds the variables of the feature effect of a single presence condition as potential parents. Each variable
+     * (except the variable itself) increases the probability of its potential parent by <code>1 / numPcs</code>.
+     * 
+     * @param result The potential parents of the variable to add to.
+     * @param singlePcFe The feature effect of the variable, computed for a single of its presence conditions.
+     * @param numPcs The total number of presence conditions of the variable.
+     */
+    static void addPotentialParents(@NonNull VariableWithPotentialParents result, @NonNull Formula singlePcFe,
+            int numPcs) {
+        
+        Set<String> seenVariables = new HashSet<>();
+        seenVariables.add(result.getVariable()); // don't visit self
+        
+        singlePcFe.accept(new IVoidFormulaVisitor() {
+            
+            @Override
+            public void visitVariable(@NonNull Variable variable) {
+                if (seenVariables.add(variable.getName())) {
+                    
+                    PotentialParent pp = result.getOrCreatePotentialParent(variable.getName());
+                    pp.setProbability(pp.getProbability() + (1.0 / numPcs));
+                }
+            }
+            
+            @Override
+            public void visitTrue(@NonNull True trueConstant) {
+            }
+            
+            @Override
+            public void visitNegation(@NonNull Negation formula) {
+                formula.getFormula().accept(this);
+            }
+            
+            @Override
+            public void visitFalse(@NonNull False falseConstant) {
+            }
+            
+            @Override
+            public void visitDisjunction(@NonNull Disjunction formula) {
+                formula.getLeft().accept(this);
+                formula.getRight().accept(this);
+            }
+            
+            @Override
+            public void visitConjunction(@NonNull Conjunction formula) {
+                formula.getLeft().accept(this);
+                formula.getRight().accept(this);
+            }
+        });
+    }
+
     @Override
     public @NonNull String getResultName() {
         return "Potential Parents";
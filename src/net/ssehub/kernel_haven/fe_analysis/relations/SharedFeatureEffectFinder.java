@@ -0,0 +1,232 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis.relations;
+
+import static net.ssehub.kernel_haven.util.null_checks.NullHelpers.notNull;
+
+import java.util.Collections;
+import java.util.List;
+
+import net.ssehub.kernel_haven.SetUpException;
+import net.ssehub.kernel_haven.analysis.AnalysisComponent;
+import net.ssehub.kernel_haven.config.Configuration;
+import net.ssehub.kernel_haven.fe_analysis.PresenceConditionAnalysisHelper;
+import net.ssehub.kernel_haven.fe_analysis.Settings;
+import net.ssehub.kernel_haven.fe_analysis.Settings.FeComputationType;
+import net.ssehub.kernel_haven.fe_analysis.Settings.SimplificationType;
+import net.ssehub.kernel_haven.fe_analysis.SimplificationCache;
+import net.ssehub.kernel_haven.fe_analysis.fes.FeatureEffectComputer;
+import net.ssehub.kernel_haven.fe_analysis.fes.FeatureEffectFinder;
+import net.ssehub.kernel_haven.fe_analysis.fes.FeatureEffectFinder.VariableWithFeatureEffect;
+import net.ssehub.kernel_haven.fe_analysis.fes.XorTermCache;
+import net.ssehub.kernel_haven.fe_analysis.pcs.PcFinder.VariableWithPcs;
+import net.ssehub.kernel_haven.fe_analysis.relations.SharedFeatureEffectFinder.FeatureEffectWithParents;
+import net.ssehub.kernel_haven.util.ProgressLogger;
+import net.ssehub.kernel_haven.util.logic.Formula;
+import net.ssehub.kernel_haven.util.null_checks.NonNull;
+import net.ssehub.kernel_haven.util.null_checks.Nullable;
+
+/**
+ * A component that computes both, the results of the {@link FeatureEffectFinder} and of the
+ * {@link PotentialParentFinder}, in a single pass over the presence conditions. The potential parents are determined
+ * by the feature effects of single presence conditions, which are built from the XOR element of each presence
+ * condition. If the presence conditions are simplified, these XOR elements are also used for the feature effect of
+ * the variable, thus they are computed only once. Otherwise, the feature effect of the variable is computed from its
+ * own (not simplified) XOR elements, or directly on BDDs. Use {@link FeatureEffectSelector} and
+ * {@link PotentialParentSelector} to get the separate results.
+ * <p>
+ * Feature effects are not stored for incremental runs by this component and variables are not split for a parallel
+ * computation, thus {@link Settings#INCREMENTAL_FEATURE_EFFECTS} and {@link Settings#FE_FORK_JOIN_THRESHOLD} are
+ * ignored.
+ * </p>
+ *
+ * @author agent
+ */
+public class SharedFeatureEffectFinder extends AnalysisComponent<FeatureEffectWithParents> {
+
+    /**
+     * The feature effect and the potential parents of a single variable.
+     */
+    public static class FeatureEffectWithParents {
+
+        private @Nullable VariableWithFeatureEffect featureEffect;
+
+        private @NonNull VariableWithPotentialParents potentialParents;
+
+        /**
+         * Creates a new result.
+         *
+         * @param featureEffect The feature effect of the variable; <code>null</code> if the variable is not relevant.
+         * @param potentialParents The potential parents of the variable.
+         */
+        public FeatureEffectWithParents(@Nullable VariableWithFeatureEffect featureEffect,
+                @NonNull VariableWithPotentialParents potentialParents) {
+            this.featureEffect = featureEffect;
+            this.potentialParents = potentialParents;
+        }
+
+        /**
+         * Returns the feature effect of the variable.
+         *
+         * @return The feature effect; <code>null</code> if the variable is not relevant.
+         */
+        public @Nullable VariableWithFeatureEffect getFeatureEffect() {
+            return featureEffect;
+        }
+
+        /**
+         * Returns the potential parents of the variable.
+         *
+         * @return The potential parents.
+         */
+        public @NonNull VariableWithPotentialParents getPotentialParents() {
+            return potentialParents;
+        }
+
+        @Override
+        public @NonNull String toString() {
+            return featureEffect + ", " + potentialParents;
+        }
+
+    }
+
+    private @NonNull AnalysisComponent<VariableWithPcs> pcFinder;
+
+    private @NonNull PresenceConditionAnalysisHelper helper;
+
+    private boolean useBdd;
+
+    /**
+     * Whether the XOR elements of the {@link #singlePcComputer} can be used by the {@link #feComputer}.
+     */
+    private boolean shareXorTerms;
+
+    /**
+     * Computes the feature effects of the variables.
+     */
+    private @NonNull FeatureEffectComputer feComputer;
+
+    /**
+     * Computes the XOR elements and the (always simplified) feature effects of single presence conditions, like the
+     * {@link PotentialParentFinder}.
+     */
+    private @NonNull FeatureEffectComputer singlePcComputer;
+
+    private @Nullable SimplificationCache simplificationCache;
+
+    /**
+     * Creates a new {@link SharedFeatureEffectFinder}.
+     *
+     * @param config The pipeline configuration.
+     * @param pcFinder The component to get the presence conditions from.
+     *
+     * @throws SetUpException If the configuration is invalid.
+     */
+    public SharedFeatureEffectFinder(@NonNull Configuration config,
+            @NonNull AnalysisComponent<VariableWithPcs> pcFinder) throws SetUpException {
+
+        super(config);
+        this.pcFinder = pcFinder;
+        this.helper = new PresenceConditionAnalysisHelper(config);
+
+        config.registerSetting(Settings.INCREMENTAL_FEATURE_EFFECTS);
+        if (config.getValue(Settings.INCREMENTAL_FEATURE_EFFECTS)) {
+            LOGGER.logWarning(Settings.INCREMENTAL_FEATURE_EFFECTS.getKey() + " is not supported by "
+                    + getClass().getSimpleName() + "; computing all feature effects");
+        }
+        config.registerSetting(Settings.FE_FORK_JOIN_THRESHOLD);
+        if (config.getValue(Settings.FE_FORK_JOIN_THRESHOLD) > 0) {
+            LOGGER.logWarning(Settings.FE_FORK_JOIN_THRESHOLD.getKey() + " is not supported by "
+                    + getClass().getSimpleName() + "; computing feature effects of single variables sequentially");
+        }
+
+        boolean simplify = helper.getSimplificationMode().ordinal() >= SimplificationType.PRESENCE_CONDITIONS.ordinal();
+        this.useBdd = helper.getFeComputationMode() == FeComputationType.BDD;
+        this.feComputer = new FeatureEffectComputer(simplify, helper.isNonBooleanReplacements(), useBdd);
+        this.singlePcComputer = new FeatureEffectComputer(true);
+        // the XOR elements only depend on whether they are simplified
+        this.shareXorTerms = simplify && !useBdd;
+
+        // the cache distinguishes simplified and not simplified XOR elements, thus both computers can use it
+        XorTermCache xorCache = XorTermCache.create(config);
+        singlePcComputer.setXorCache(xorCache);
+        feComputer.setXorCache(xorCache);
+
+        // the feature effects of single presence conditions are always simplified
+        this.simplificationCache = SimplificationCache.acquire(config);
+        singlePcComputer.setSimplificationCache(simplificationCache);
+        if (simplify) {
+            feComputer.setSimplificationCache(simplificationCache);
+        }
+    }
+
+    @Override
+    protected void execute() {
+        ProgressLogger progress = new ProgressLogger(notNull(getClass().getSimpleName()));
+
+        VariableWithPcs varPcs;
+        while ((varPcs = pcFinder.getNextResult()) != null) {
+            addResult(processSingle(varPcs));
+            progress.processedOne();
+        }
+
+        progress.close();
+
+        SimplificationCache simplificationCache = this.simplificationCache;
+        if (simplificationCache != null) {
+            simplificationCache.release();
+        }
+    }
+
+    /**
+     * Computes the feature effect and the potential parents of a single variable.
+     *
+     * @param varPcs The variable with its presence conditions.
+     *
+     * @return The feature effect (if the variable is relevant) and the potential parents of the variable.
+     */
+    private @NonNull FeatureEffectWithParents processSingle(@NonNull VariableWithPcs varPcs) {
+        String varName = varPcs.getVariable();
+        List<@NonNull Formula> xorTerms = singlePcComputer.createXorTerms(varName, varPcs.getPcs());
+
+        VariableWithPotentialParents potentialParents = new VariableWithPotentialParents(varName);
+        for (Formula xor : xorTerms) {
+            Formula singlePcFe = singlePcComputer.buildFeatureEffect(varName, notNull(Collections.singletonList(xor)));
+            PotentialParentFinder.addPotentialParents(potentialParents, singlePcFe, xorTerms.size());
+        }
+        potentialParents.sort();
+
+        VariableWithFeatureEffect featureEffect = null;
+        if (helper.isRelevant(varName)) {
+            Formula fe;
+            if (shareXorTerms) {
+                fe = feComputer.buildFeatureEffect(varName, xorTerms);
+            } else {
+                // BDDs don't need the XOR elements; otherwise, the feature effect needs not simplified XOR elements
+                fe = feComputer.buildFeatureEffefct(varPcs);
+            }
+            featureEffect = new VariableWithFeatureEffect(helper.doReplacements(varName), helper.doReplacements(fe));
+        }
+
+        return new FeatureEffectWithParents(featureEffect, potentialParents);
+    }
+
+    @Override
+    public @NonNull String getResultName() {
+        return "Feature Effects and Potential Parents";
+    }
+
+}
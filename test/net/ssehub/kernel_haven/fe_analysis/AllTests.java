@@ -38,7 +38,10 @@ import net.ssehub.kernel_haven.fe_analysis.relations.AllRelationsTests;
     AllPresenceConditionTests.class,
     AllRelationsTests.class,
     
+    BinaryFormulaFormatTest.class,
+    FormulaInternerTest.class,
     PresenceConditionAnalysisHelperTest.class,
+    SimplificationCacheTest.class,
     StringUtilsTests.class,
     })
 public class AllTests {
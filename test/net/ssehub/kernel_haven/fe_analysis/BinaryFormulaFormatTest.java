@@ -0,0 +1,175 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis;
+
+import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.and;
+import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.not;
+import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.or;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import net.ssehub.kernel_haven.util.FormatException;
+import net.ssehub.kernel_haven.util.logic.Disjunction;
+import net.ssehub.kernel_haven.util.logic.False;
+import net.ssehub.kernel_haven.util.logic.Formula;
+import net.ssehub.kernel_haven.util.logic.True;
+
+/**
+ * Tests the {@link BinaryFormulaWriter} and {@link BinaryFormulaReader}.
+ *
+ * @author agent
+ */
+public class BinaryFormulaFormatTest {
+
+    /**
+     * Tests that all formula types are written and read correctly, and that shared sub-formulas are shared after
+     * reading, too.
+     *
+     * @throws IOException unwanted.
+     * @throws FormatException unwanted.
+     */
+    @Test
+    public void testRoundTrip() throws IOException, FormatException {
+        File file = File.createTempFile("binary_formula_test", ".khb");
+        file.deleteOnExit();
+
+        Formula pc1 = and("A", or("B", not("C_eq_1")));
+        Formula pc2 = or(and("A", or("B", not("C_eq_1"))), "D");
+
+        try (BinaryFormulaWriter out = new BinaryFormulaWriter(file, BinaryFormulaWriter.KIND_PRESENCE_CONDITIONS)) {
+            out.writeRecord("A", Arrays.asList(pc1, pc2));
+            out.writeRecord("B", Arrays.asList(True.INSTANCE, False.INSTANCE));
+            out.writeRecord("\u00C4", Collections.emptyList());
+        }
+
+        try (BinaryFormulaReader in = new BinaryFormulaReader(file, BinaryFormulaWriter.KIND_PRESENCE_CONDITIONS)) {
+            assertTrue(in.next());
+            assertThat(in.getName(), is("A"));
+            assertThat(in.getFormulas(), is(Arrays.asList(pc1, pc2)));
+            // the structurally equal sub-formula is stored only once
+            Formula readPc1 = in.getFormulas().get(0);
+            Formula readPc2 = in.getFormulas().get(1);
+            assertSame(readPc1, ((Disjunction) readPc2).getLeft());
+
+            assertTrue(in.next());
+            assertThat(in.getName(), is("B"));
+            assertThat(in.getFormulas(), is(Arrays.asList(True.INSTANCE, False.INSTANCE)));
+
+            assertTrue(in.next());
+            assertThat(in.getName(), is("\u00C4"));
+            assertThat(in.getFormulas().size(), is(0));
+
+            assertFalse(in.next());
+        }
+    }
+
+    /**
+     * Tests that structurally equal formulas of different records are stored only once, even though they are
+     * different instances in memory.
+     *
+     * @throws IOException unwanted.
+     * @throws FormatException unwanted.
+     */
+    @Test
+    public void testSharedAcrossRecords() throws IOException, FormatException {
+        File file = File.createTempFile("binary_formula_test", ".khb");
+        file.deleteOnExit();
+
+        try (BinaryFormulaWriter out = new BinaryFormulaWriter(file, BinaryFormulaWriter.KIND_PRESENCE_CONDITIONS)) {
+            out.writeRecord("A", Arrays.asList(and("A", or("B", "C"))));
+            out.writeRecord("B", Arrays.asList(and("A", or("B", "C"))));
+        }
+
+        try (BinaryFormulaReader in = new BinaryFormulaReader(file, BinaryFormulaWriter.KIND_PRESENCE_CONDITIONS)) {
+            assertTrue(in.next());
+            Formula first = in.getFormulas().get(0);
+            assertTrue(in.next());
+            assertSame(first, in.getFormulas().get(0));
+            assertFalse(in.next());
+        }
+    }
+
+    /**
+     * Tests that an integer that does not fit into a non-negative <code>int</code> is rejected.
+     *
+     * @throws IOException unwanted.
+     * @throws FormatException wanted.
+     */
+    @Test(expected = FormatException.class)
+    public void testNegativeInteger() throws IOException, FormatException {
+        File file = File.createTempFile("binary_formula_test", ".khb");
+        file.deleteOnExit();
+
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        content.write(BinaryFormulaWriter.MAGIC);
+        content.write(BinaryFormulaWriter.VERSION);
+        content.write(BinaryFormulaWriter.KIND_PRESENCE_CONDITIONS);
+        content.write(BinaryFormulaWriter.ENTRY_STRING);
+        // -1 as length of the string: the fifth byte sets bit 31
+        content.write(new byte[] {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F});
+        Files.write(file.toPath(), content.toByteArray());
+
+        try (BinaryFormulaReader in = new BinaryFormulaReader(file, BinaryFormulaWriter.KIND_PRESENCE_CONDITIONS)) {
+            in.next();
+        }
+    }
+
+    /**
+     * Tests that a file with different content is rejected.
+     *
+     * @throws IOException unwanted.
+     * @throws FormatException wanted.
+     */
+    @Test(expected = FormatException.class)
+    public void testWrongKind() throws IOException, FormatException {
+        File file = File.createTempFile("binary_formula_test", ".khb");
+        file.deleteOnExit();
+
+        try (BinaryFormulaWriter out = new BinaryFormulaWriter(file, BinaryFormulaWriter.KIND_PRESENCE_CONDITIONS)) {
+            out.writeRecord("A", Arrays.asList(and("A", "B")));
+        }
+
+        new BinaryFormulaReader(file, BinaryFormulaWriter.KIND_FEATURE_EFFECTS).close();
+    }
+
+    /**
+     * Tests that a text file is rejected.
+     *
+     * @throws IOException unwanted.
+     * @throws FormatException wanted.
+     */
+    @Test(expected = FormatException.class)
+    public void testNoBinaryFile() throws IOException, FormatException {
+        File file = File.createTempFile("binary_formula_test", ".csv");
+        file.deleteOnExit();
+        Files.write(file.toPath(), "Variable;Presence Conditions\n".getBytes());
+
+        new BinaryFormulaReader(file, BinaryFormulaWriter.KIND_PRESENCE_CONDITIONS).close();
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis;
+
+import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.and;
+import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.not;
+import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.or;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.ssehub.kernel_haven.util.logic.Conjunction;
+import net.ssehub.kernel_haven.util.logic.Formula;
+import net.ssehub.kernel_haven.util.logic.True;
+
+/**
+ * Tests the {@link FormulaInterner}.
+ * @author agent
+ *
+ */
+@SuppressWarnings("null")
+public class FormulaInternerTest {
+    
+    /**
+     * Tests that structurally equal formulas are mapped to the same instance.
+     */
+    @Test
+    public void testEqualFormulasAreShared() {
+        FormulaInterner interner = new FormulaInterner();
+        
+        Formula f1 = interner.intern(and("A", or("B", not("C"))));
+        Formula f2 = interner.intern(and("A", or("B", not("C"))));
+        
+        Assert.assertSame(f1, f2);
+        Assert.assertEquals(and("A", or("B", not("C"))), f1);
+    }
+    
+    /**
+     * Tests that sub-trees of different formulas are shared, while the formulas stay distinct.
+     */
+    @Test
+    public void testSubTreesAreShared() {
+        FormulaInterner interner = new FormulaInterner();
+        
+        Conjunction f1 = (Conjunction) interner.intern(and("A", or("B", "C")));
+        Conjunction f2 = (Conjunction) interner.intern(and("D", or("B", "C")));
+        
+        Assert.assertNotSame(f1, f2);
+        Assert.assertSame(f1.getRight(), f2.getRight());
+    }
+    
+    /**
+     * Tests that constants and operand order are respected.
+     */
+    @Test
+    public void testConstantsAndOrder() {
+        FormulaInterner interner = new FormulaInterner();
+        
+        Assert.assertSame(True.INSTANCE, interner.intern(True.INSTANCE));
+        
+        Formula f1 = interner.intern(and("A", "B"));
+        Formula f2 = interner.intern(and("B", "A"));
+        Assert.assertNotSame(f1, f2);
+        Assert.assertEquals(and("B", "A"), f2);
+    }
+
+}
@@ -22,6 +22,8 @@ import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.and;
 import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.not;
 import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.or;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertThat;
 
 import java.io.File;
@@ -37,6 +39,7 @@ import net.ssehub.kernel_haven.config.Configuration;
 import net.ssehub.kernel_haven.config.DefaultSettings;
 import net.ssehub.kernel_haven.fe_analysis.Settings.SimplificationType;
 import net.ssehub.kernel_haven.test_utils.TestConfiguration;
+import net.ssehub.kernel_haven.util.logic.Conjunction;
 import net.ssehub.kernel_haven.util.logic.False;
 import net.ssehub.kernel_haven.util.logic.Formula;
 import net.ssehub.kernel_haven.util.logic.True;
@@ -184,6 +187,52 @@ public class PresenceConditionAnalysisHelperTest {
         assertThat(result, is(new HashSet<>(Arrays.asList(new Variable("A"), new Variable("B")))));
     }
     
+    /**
+     * Tests the {@link PresenceConditionAnalysisHelper#getVariables(Formula)} method without interned formulas, where
+     * no results are cached.
+     * 
+     * @throws SetUpException unwanted.
+     */
+    @Test
+    public void testGetVariablesWithoutInterning() throws SetUpException {
+        PresenceConditionAnalysisHelper helper = create("", false, NO_SIMPLIFICATION, false, false, null);
+        
+        Formula formula = or(and(not("A"), "B"), or(not("A"), and(True.INSTANCE, False.INSTANCE)));
+        Set<@NonNull Variable> result = helper.getVariables(formula);
+        assertThat(result, is(new HashSet<>(Arrays.asList(new Variable("A"), new Variable("B")))));
+        
+        // same instance: computed again
+        assertNotSame(result, helper.getVariables(formula));
+        assertThat(helper.getVariables(formula), is(result));
+    }
+    
+    /**
+     * Tests the {@link PresenceConditionAnalysisHelper#getVariables(Formula)} method with interned formulas.
+     * 
+     * @throws SetUpException unwanted.
+     */
+    @Test
+    public void testGetVariables() throws SetUpException {
+        Properties props = new Properties();
+        props.put(Settings.INTERN_FORMULAS.getKey(), "true");
+        PresenceConditionAnalysisHelperForTests.varModel = null;
+        PresenceConditionAnalysisHelper helper = new PresenceConditionAnalysisHelperForTests(
+                new TestConfiguration(props));
+        
+        Formula formula = or(and(not("A"), "B"), or(not("A"), and(True.INSTANCE, False.INSTANCE)));
+        Set<@NonNull Variable> result = helper.getVariables(formula);
+        assertThat(result, is(new HashSet<>(Arrays.asList(new Variable("A"), new Variable("B")))));
+        
+        // same instance: cached result
+        assertThat(helper.getVariables(formula), sameInstance(result));
+        
+        // equal formula, but different instance: computed again, same result
+        Formula equalFormula = or(and(not("A"), "B"), or(not("A"), and(True.INSTANCE, False.INSTANCE)));
+        assertThat(helper.getVariables(equalFormula), is(result));
+        
+        assertThat(helper.getVariables(True.INSTANCE), is(new HashSet<>()));
+    }
+    
     /**
      * Tests the {@link PresenceConditionAnalysisHelper#isRelevant(String)} method.
      * 
@@ -222,6 +271,27 @@ public class PresenceConditionAnalysisHelperTest {
         assertThat(helper.isRelevant("C_eq_1"), is(true));
     }
     
+    /**
+     * Tests that {@link PresenceConditionAnalysisHelper#isRelevant(String)} computes the relevance of each variable
+     * only once.
+     * 
+     * @throws SetUpException unwanted.
+     */
+    @Test
+    public void testRelevanceCache() throws SetUpException {
+        // relevantVarsPatter, considerVmVarsOnly, simplification, preparation, fuzzyParsing, varModel
+        PresenceConditionAnalysisHelper helper = create("CONFIG_.+", false, NO_SIMPLIFICATION, false, false, null);
+        
+        assertThat(helper.isRelevant("CONFIG_A"), is(true));
+        assertThat(helper.isRelevant("B"), is(false));
+        assertThat(helper.isRelevant("CONFIG_A"), is(true));
+        assertThat(helper.isRelevant("B"), is(false));
+        assertThat(helper.isRelevant(or("B", "CONFIG_A")), is(true));
+        
+        assertThat(helper.getRelevanceCacheMisses(), is(2L));
+        assertThat(helper.getRelevanceCacheHits(), is(4L));
+    }
+    
     /**
      * Tests the {@link PresenceConditionAnalysisHelper#isRelevant(Formula)} method.
      * 
@@ -346,4 +416,38 @@ public class PresenceConditionAnalysisHelperTest {
                 is(and(or("A", False.INSTANCE), not(and("B", True.INSTANCE)))));
     }
     
+    /**
+     * Tests that {@link PresenceConditionAnalysisHelper#doReplacements(Formula)} and
+     * {@link PresenceConditionAnalysisHelper#removeReplacements(Formula)} do not copy sub-formulas without
+     * replacements.
+     * 
+     * @throws SetUpException unwanted.
+     */
+    @Test
+    public void testReplacementsKeepUnchangedInstances() throws SetUpException {
+        // relevantVarsPatter, considerVmVarsOnly, simplification, preparation, fuzzyParsing, varModel
+        
+        PresenceConditionAnalysisHelper helper = create(".*", false, NO_SIMPLIFICATION, false, true, null);
+        
+        Formula unchanged = and(or("A", False.INSTANCE), not(and("B_x_1", True.INSTANCE)));
+        assertThat(helper.doReplacements(unchanged), sameInstance(unchanged));
+        assertThat(helper.removeReplacements(unchanged), sameInstance(unchanged));
+        
+        // only the path to the changed variable is copied
+        Formula right = not(and("B", True.INSTANCE));
+        Formula partial = and(or("A_eq_1", False.INSTANCE), right);
+        Formula replaced = helper.doReplacements(partial);
+        assertThat(replaced, is(and(or("A=1", False.INSTANCE), not(and("B", True.INSTANCE)))));
+        assertThat(((Conjunction) replaced).getRight(), sameInstance(right));
+        
+        Formula removed = helper.removeReplacements(partial);
+        assertThat(removed, is(and(or("A", False.INSTANCE), not(and("B", True.INSTANCE)))));
+        assertThat(((Conjunction) removed).getRight(), sameInstance(right));
+        
+        // repeated calls give the same (memoized) result
+        assertThat(helper.removeReplacements(partial), is(removed));
+        assertThat(helper.doReplacements("A_eq_1 || B_le_2"), is("A=1 || B<=2"));
+        assertThat(helper.removeReplacements("A_eq_1"), is("A"));
+    }
+    
 }
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis;
+
+import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.and;
+import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.not;
+import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.or;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Properties;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.ssehub.kernel_haven.SetUpException;
+import net.ssehub.kernel_haven.config.DefaultSettings;
+import net.ssehub.kernel_haven.test_utils.TestConfiguration;
+import net.ssehub.kernel_haven.util.logic.Formula;
+import net.ssehub.kernel_haven.util.logic.FormulaSimplifier;
+
+/**
+ * Tests the {@link SimplificationCache}.
+ * @author agent
+ *
+ */
+@SuppressWarnings("null")
+public class SimplificationCacheTest {
+    
+    /**
+     * Tests that the cache is disabled by default.
+     * 
+     * @throws SetUpException unwanted.
+     */
+    @Test
+    public void testDisabledByDefault() throws SetUpException {
+        Assert.assertNull(SimplificationCache.acquire(new TestConfiguration(new Properties())));
+    }
+    
+    /**
+     * Tests that simplified formulas are stored on disk and re-used by a later run.
+     * 
+     * @throws SetUpException unwanted.
+     * @throws IOException unwanted.
+     */
+    @Test
+    public void testReusedAcrossRuns() throws SetUpException, IOException {
+        File cacheDir = Files.createTempDirectory("simplification_cache").toFile();
+        try {
+            Formula formula = or(and("A", "B"), and("A", not("B")));
+            
+            // first run: simplify from scratch
+            SimplificationCache cache = SimplificationCache.acquire(createConfig(cacheDir));
+            Formula first = cache.simplify(formula);
+            Assert.assertEquals(FormulaSimplifier.simplify(formula), first);
+            Assert.assertEquals(0, cache.getHits());
+            Assert.assertEquals(1, cache.getMisses());
+            cache.release();
+            
+            // second run with a new configuration: load from disk
+            cache = SimplificationCache.acquire(createConfig(cacheDir));
+            Formula second = cache.simplify(or(and("A", "B"), and("A", not("B"))));
+            Assert.assertEquals(first, second);
+            Assert.assertEquals(1, cache.getHits());
+            Assert.assertEquals(0, cache.getMisses());
+            cache.release();
+            
+        } finally {
+            delete(cacheDir);
+        }
+    }
+    
+    /**
+     * Tests that a cache file written with a different simplifier is discarded.
+     * 
+     * @throws SetUpException unwanted.
+     * @throws IOException unwanted.
+     */
+    @Test
+    public void testDifferentSimplifierDiscarded() throws SetUpException, IOException {
+        File cacheDir = Files.createTempDirectory("simplification_cache").toFile();
+        try {
+            Formula formula = or(and("A", "B"), and("A", not("B")));
+            
+            SimplificationCache cache = SimplificationCache.acquire(createConfig(cacheDir));
+            cache.simplify(formula);
+            cache.release();
+            
+            // a second run with an additional preparation, which may register a different simplifier
+            TestConfiguration config = createConfig(cacheDir);
+            config.registerSetting(DefaultSettings.PREPARATION_CLASSES);
+            config.setValue(DefaultSettings.PREPARATION_CLASSES, Arrays.asList("some.SimplifierPreparation"));
+            
+            cache = SimplificationCache.acquire(config);
+            cache.simplify(formula);
+            Assert.assertEquals(0, cache.getHits());
+            Assert.assertEquals(1, cache.getMisses());
+            cache.release();
+            
+        } finally {
+            delete(cacheDir);
+        }
+    }
+    
+    /**
+     * Tests that the simplifier is identified by the configured preparations.
+     * 
+     * @throws SetUpException unwanted.
+     */
+    @Test
+    public void testSimplifierId() throws SetUpException {
+        TestConfiguration config = new TestConfiguration(new Properties());
+        String withoutPreparation = SimplificationCache.getSimplifierId(config);
+        Assert.assertTrue(withoutPreparation.startsWith(FormulaSimplifier.class.getName()));
+        
+        config.setValue(DefaultSettings.PREPARATION_CLASSES, Arrays.asList("some.SimplifierPreparation"));
+        String withPreparation = SimplificationCache.getSimplifierId(config);
+        Assert.assertEquals(withoutPreparation + ", some.SimplifierPreparation", withPreparation);
+    }
+    
+    /**
+     * Tests that all components of the same configuration share one cache.
+     * 
+     * @throws SetUpException unwanted.
+     * @throws IOException unwanted.
+     */
+    @Test
+    public void testShared() throws SetUpException, IOException {
+        File cacheDir = Files.createTempDirectory("simplification_cache").toFile();
+        try {
+            TestConfiguration config = createConfig(cacheDir);
+            SimplificationCache cache1 = SimplificationCache.acquire(config);
+            SimplificationCache cache2 = SimplificationCache.acquire(config);
+            Assert.assertSame(cache1, cache2);
+            
+            cache1.release();
+            cache2.release();
+            
+        } finally {
+            delete(cacheDir);
+        }
+    }
+    
+    /**
+     * Deletes the given (flat) directory.
+     * 
+     * @param dir The directory to delete.
+     */
+    private static void delete(File dir) {
+        for (File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+    }
+    
+    /**
+     * Creates a configuration with an enabled cache.
+     * 
+     * @param cacheDir The cache directory.
+     * 
+     * @return The configuration.
+     * 
+     * @throws SetUpException unwanted.
+     */
+    private static TestConfiguration createConfig(File cacheDir) throws SetUpException {
+        Properties props = new Properties();
+        props.setProperty(Settings.SIMPLIFICATION_CACHE_SIZE.getKey(), "10");
+        props.setProperty(DefaultSettings.CACHE_DIR.getKey(), cacheDir.getAbsolutePath());
+        return new TestConfiguration(props);
+    }
+    
+}
@@ -30,6 +30,10 @@ import org.junit.runners.Suite.SuiteClasses;
     FeatureEffectReaderTest.class,
     ThreadedFeatureEffectFinderTest.class,
     NonBooleanFeExpanderTest.class,
+    CofactorComputerTest.class,
+    FeatureEffectComputerTest.class,
+    XorTermCacheTest.class,
+    IncrementalFeatureEffectStoreTest.class,
     
     // Simplification & FEAggregation Tests
     FeatureEffectFinderWithSimplificationTests.class,
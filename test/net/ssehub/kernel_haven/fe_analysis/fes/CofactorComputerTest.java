@@ -0,0 +1,89 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis.fes;
+
+import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.and;
+import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.not;
+import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.or;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import net.ssehub.kernel_haven.util.logic.Disjunction;
+import net.ssehub.kernel_haven.util.logic.False;
+import net.ssehub.kernel_haven.util.logic.Formula;
+import net.ssehub.kernel_haven.util.logic.True;
+import net.ssehub.kernel_haven.util.logic.Variable;
+
+/**
+ * Tests the {@link CofactorComputer}.
+ *
+ * @author agent
+ */
+public class CofactorComputerTest {
+
+    /**
+     * Tests that <code>null</code> is returned if the variable does not occur in the formula.
+     */
+    @Test
+    public void testVariableNotContained() {
+        assertNull(CofactorComputer.computeCofactors(or("B", and("C", not("D"))), "A"));
+        assertNull(CofactorComputer.computeCofactors(True.INSTANCE, "A"));
+    }
+
+    /**
+     * Tests the cofactors of a formula where constants have to be removed.
+     */
+    @Test
+    public void testConstantRemoval() {
+        // A || (B && !A)
+        Formula[] cofactors = CofactorComputer.computeCofactors(or("A", and("B", not("A"))), "A");
+
+        assertSame(True.INSTANCE, cofactors[0]);
+        assertEquals(new Variable("B"), cofactors[1]);
+
+        // !(A && B)
+        cofactors = CofactorComputer.computeCofactors(not(and("A", "B")), "A");
+
+        assertEquals(not("B"), cofactors[0]);
+        assertSame(True.INSTANCE, cofactors[1]);
+
+        // A && !A
+        cofactors = CofactorComputer.computeCofactors(and("A", not("A")), "A");
+
+        assertSame(False.INSTANCE, cofactors[0]);
+        assertSame(False.INSTANCE, cofactors[1]);
+    }
+
+    /**
+     * Tests that sub-trees without the variable are shared with the original formula.
+     */
+    @Test
+    public void testSubTreesAreShared() {
+        Formula unrelated = or("B", not("C"));
+        Formula other = and("D", "E");
+        // (A && (B || !C)) || (D && E)
+        Formula[] cofactors = CofactorComputer.computeCofactors(or(and("A", unrelated), other), "A");
+
+        assertEquals(or(unrelated, other), cofactors[0]);
+        assertSame(unrelated, ((Disjunction) cofactors[0]).getLeft());
+        assertSame(other, ((Disjunction) cofactors[0]).getRight());
+        assertSame(other, cofactors[1]);
+    }
+
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis.fes;
+
+import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.and;
+import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.not;
+import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.or;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import net.ssehub.kernel_haven.fe_analysis.pcs.PcFinder.VariableWithPcs;
+import net.ssehub.kernel_haven.util.logic.Conjunction;
+import net.ssehub.kernel_haven.util.logic.Disjunction;
+import net.ssehub.kernel_haven.util.logic.Formula;
+import net.ssehub.kernel_haven.util.logic.Negation;
+import net.ssehub.kernel_haven.util.logic.True;
+import net.ssehub.kernel_haven.util.logic.Variable;
+import net.ssehub.kernel_haven.util.null_checks.NonNull;
+
+/**
+ * Tests the {@link FeatureEffectComputer}.
+ *
+ * @author agent
+ */
+public class FeatureEffectComputerTest {
+
+    private static final @NonNull String @NonNull [] VARIABLES = {"A", "B", "C"};
+
+    /**
+     * Tests that the fast path for presence conditions of a simple structure creates feature effects that are
+     * equivalent to the ones of the generic path via cofactors.
+     */
+    @Test
+    @SuppressWarnings("null")
+    public void testSimpleXorEquivalentToGenericXor() {
+        Formula[] pcs = {
+            new Variable("A"),
+            not("A"),
+            and(and("A", "B"), not("C")),
+            and(not("A"), "B"),
+            and("B", and("C", "A")),
+            or(or("A", "B"), not("C")),
+            or(not("A"), "B"),
+            or("B", or("C", not("A"))),
+            and(and("A", not("A")), "B"),
+            or(or("A", "B"), not("A")),
+            and("B", "C"),
+            or("B", not("C")),
+        };
+
+        FeatureEffectComputer fast = new FeatureEffectComputer(false);
+        FeatureEffectComputer generic = new FeatureEffectComputer(false);
+        generic.setSimpleXorEnabled(false);
+
+        for (Formula pc : pcs) {
+            for (String variable : VARIABLES) {
+                Formula fastFe = fast.buildFeatureEffect(variable,
+                        fast.createXorTerms(variable, Collections.singletonList(pc)));
+                Formula genericFe = generic.buildFeatureEffect(variable,
+                        generic.createXorTerms(variable, Collections.singletonList(pc)));
+
+                assertEquivalent("FE of " + variable + " for " + pc, VARIABLES, genericFe, fastFe);
+            }
+        }
+    }
+
+    /**
+     * Tests that the BDD computation creates feature effects that are equivalent to the ones of the formula
+     * computation and not larger than them, if the BDD shares sub-graphs. The BDD of
+     * <code>(B || C) &amp;&amp; (D || E) &amp;&amp; (F || G)</code> shares the nodes of D and F; expanding the nested
+     * if-then-else structure of these nodes would repeat them.
+     */
+    @Test
+    @SuppressWarnings("null")
+    public void testBddEquivalentToFormula() {
+        String[] variables = {"A", "B", "C", "D", "E", "F", "G"};
+        Set<@NonNull Formula> pcs = new LinkedHashSet<>();
+        pcs.add(and("A", and(or("B", "C"), and(or("D", "E"), or("F", "G")))));
+        pcs.add(and("A", and("B", and("D", "F"))));
+        VariableWithPcs varWithPcs = new VariableWithPcs("A", pcs);
+
+        for (boolean simplify : new boolean[] {false, true}) {
+            Formula formulaFe = new FeatureEffectComputer(simplify, false, false).buildFeatureEffefct(varWithPcs);
+            Formula bddFe = new FeatureEffectComputer(simplify, false, true).buildFeatureEffefct(varWithPcs);
+
+            assertEquivalent("FE of A (simplify=" + simplify + ")", variables, formulaFe, bddFe);
+            assertTrue(bddFe + " is larger than " + formulaFe, countLiterals(bddFe) <= countLiterals(formulaFe));
+        }
+    }
+
+    /**
+     * Asserts that two formulas have the same truth table.
+     *
+     * @param message The message to show if the formulas are not equivalent.
+     * @param variables The variables of the formulas.
+     * @param expected The expected formula.
+     * @param actual The actual formula.
+     */
+    private static void assertEquivalent(String message, String[] variables, Formula expected, Formula actual) {
+        Map<String, Boolean> values = new HashMap<>();
+        for (int assignment = 0; assignment < (1 << variables.length); assignment++) {
+            for (int i = 0; i < variables.length; i++) {
+                values.put(variables[i], (assignment & (1 << i)) != 0);
+            }
+            assertEquals(message + " with " + values + ": " + expected + " vs. " + actual,
+                    evaluate(expected, values), evaluate(actual, values));
+        }
+    }
+
+    /**
+     * Counts the literals of a formula, as if it was written as a tree (i.e. shared sub-formulas are counted for
+     * each occurrence).
+     *
+     * @param formula The formula to count the literals of.
+     *
+     * @return The number of literals.
+     */
+    private static int countLiterals(Formula formula) {
+        int result;
+        if (formula instanceof Variable) {
+            result = 1;
+        } else if (formula instanceof Negation) {
+            result = countLiterals(((Negation) formula).getFormula());
+        } else if (formula instanceof Conjunction) {
+            Conjunction conjunction = (Conjunction) formula;
+            result = countLiterals(conjunction.getLeft()) + countLiterals(conjunction.getRight());
+        } else if (formula instanceof Disjunction) {
+            Disjunction disjunction = (Disjunction) formula;
+            result = countLiterals(disjunction.getLeft()) + countLiterals(disjunction.getRight());
+        } else {
+            result = 0;
+        }
+        return result;
+    }
+
+    /**
+     * Evaluates a formula for the given values of its variables.
+     *
+     * @param formula The formula to evaluate.
+     * @param values The values of the variables.
+     *
+     * @return The value of the formula.
+     */
+    private static boolean evaluate(Formula formula, Map<String, Boolean> values) {
+        boolean result;
+        if (formula instanceof Variable) {
+            result = values.get(((Variable) formula).getName());
+        } else if (formula instanceof Negation) {
+            result = !evaluate(((Negation) formula).getFormula(), values);
+        } else if (formula instanceof Conjunction) {
+            Conjunction conjunction = (Conjunction) formula;
+            result = evaluate(conjunction.getLeft(), values) && evaluate(conjunction.getRight(), values);
+        } else if (formula instanceof Disjunction) {
+            Disjunction disjunction = (Disjunction) formula;
+            result = evaluate(disjunction.getLeft(), values) || evaluate(disjunction.getRight(), values);
+        } else {
+            result = formula instanceof True;
+        }
+        return result;
+    }
+
+}
@@ -17,9 +17,11 @@ package net.ssehub.kernel_haven.fe_analysis.fes;
 
 import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.and;
 import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.not;
+import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.or;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 
+import java.io.File;
 import java.util.List;
 import java.util.Properties;
 
@@ -28,15 +30,20 @@ import org.junit.Test;
 
 import net.ssehub.kernel_haven.SetUpException;
 import net.ssehub.kernel_haven.analysis.AnalysisComponent;
+import net.ssehub.kernel_haven.analysis.SplitComponent;
 import net.ssehub.kernel_haven.code_model.CodeBlock;
 import net.ssehub.kernel_haven.code_model.CodeElement;
 import net.ssehub.kernel_haven.code_model.SourceFile;
 import net.ssehub.kernel_haven.config.DefaultSettings;
 import net.ssehub.kernel_haven.fe_analysis.AbstractFinderTests;
 import net.ssehub.kernel_haven.fe_analysis.Settings;
+import net.ssehub.kernel_haven.fe_analysis.Settings.FeComputationType;
 import net.ssehub.kernel_haven.fe_analysis.Settings.SimplificationType;
 import net.ssehub.kernel_haven.fe_analysis.fes.FeatureEffectFinder.VariableWithFeatureEffect;
 import net.ssehub.kernel_haven.fe_analysis.pcs.PcFinder;
+import net.ssehub.kernel_haven.fe_analysis.pcs.PcFinder.VariableWithPcs;
+import net.ssehub.kernel_haven.fe_analysis.relations.PotentialParentFinder;
+import net.ssehub.kernel_haven.test_utils.TestAnalysisComponentProvider;
 import net.ssehub.kernel_haven.test_utils.TestConfiguration;
 import net.ssehub.kernel_haven.util.logic.Conjunction;
 import net.ssehub.kernel_haven.util.logic.Disjunction;
@@ -221,6 +228,161 @@ public class FeatureEffectFinderTests extends AbstractFinderTests<VariableWithFe
         assertThat(results.size(), is(2));
     }
 
+    /**
+     * Tests feature effects of pure disjunctions and conjunctions of literals.
+     */
+    @Test
+    public void testSimpleConditionStructures() {
+        CodeBlock base = new CodeBlock(True.INSTANCE);
+        base.addNestedElement(new CodeBlock(or("A", "B")));
+        base.addNestedElement(new CodeBlock(and(not("C"), "D")));
+        
+        List<VariableWithFeatureEffect> results = detectFEs(base);
+        
+        // A || B -> !B
+        assertThat(results.get(0).getVariable(), is("A"));
+        assertThat(results.get(0).getFeatureEffect(), is(not("B")));
+        // A || B -> !A
+        assertThat(results.get(1).getVariable(), is("B"));
+        assertThat(results.get(1).getFeatureEffect(), is(not("A")));
+        // !C && D -> D
+        assertThat(results.get(2).getVariable(), is("C"));
+        assertThat(results.get(2).getFeatureEffect(), is(new Variable("D")));
+        // !C && D -> !C
+        assertThat(results.get(3).getVariable(), is("D"));
+        assertThat(results.get(3).getFeatureEffect(), is(not("C")));
+        
+        assertThat(results.size(), is(4));
+    }
+    
+    /**
+     * Tests that the BDD-based computation creates canonical feature effects.
+     */
+    @Test
+    public void testBddComputation() {
+        Properties config = new Properties();
+        config.setProperty(Settings.FE_COMPUTATION.getKey(), FeComputationType.BDD.name());
+        
+        List<VariableWithFeatureEffect> results = detectFEs(createNestedBlocks(), config);
+        
+        // B -> (A || !A) <-> TRUE
+        assertNestedBlocksResults(results, True.INSTANCE);
+    }
+
+    /**
+     * Tests that the feature effects do not change if XOR terms are cached (and PCs are interned, so that the cache
+     * can actually be hit).
+     */
+    @Test
+    public void testXorCache() {
+        Properties config = new Properties();
+        config.setProperty(Settings.XOR_CACHE_SIZE.getKey(), "100");
+        config.setProperty(Settings.INTERN_FORMULAS.getKey(), "true");
+        
+        List<VariableWithFeatureEffect> results = detectFEs(createNestedBlocks(), config);
+        
+        // B -> (A || !A)
+        assertNestedBlocksResults(results, or("A", not("A")));
+    }
+    
+    /**
+     * Tests that a {@link FeatureEffectFinder} and a {@link PotentialParentFinder}, which get the same cache passed by
+     * the pipeline, share the cached XOR terms. Only terms of presence conditions without a simple structure are
+     * cached, thus the presence condition is not just a conjunction of literals.
+     * 
+     * @throws SetUpException unwanted.
+     */
+    @Test
+    @SuppressWarnings("null")
+    public void testXorCacheSharedWithPotentialParentFinder() throws SetUpException {
+        Properties props = new Properties();
+        props.setProperty(Settings.XOR_CACHE_SIZE.getKey(), "100");
+        // the PotentialParentFinder always simplifies, terms are only shared between simplifying computers
+        props.setProperty(Settings.SIMPLIFIY.getKey(), SimplificationType.FEATURE_EFFECTS.name());
+        TestConfiguration config = new TestConfiguration(props);
+        
+        CodeBlock element = new CodeBlock(True.INSTANCE);
+        element.addNestedElement(new CodeBlock(and(or("A", "B"), "C")));
+        SourceFile<CodeElement<?>> sourceFile = new SourceFile<>(new File("file1.c"));
+        sourceFile.addElement(element);
+        PcFinder pcFinder = new PcFinder(config, new TestAnalysisComponentProvider<SourceFile<?>>(sourceFile));
+        SplitComponent<VariableWithPcs> split = new SplitComponent<>(config, pcFinder);
+        XorTermCache xorCache = XorTermCache.create(config);
+        FeatureEffectFinder feFinder = new FeatureEffectFinder(config, split.createOutputComponent(), xorCache);
+        PotentialParentFinder ppFinder = new PotentialParentFinder(config, split.createOutputComponent(), xorCache);
+        
+        int numFes = 0;
+        while (feFinder.getNextResult() != null) {
+            numFes++;
+        }
+        int numParents = 0;
+        while (ppFinder.getNextResult() != null) {
+            numParents++;
+        }
+        
+        // A, B and C
+        assertThat(numFes, is(3));
+        assertThat(numParents, is(3));
+        assertThat(xorCache.getHits() > 0, is(true));
+    }
+
+    /**
+     * Tests that the feature effects do not change if the presence conditions of a variable are split into chunks
+     * that are processed in parallel.
+     */
+    @Test
+    public void testForkJoin() {
+        Properties config = new Properties();
+        // A has 5 and B has 2 presence conditions: split until each task processes a single presence condition
+        config.setProperty(Settings.FE_FORK_JOIN_THRESHOLD.getKey(), "1");
+        
+        List<VariableWithFeatureEffect> results = detectFEs(createNestedBlocks(), config);
+        
+        // B -> (A || !A)
+        assertNestedBlocksResults(results, or("A", not("A")));
+    }
+
+    /**
+     * Creates the code blocks used by several tests:
+     * <code>A { B &amp;&amp; A }</code> and <code>!A { B &amp;&amp; !A; C &amp;&amp; !A }</code>.
+     * 
+     * @return The top-level code block.
+     */
+    private static CodeBlock createNestedBlocks() {
+        Variable varA = new Variable("A");
+        Variable varB = new Variable("B");
+        Variable varC = new Variable("C");
+        Formula notA = new Negation(varA);
+        CodeBlock element1 = new CodeBlock(varA);
+        element1.addNestedElement(new CodeBlock(new Conjunction(varB, varA)));
+        CodeBlock element2 = new CodeBlock(notA);
+        element2.addNestedElement(new CodeBlock(new Conjunction(varB, notA)));
+        element2.addNestedElement(new CodeBlock(new Conjunction(varC, notA)));
+        CodeBlock element = new CodeBlock(True.INSTANCE);
+        element.addNestedElement(element1);
+        element.addNestedElement(element2);
+        return element;
+    }
+    
+    /**
+     * Checks the feature effects computed for {@link #createNestedBlocks()}.
+     * 
+     * @param results The detected feature effects.
+     * @param expectedFeOfB The expected feature effect of B, which depends on whether <code>A || !A</code> is
+     *     detected as a tautology.
+     */
+    private static void assertNestedBlocksResults(List<VariableWithFeatureEffect> results, Formula expectedFeOfB) {
+        assertThat(results.get(0).getVariable(), is("A"));
+        assertThat(results.get(0).getFeatureEffect(), is(True.INSTANCE));
+        assertThat(results.get(1).getVariable(), is("B"));
+        assertThat(results.get(1).getFeatureEffect(), is(expectedFeOfB));
+        // C -> !A
+        assertThat(results.get(2).getVariable(), is("C"));
+        assertThat(results.get(2).getFeatureEffect(), is(not("A")));
+        
+        assertThat(results.size(), is(3));
+    }
+    
     /**
      * Runs the {@link FeatureEffectFinder} on the passed element and returns the result for testing.
      * @param element A mocked element, which should be analyzed by the {@link FeatureEffectFinder}. 
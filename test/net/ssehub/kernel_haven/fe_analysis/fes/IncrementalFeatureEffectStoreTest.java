@@ -0,0 +1,146 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis.fes;
+
+import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.and;
+import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.or;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import net.ssehub.kernel_haven.SetUpException;
+import net.ssehub.kernel_haven.analysis.AnalysisComponent;
+import net.ssehub.kernel_haven.config.DefaultSettings;
+import net.ssehub.kernel_haven.fe_analysis.Settings;
+import net.ssehub.kernel_haven.fe_analysis.pcs.PcFinder;
+import net.ssehub.kernel_haven.fe_analysis.pcs.PcFinder.VariableWithPcs;
+import net.ssehub.kernel_haven.test_utils.TestAnalysisComponentProvider;
+import net.ssehub.kernel_haven.test_utils.TestConfiguration;
+import net.ssehub.kernel_haven.util.logic.Formula;
+
+/**
+ * Tests the {@link IncrementalFeatureEffectStore}.
+ *
+ * @author agent
+ */
+@SuppressWarnings("null")
+public class IncrementalFeatureEffectStoreTest {
+
+    /**
+     * Tests that the fingerprint of the presence conditions does not depend on their order.
+     */
+    @Test
+    public void testHashIsOrderIndependent() {
+        VariableWithPcs pcs1 = new VariableWithPcs("A", new LinkedHashSet<>(Arrays.asList(
+                and("A", "B"), or("A", "C"))));
+        VariableWithPcs pcs2 = new VariableWithPcs("A", new LinkedHashSet<>(Arrays.asList(
+                or("A", "C"), and("A", "B"))));
+
+        assertThat(IncrementalFeatureEffectStore.hashPcs(pcs1), is(IncrementalFeatureEffectStore.hashPcs(pcs2)));
+    }
+
+    /**
+     * Tests that stored feature effects are only re-used if the presence conditions and the configuration did not
+     * change.
+     *
+     * @throws IOException unwanted.
+     */
+    @Test
+    public void testReuse() throws IOException {
+        File file = File.createTempFile("incremental_fes", ".txt");
+        file.delete();
+        try {
+            String unchanged = IncrementalFeatureEffectStore.hashPcs(
+                    new VariableWithPcs("A", new HashSet<>(Arrays.asList(and("A", "B")))));
+            String changed = IncrementalFeatureEffectStore.hashPcs(
+                    new VariableWithPcs("A", new HashSet<>(Arrays.asList(and("A", "C")))));
+            Formula fe = or("B", "C");
+
+            IncrementalFeatureEffectStore store = new IncrementalFeatureEffectStore(file, "config");
+            assertNull(store.getFeatureEffect("A", unchanged));
+            store.putFeatureEffect("A", unchanged, fe);
+            store.save();
+
+            store = new IncrementalFeatureEffectStore(file, "config");
+            assertThat(store.getFeatureEffect("A", unchanged), is(fe));
+            assertNull(store.getFeatureEffect("A", changed));
+            assertNull(store.getFeatureEffect("B", unchanged));
+            assertThat(store.getNumReused(), is(1));
+
+            store = new IncrementalFeatureEffectStore(file, "other config");
+            assertNull(store.getFeatureEffect("A", unchanged));
+
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Tests that the store of a finder is identified by its input components, so that the same finder in a later run
+     * finds its store again, while finders with different inputs don't share a store.
+     *
+     * @throws SetUpException unwanted.
+     */
+    @Test
+    public void testStoreFilePerInput() throws SetUpException {
+        Properties props = new Properties();
+        props.setProperty(DefaultSettings.CACHE_DIR.getKey(), System.getProperty("java.io.tmpdir"));
+
+        TestConfiguration config = new TestConfiguration(props);
+        AnalysisComponent<VariableWithPcs> reader = new TestAnalysisComponentProvider<>();
+        AnalysisComponent<VariableWithPcs> pcFinder = new PcFinder(config, new TestAnalysisComponentProvider<>());
+        File first = FeatureEffectFinder.getIncrementalStoreFile(config, reader);
+        File second = FeatureEffectFinder.getIncrementalStoreFile(config, pcFinder);
+        assertThat(first.equals(second), is(false));
+        assertThat(FeatureEffectFinder.getIncrementalStoreFile(config, reader), is(first));
+
+        TestConfiguration nextRun = new TestConfiguration(props);
+        AnalysisComponent<VariableWithPcs> nextPcFinder = new PcFinder(nextRun, new TestAnalysisComponentProvider<>());
+        assertThat(FeatureEffectFinder.getIncrementalStoreFile(nextRun, new TestAnalysisComponentProvider<>()),
+                is(first));
+        assertThat(FeatureEffectFinder.getIncrementalStoreFile(nextRun, nextPcFinder), is(second));
+    }
+
+    /**
+     * Tests that the name of the store can be configured explicitly.
+     *
+     * @throws SetUpException unwanted.
+     */
+    @Test
+    public void testExplicitStoreName() throws SetUpException {
+        Properties props = new Properties();
+        props.setProperty(DefaultSettings.CACHE_DIR.getKey(), System.getProperty("java.io.tmpdir"));
+        File derived = FeatureEffectFinder.getIncrementalStoreFile(new TestConfiguration(props),
+                new TestAnalysisComponentProvider<>());
+
+        props.setProperty(Settings.INCREMENTAL_STORE.getKey(), "linux");
+        TestConfiguration config = new TestConfiguration(props);
+        File explicit = FeatureEffectFinder.getIncrementalStoreFile(config, new TestAnalysisComponentProvider<>());
+        assertThat(explicit.equals(derived), is(false));
+        assertThat(FeatureEffectFinder.getIncrementalStoreFile(config,
+                new PcFinder(config, new TestAnalysisComponentProvider<>())), is(explicit));
+    }
+
+}
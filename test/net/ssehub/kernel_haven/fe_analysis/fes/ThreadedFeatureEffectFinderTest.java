@@ -19,6 +19,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 
 import java.util.List;
+import java.util.Properties;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -115,6 +116,35 @@ public class ThreadedFeatureEffectFinderTest extends AbstractFinderTests<Variabl
         
     }
     
+    /**
+     * Checks that the results are passed on in the correct order, if expensive variables are scheduled first.
+     */
+    @Test
+    public void testCostAwareSchedulingKeepsOrder() {
+        final int minElement = 10;
+        final int maxElement = 18;
+        
+        CodeBlock topLevelElement = new CodeBlock(True.INSTANCE);
+        Formula pc = True.INSTANCE;
+        // do higher elements first -> lower elements have more (and larger) PCs and are scheduled first
+        for (int i = maxElement; i >= minElement; i--) {
+            pc = new Conjunction(pc, new Disjunction(new Variable("VAR_" + i), new Negation(new Variable("X"))));
+            topLevelElement.addNestedElement(new CodeBlock(pc));
+        }
+        
+        Properties config = new Properties();
+        config.setProperty(ThreadedFeatureEffectFinder.COST_AWARE_SCHEDULING_SETTING.getKey(), "true");
+        List<VariableWithFeatureEffect> results = super.runAnalysis(topLevelElement,
+                SimplificationType.FEATURE_EFFECTS, config);
+        
+        int index = 0;
+        for (int i = minElement; i <= maxElement; i++) {
+            assertThat(results.get(index++).getVariable(), is("VAR_" + i));
+        }
+        assertThat(results.get(index++).getVariable(), is("X"));
+        assertThat(results.size(), is(index));
+    }
+    
     /**
      * Runs the {@link ThreadedFeatureEffectFinder} on the passed element and returns the result for testing.
      * @param element A mocked element, which should be analyzed by the {@link ThreadedFeatureEffectFinder}.
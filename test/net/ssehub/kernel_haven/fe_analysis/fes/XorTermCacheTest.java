@@ -0,0 +1,116 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis.fes;
+
+import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.and;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+
+import java.util.Properties;
+
+import org.junit.Test;
+
+import net.ssehub.kernel_haven.SetUpException;
+import net.ssehub.kernel_haven.fe_analysis.Settings;
+import net.ssehub.kernel_haven.test_utils.TestConfiguration;
+import net.ssehub.kernel_haven.util.logic.Formula;
+import net.ssehub.kernel_haven.util.logic.Variable;
+
+/**
+ * Tests the {@link XorTermCache}.
+ *
+ * @author agent
+ */
+public class XorTermCacheTest {
+
+    /**
+     * Tests that terms are found by PC identity, variable and simplification flag.
+     */
+    @Test
+    public void testLookup() {
+        XorTermCache cache = new XorTermCache(10);
+        Formula pc = and("A", "B");
+        Formula xor = new Variable("B");
+
+        cache.put(pc, "A", false, xor);
+
+        assertSame(xor, cache.get(pc, "A", false));
+        assertNull(cache.get(pc, "A", true));
+        assertNull(cache.get(pc, "B", false));
+        // structurally equal, but a different instance
+        assertNull(cache.get(and("A", "B"), "A", false));
+
+        assertThat(cache.getHits(), is(1L));
+        assertThat(cache.getMisses(), is(3L));
+    }
+
+    /**
+     * Tests that the least recently used term is evicted if the cache is full.
+     */
+    @Test
+    public void testEviction() {
+        XorTermCache cache = new XorTermCache(2);
+        Formula pc1 = new Variable("A");
+        Formula pc2 = new Variable("B");
+        Formula pc3 = new Variable("C");
+
+        cache.put(pc1, "X", false, pc1);
+        cache.put(pc2, "X", false, pc2);
+        cache.get(pc1, "X", false); // pc2 is now the least recently used
+        cache.put(pc3, "X", false, pc3);
+
+        assertThat(cache.size(), is(2));
+        assertSame(pc1, cache.get(pc1, "X", false));
+        assertNull(cache.get(pc2, "X", false));
+        assertSame(pc3, cache.get(pc3, "X", false));
+    }
+
+    /**
+     * Tests that each call creates a new cache, and that caching is disabled by default.
+     *
+     * @throws SetUpException unwanted.
+     */
+    @Test
+    public void testCreate() throws SetUpException {
+        assertNull(XorTermCache.create(new TestConfiguration(new Properties())));
+
+        Properties props = new Properties();
+        props.setProperty(Settings.XOR_CACHE_SIZE.getKey(), "5");
+        TestConfiguration config = new TestConfiguration(props);
+
+        XorTermCache cache = XorTermCache.create(config);
+        assertNotNull(cache);
+        assertNotSame(cache, XorTermCache.create(config));
+    }
+
+    /**
+     * Tests that a negative cache size is rejected.
+     *
+     * @throws SetUpException wanted.
+     */
+    @Test(expected = SetUpException.class)
+    public void testNegativeSize() throws SetUpException {
+        Properties props = new Properties();
+        props.setProperty(Settings.XOR_CACHE_SIZE.getKey(), "-1");
+
+        XorTermCache.create(new TestConfiguration(props));
+    }
+
+}
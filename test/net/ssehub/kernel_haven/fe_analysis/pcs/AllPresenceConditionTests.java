@@ -27,7 +27,10 @@ import org.junit.runners.Suite.SuiteClasses;
 @RunWith(Suite.class)
 @SuiteClasses({
     CodeBlockAnalysisTests.class,
+    CodeBlockIndexTest.class,
+    CompactPcStoreTest.class,
     PcFinderTests.class,
+    PcListTokenizerTest.class,
     PcReaderTest.class,
     PcFinderTestsWithSimplificationTests.class
     })
@@ -19,6 +19,9 @@ import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.and;
 import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.not;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 
@@ -27,11 +30,14 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import net.ssehub.kernel_haven.SetUpException;
+import net.ssehub.kernel_haven.config.DefaultSettings;
 import net.ssehub.kernel_haven.analysis.AnalysisComponent;
 import net.ssehub.kernel_haven.build_model.BuildModel;
 import net.ssehub.kernel_haven.code_model.CodeBlock;
+import net.ssehub.kernel_haven.code_model.CodeElement;
 import net.ssehub.kernel_haven.code_model.SourceFile;
 import net.ssehub.kernel_haven.fe_analysis.AbstractFinderTests;
+import net.ssehub.kernel_haven.fe_analysis.Settings;
 import net.ssehub.kernel_haven.fe_analysis.Settings.SimplificationType;
 import net.ssehub.kernel_haven.logic_utils.LogicUtils;
 import net.ssehub.kernel_haven.test_utils.TestAnalysisComponentProvider;
@@ -146,6 +152,49 @@ public class CodeBlockAnalysisTests extends
         assertBlock(results.get(3), conditionalBlockElse, filePC, not(varA));
     }
     
+    /**
+     * Tests that the parallel mode passes on the blocks of multiple files sorted by path, even if the files finish out
+     * of order. The first (and last in path order) file is much larger than the others, thus it finishes last.
+     */
+    @Test
+    public void testMultipleFilesInParallel() {
+        Properties props = new Properties();
+        props.setProperty(CodeBlockAnalysis.THREADS.getKey(), "4");
+        List<net.ssehub.kernel_haven.fe_analysis.pcs.CodeBlockAnalysis.CodeBlock> results = runAnalysis(props,
+            createFile("src/c.c", 500), createFile("src/a.c", 1), createFile("src/b.c", 2));
+        
+        Assert.assertEquals(2 + 3 + 501, results.size());
+        assertFileBlocks(results, 0, "src/a.c", 1);
+        assertFileBlocks(results, 2, "src/b.c", 2);
+        assertFileBlocks(results, 5, "src/c.c", 500);
+    }
+    
+    /**
+     * Tests that spilling the blocks to disk passes on the blocks of multiple files sorted by path, even if the blocks
+     * of a file are spread over multiple runs. With a threshold of 2, a run is written for every 3 blocks, thus the 10
+     * blocks are split into 4 runs, each containing parts of different files. The runs are written to the cache
+     * directory and deleted after merging.
+     * 
+     * @throws IOException unwanted.
+     */
+    @Test
+    public void testMultipleFilesWithSpilling() throws IOException {
+        File cacheDir = Files.createTempDirectory("code_block_spilling").toFile();
+        Properties props = new Properties();
+        props.setProperty(CodeBlockAnalysis.SPILL_THRESHOLD.getKey(), "2");
+        props.setProperty(DefaultSettings.CACHE_DIR.getKey(), cacheDir.getAbsolutePath());
+        List<net.ssehub.kernel_haven.fe_analysis.pcs.CodeBlockAnalysis.CodeBlock> results = runAnalysis(props,
+            createFile("src/c.c", 3), createFile("src/a.c", 2), createFile("src/b.c", 2));
+        
+        Assert.assertEquals(0, cacheDir.list().length);
+        cacheDir.delete();
+        
+        Assert.assertEquals(3 + 3 + 4, results.size());
+        assertFileBlocks(results, 0, "src/a.c", 2);
+        assertFileBlocks(results, 3, "src/b.c", 2);
+        assertFileBlocks(results, 6, "src/c.c", 3);
+    }
+    
     /**
      * Tests handling of files with nested code blocks with a build model.
      */
@@ -256,6 +305,76 @@ public class CodeBlockAnalysisTests extends
         assertBlock(results.get(3), conditionalBlockElse, filePC, filePC);
     }
         
+    /**
+     * Creates a source file with a top-level block, which contains the given number of nested blocks. Each nested
+     * block spans a single line and has its own variable.
+     * @param path The path of the file.
+     * @param numNestedBlocks The number of nested blocks.
+     * @return The source file.
+     */
+    private static SourceFile<?> createFile(String path, int numNestedBlocks) {
+        File file = new File(path);
+        CodeBlock element = new CodeBlock(1, numNestedBlocks + 1, file, True.INSTANCE, True.INSTANCE);
+        for (int i = 1; i <= numNestedBlocks; i++) {
+            Variable var = new Variable("VAR_" + i);
+            element.addNestedElement(new CodeBlock(i + 1, i + 1, file, var, var));
+        }
+        
+        SourceFile<CodeElement<?>> sourceFile = new SourceFile<>(file);
+        sourceFile.addElement(element);
+        return sourceFile;
+    }
+    
+    /**
+     * Tests the blocks of a file created by {@link #createFile(String, int)}.
+     * @param results The results of the analysis.
+     * @param offset The index of the top-level block of the file in the results.
+     * @param path The path of the file.
+     * @param numNestedBlocks The number of nested blocks of the file.
+     */
+    private void assertFileBlocks(List<net.ssehub.kernel_haven.fe_analysis.pcs.CodeBlockAnalysis.CodeBlock> results,
+        int offset, String path, int numNestedBlocks) {
+        
+        String expectedPath = new File(path).getPath();
+        assertBlock(results.get(offset), expectedPath, True.INSTANCE, True.INSTANCE, True.INSTANCE, 1,
+            numNestedBlocks + 1);
+        for (int i = 1; i <= numNestedBlocks; i++) {
+            Variable var = new Variable("VAR_" + i);
+            assertBlock(results.get(offset + i), expectedPath, True.INSTANCE, var, var, i + 1, i + 1);
+        }
+    }
+    
+    /**
+     * Runs the analysis on multiple files.
+     * @param props Additional configuration settings.
+     * @param files The files to analyze, in the order in which they are passed to the analysis.
+     * @return The results of the analysis.
+     */
+    private List<net.ssehub.kernel_haven.fe_analysis.pcs.CodeBlockAnalysis.CodeBlock> runAnalysis(Properties props,
+        SourceFile<?>... files) {
+        
+        Properties config = new Properties();
+        config.setProperty(Settings.SIMPLIFIY.getKey(), SimplificationType.PRESENCE_CONDITIONS.name());
+        config.putAll(props);
+        
+        List<net.ssehub.kernel_haven.fe_analysis.pcs.CodeBlockAnalysis.CodeBlock> results = new ArrayList<>();
+        try {
+            TestConfiguration tConfig = new TestConfiguration(config);
+            tConfig.registerSetting(DefaultSettings.PREPARATION_CLASSES);
+            AnalysisComponent<net.ssehub.kernel_haven.fe_analysis.pcs.CodeBlockAnalysis.CodeBlock> analysis
+                = createAnalysor(tConfig, new TestAnalysisComponentProvider<SourceFile<?>>(files));
+            
+            net.ssehub.kernel_haven.fe_analysis.pcs.CodeBlockAnalysis.CodeBlock result;
+            while ((result = analysis.getNextResult()) != null) {
+                results.add(result);
+            }
+        } catch (SetUpException e) {
+            Assert.fail("Setting up the " + CodeBlockAnalysis.class.getSimpleName() + " failed: " + e.getMessage());
+        }
+        
+        return results;
+    }
+    
     /**
      * Tests one {@link net.ssehub.kernel_haven.fe_analysis.pcs.CodeBlockAnalysis.CodeBlock} based on the given input
      * block.
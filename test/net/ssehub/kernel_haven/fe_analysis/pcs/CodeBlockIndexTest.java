@@ -0,0 +1,123 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis.pcs;
+
+import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.and;
+import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.not;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import net.ssehub.kernel_haven.SetUpException;
+import net.ssehub.kernel_haven.config.DefaultSettings;
+import net.ssehub.kernel_haven.fe_analysis.pcs.CodeBlockAnalysis.CodeBlock;
+import net.ssehub.kernel_haven.test_utils.AnalysisComponentExecuter;
+import net.ssehub.kernel_haven.test_utils.TestConfiguration;
+import net.ssehub.kernel_haven.util.FormatException;
+import net.ssehub.kernel_haven.util.logic.Formula;
+import net.ssehub.kernel_haven.util.logic.True;
+import net.ssehub.kernel_haven.util.logic.Variable;
+import net.ssehub.kernel_haven.util.null_checks.NonNull;
+
+/**
+ * Tests the {@link CodeBlockIndexWriter} and {@link CodeBlockIndex}.
+ *
+ * @author agent
+ */
+public class CodeBlockIndexTest {
+
+    /**
+     * Tests point and range queries on an index of nested blocks.
+     *
+     * @throws SetUpException unwanted.
+     * @throws IOException unwanted.
+     * @throws FormatException unwanted.
+     */
+    @Test
+    public void testQueries() throws SetUpException, IOException, FormatException {
+        Formula x = new Variable("X");
+        Formula y = new Variable("Y");
+
+        // blocks of a.c are not sorted by start line
+        CodeBlock[] blocks = {
+            new CodeBlock("a.c", x, new Variable("A"), and(x, "A"), 10, 50),
+            new CodeBlock("a.c", x, new Variable("B"), and(x, "B"), 20, 30),
+            new CodeBlock("a.c", x, True.INSTANCE, x, 1, 100),
+            new CodeBlock("a.c", x, not("A"), and(x, not("A")), 60, 80),
+            new CodeBlock("b.c", y, new Variable("C"), and(y, "C"), 5, 10),
+        };
+
+        File outputDir = Files.createTempDirectory("code_block_index_test").toFile();
+        outputDir.deleteOnExit();
+        Properties props = new Properties();
+        props.setProperty(DefaultSettings.OUTPUT_DIR.getKey(), outputDir.getPath());
+        TestConfiguration config = new TestConfiguration(props);
+
+        List<@NonNull CodeBlock> result
+            = AnalysisComponentExecuter.executeComponent(CodeBlockIndexWriter.class, config, blocks);
+        assertThat(result, is(Arrays.asList(blocks)));
+
+        File indexFile = new File(outputDir, "code_blocks.khci");
+        indexFile.deleteOnExit();
+        try (CodeBlockIndex index = new CodeBlockIndex(indexFile)) {
+            assertThat(index.getPaths(), is(Arrays.asList("a.c", "b.c")));
+
+            // innermost block
+            assertThat(index.getPresenceCondition("a.c", 25), is(and(x, "B")));
+            assertThat(index.getPresenceCondition("a.c", 20), is(and(x, "B")));
+            // after a nested block: the enclosing block
+            assertThat(index.getPresenceCondition("a.c", 40), is(and(x, "A")));
+            assertThat(index.getPresenceCondition("a.c", 55), is(x));
+            assertThat(index.getPresenceCondition("a.c", 80), is(and(x, not("A"))));
+            // outside of all blocks: the file condition
+            assertThat(index.getPresenceCondition("a.c", 150), is(x));
+            assertThat(index.getPresenceCondition("b.c", 7), is(and(y, "C")));
+            assertThat(index.getPresenceCondition("b.c", 1), is(y));
+            assertThat(index.getPresenceCondition("c.c", 1), nullValue());
+
+            assertThat(index.getPresenceConditions("a.c", 25, 65),
+                is(Arrays.asList(x, and(x, "A"), and(x, "B"), and(x, not("A")))));
+            assertThat(index.getPresenceConditions("a.c", 85, 90), is(Arrays.asList(x)));
+            assertThat(index.getPresenceConditions("b.c", 1, 3).size(), is(0));
+            assertThat(index.getPresenceConditions("c.c", 1, 3).size(), is(0));
+        }
+    }
+
+    /**
+     * Tests that a file with different content is rejected.
+     *
+     * @throws IOException unwanted.
+     * @throws FormatException wanted.
+     */
+    @Test(expected = FormatException.class)
+    public void testNoIndexFile() throws IOException, FormatException {
+        File file = File.createTempFile("code_block_index_test", ".csv");
+        file.deleteOnExit();
+        Files.write(file.toPath(), "Path;File Condition;Block Condition;Presence Condition;start;end\n".getBytes());
+
+        new CodeBlockIndex(file).close();
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis.pcs;
+
+import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.and;
+import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.or;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Test;
+
+import net.ssehub.kernel_haven.util.logic.Formula;
+
+/**
+ * Tests the {@link CompactPcStore}.
+ *
+ * @author agent
+ */
+public class CompactPcStoreTest {
+
+    /**
+     * Tests that each distinct PC is stored once and that duplicates per variable are removed.
+     */
+    @Test
+    public void testDuplicates() {
+        VariableDictionary dictionary = new VariableDictionary();
+        CompactPcStore store = new CompactPcStore(dictionary);
+        int varA = dictionary.getId("A");
+        int varB = dictionary.getId("B");
+
+        int pc1 = store.addPc(and("A", "B"));
+        int pc2 = store.addPc(or("A", "C"));
+        assertThat(store.addPc(and("A", "B")), is(pc1));
+
+        store.add(varA, pc1);
+        store.add(varA, pc2);
+        store.add(varA, pc1);
+        store.add(varB, pc1);
+
+        assertThat(store.getDistinctPcs().size(), is(2));
+        assertArrayEquals(new int[] {varA, varB}, store.getVariables());
+        assertArrayEquals(new int[] {pc1, pc2}, store.getPcIds(varA));
+        assertThat(store.getPcs(varA), is(new HashSet<Formula>(Arrays.asList(and("A", "B"), or("A", "C")))));
+        assertThat(store.getPcs(varB), is(new HashSet<Formula>(Arrays.asList(and("A", "B")))));
+        assertThat(store.getPcs(dictionary.getId("C")).size(), is(0));
+    }
+
+    /**
+     * Tests that partial stores are merged correctly, even though their PC IDs differ.
+     */
+    @Test
+    public void testAddAll() {
+        VariableDictionary dictionary = new VariableDictionary();
+        CompactPcStore store1 = new CompactPcStore(dictionary);
+        CompactPcStore store2 = new CompactPcStore(dictionary);
+        int varA = dictionary.getId("A");
+        int varB = dictionary.getId("B");
+
+        store1.add(varA, store1.addPc(and("A", "B")));
+        store2.add(varB, store2.addPc(or("B", "C")));
+        store2.add(varA, store2.addPc(and("A", "B")));
+        store2.add(varB, store2.addPc(and("A", "B")));
+
+        store1.addAll(store2);
+
+        assertThat(store1.getDistinctPcs().size(), is(2));
+        assertThat(store1.getPcs(varA), is(new HashSet<Formula>(Arrays.asList(and("A", "B")))));
+        assertThat(store1.getPcs(varB), is(new HashSet<Formula>(Arrays.asList(and("A", "B"), or("B", "C")))));
+    }
+
+    /**
+     * Tests that the variable IDs are dense and map back to the names, also if the internal arrays need to grow.
+     */
+    @Test
+    public void testManyVariables() {
+        VariableDictionary dictionary = new VariableDictionary();
+        CompactPcStore store = new CompactPcStore(dictionary);
+        int pc = store.addPc(and("A", "B"));
+
+        for (int i = 0; i < 200; i++) {
+            assertThat(dictionary.getId("VAR_" + i), is(i));
+            store.add(i, pc);
+        }
+
+        assertThat(dictionary.size(), is(200));
+        assertThat(dictionary.getId("VAR_150"), is(150));
+        assertThat(dictionary.getName(150), is("VAR_150"));
+        assertThat(store.getVariables().length, is(200));
+    }
+
+    /**
+     * Tests that a store with local variable slots only holds the variables added to it, and that it is merged
+     * correctly into a store that is indexed by the variable IDs.
+     */
+    @Test
+    public void testLocalVariables() {
+        VariableDictionary dictionary = new VariableDictionary();
+        for (int i = 0; i < 1000; i++) {
+            dictionary.getId("VAR_" + i);
+        }
+        int varA = dictionary.getId("VAR_900");
+        int varB = dictionary.getId("VAR_17");
+
+        CompactPcStore partial = new CompactPcStore(dictionary, true);
+        int pc1 = partial.addPc(and("A", "B"));
+        int pc2 = partial.addPc(or("B", "C"));
+        partial.add(varA, pc1);
+        partial.add(varB, pc2);
+        partial.add(varA, pc1);
+        partial.add(varB, pc1);
+
+        assertArrayEquals(new int[] {varB, varA}, partial.getVariables());
+        assertArrayEquals(new int[] {pc1}, partial.getPcIds(varA));
+        assertArrayEquals(new int[] {pc1, pc2}, partial.getPcIds(varB));
+        assertThat(partial.getPcIds(dictionary.getId("VAR_5")).length, is(0));
+
+        CompactPcStore result = new CompactPcStore(dictionary);
+        result.add(varA, result.addPc(or("B", "C")));
+        result.addAll(partial);
+
+        assertArrayEquals(new int[] {varB, varA}, result.getVariables());
+        assertThat(result.getPcs(varA), is(new HashSet<Formula>(Arrays.asList(and("A", "B"), or("B", "C")))));
+        assertThat(result.getPcs(varB), is(new HashSet<Formula>(Arrays.asList(and("A", "B"), or("B", "C")))));
+        assertThat(result.getNumEntries(), is(4L));
+    }
+
+}
@@ -21,6 +21,9 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
@@ -35,7 +38,9 @@ import net.ssehub.kernel_haven.build_model.BuildModel;
 import net.ssehub.kernel_haven.code_model.CodeBlock;
 import net.ssehub.kernel_haven.code_model.CodeElement;
 import net.ssehub.kernel_haven.code_model.SourceFile;
+import net.ssehub.kernel_haven.config.DefaultSettings;
 import net.ssehub.kernel_haven.fe_analysis.AbstractFinderTests;
+import net.ssehub.kernel_haven.fe_analysis.Settings;
 import net.ssehub.kernel_haven.fe_analysis.Settings.SimplificationType;
 import net.ssehub.kernel_haven.fe_analysis.pcs.PcFinder.VariableWithPcs;
 import net.ssehub.kernel_haven.test_utils.TestAnalysisComponentProvider;
@@ -205,6 +210,37 @@ public class PcFinderTests extends AbstractFinderTests<VariableWithPcs> {
         Assert.assertEquals(3,  results.size());
     }
     
+    /**
+     * Checks if the BM PCs are combined correctly with nested elements, if non-boolean replacements are collapsed in
+     * both the file PC and the code PCs.
+     */
+    @Test
+    public void testWithBuildModelAndCombineNonBoolean() {
+        bm = new BuildModel();
+        bm.add(new File("file1.c"), new Variable("B_eq_1"));
+        
+        CodeBlock top = new CodeBlock(new Variable("A_eq_2"));
+        top.addNestedElement(new CodeBlock(and("A_eq_2", "C")));
+        
+        Properties props = new Properties();
+        props.put(PcFinder.COMBINE_NON_BOOLEAN.getKey(), "true");
+        List<VariableWithPcs> results = super.runAnalysis(top, SimplificationType.NO_SIMPLIFICATION, props);
+        
+        VariableWithPcs r = results.get(0);
+        assertThat(r.getVariable(), is("A"));
+        assertThat(r.getPcs(), is(set(and("B", "A"), and("B", and("A", "C")))));
+        
+        r = results.get(1);
+        assertThat(r.getVariable(), is("B"));
+        assertThat(r.getPcs(), is(set(new Variable("B"), and("B", "A"), and("B", and("A", "C")))));
+        
+        r = results.get(2);
+        assertThat(r.getVariable(), is("C"));
+        assertThat(r.getPcs(), is(set(and("B", and("A", "C")))));
+        
+        Assert.assertEquals(3,  results.size());
+    }
+    
     /**
      * Checks if non-boolean collapsing works.
      */
@@ -236,6 +272,117 @@ public class PcFinderTests extends AbstractFinderTests<VariableWithPcs> {
         Assert.assertEquals(3,  results.size());
     }
     
+    /**
+     * Checks if the parallel collection mode finds the same PCs as the sequential mode. Several files with unsorted
+     * paths share variables, thus the partial stores of the files have to be merged.
+     */
+    @Test
+    public void testParallelCollection() {
+        bm = new BuildModel();
+        bm.add(new File("dir/file1.c"), new Variable("X"));
+        bm.add(new File("dir/file2.c"), new Variable("Y"));
+        bm.add(new File("dir/file3.c"), new Variable("Z"));
+        
+        CodeBlock c3 = new CodeBlock(new Variable("A"));
+        c3.addNestedElement(new CodeBlock(and("A", "B")));
+        SourceFile<?> file3 = createFile("dir/file3.c", c3);
+        SourceFile<?> file1 = createFile("dir/file1.c", new CodeBlock(or("A", "C")));
+        SourceFile<?> file2 = createFile("dir/file2.c", new CodeBlock(new Variable("B")),
+            new CodeBlock(new Variable("A")));
+        SourceFile<?> file4 = createFile("dir/file4.c", new CodeBlock(new Variable("C")));
+        
+        List<VariableWithPcs> sequentialResults = detectPCs(new Properties(), file3, file1, file2, file4);
+        
+        Properties props = new Properties();
+        props.put(PcFinder.THREADS.getKey(), "4");
+        List<VariableWithPcs> results = detectPCs(props, file3, file1, file2, file4);
+        
+        VariableWithPcs r = results.get(0);
+        assertThat(r.getVariable(), is("A"));
+        assertThat(r.getPcs(), is(set(and("Z", "A"), and("Z", and("A", "B")), and("X", or("A", "C")),
+            and("Y", "A"))));
+        
+        Assert.assertEquals(sequentialResults.size(), results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertThat(results.get(i).getVariable(), is(sequentialResults.get(i).getVariable()));
+            assertThat(results.get(i).getPcs(), is(sequentialResults.get(i).getPcs()));
+        }
+        // A, B, C, X, Y, Z
+        Assert.assertEquals(6,  results.size());
+    }
+    
+    /**
+     * Checks that only the PCs of relevant variables are stored, if configured.
+     */
+    @Test
+    public void testRelevantVariablesOnly() {
+        CodeBlock c1 = new CodeBlock(or("A", "B"));
+        CodeBlock c2 = new CodeBlock(new Variable("A"));
+        
+        c2.addNestedElement(new CodeBlock(and("A", "C")));
+        
+        CodeBlock top = new CodeBlock(True.INSTANCE);
+        top.addNestedElement(c1);
+        top.addNestedElement(c2);
+        
+        Properties props = new Properties();
+        props.put(PcFinder.RELEVANT_VARIABLES_ONLY.getKey(), "true");
+        props.put(Settings.RELEVANT_VARIABLES.getKey(), "[AC]");
+        List<VariableWithPcs> results = super.runAnalysis(top, SimplificationType.NO_SIMPLIFICATION, props);
+        
+        // PCs that contain a relevant variable are still collected completely
+        VariableWithPcs r = results.get(0);
+        assertThat(r.getVariable(), is("A"));
+        assertThat(r.getPcs(), is(set(or("A", "B"), and("A", "C"), new Variable("A"))));
+        
+        r = results.get(1);
+        assertThat(r.getVariable(), is("C"));
+        assertThat(r.getPcs(), is(set(and("A", "C"))));
+        
+        Assert.assertEquals(2,  results.size());
+    }
+    
+    /**
+     * Checks that spilling the collected PCs to disk and merging the runs creates the same result as collecting in
+     * memory. The code model and the build model PCs end up in different runs, which both contain B. The runs are
+     * written to the cache directory and deleted after merging.
+     * 
+     * @throws IOException unwanted.
+     */
+    @Test
+    public void testSpilling() throws IOException {
+        bm = new BuildModel();
+        bm.add(new File("file1.c"), new Variable("B"));
+        bm.add(new File("file2.c"), new Variable("C"));
+        
+        considerAll = true;
+        
+        CodeBlock top = new CodeBlock(new Variable("A"));
+        
+        File cacheDir = Files.createTempDirectory("pc_finder_spilling").toFile();
+        Properties props = new Properties();
+        props.put(PcFinder.SPILL_THRESHOLD.getKey(), "1");
+        props.put(DefaultSettings.CACHE_DIR.getKey(), cacheDir.getAbsolutePath());
+        List<VariableWithPcs> results = super.runAnalysis(top, SimplificationType.NO_SIMPLIFICATION, props);
+        
+        assertThat(cacheDir.list().length, is(0));
+        cacheDir.delete();
+        
+        VariableWithPcs r = results.get(0);
+        assertThat(r.getVariable(), is("A"));
+        assertThat(r.getPcs(), is(set(and("B", "A"))));
+        
+        r = results.get(1);
+        assertThat(r.getVariable(), is("B"));
+        assertThat(r.getPcs(), is(set(new Variable("B"), and("B", "A"))));
+        
+        r = results.get(2);
+        assertThat(r.getVariable(), is("C"));
+        assertThat(r.getPcs(), is(set(new Variable("C"))));
+        
+        Assert.assertEquals(3,  results.size());
+    }
+    
     /**
      * Creates a set from varargs.
      * 
@@ -253,6 +400,53 @@ public class PcFinderTests extends AbstractFinderTests<VariableWithPcs> {
         return set;
     }
     
+    /**
+     * Creates a source file with the given top-level elements.
+     * 
+     * @param path The path of the file.
+     * @param elements The top-level elements of the file.
+     * 
+     * @return The source file.
+     */
+    private static SourceFile<?> createFile(String path, CodeElement<?>... elements) {
+        SourceFile<CodeElement<?>> file = new SourceFile<>(new File(path));
+        for (CodeElement<?> element : elements) {
+            file.addElement(element);
+        }
+        return file;
+    }
+    
+    /**
+     * Runs the {@link PcFinder} on the passed files and returns the result for testing.
+     * 
+     * @param props Additional configuration settings.
+     * @param files The files to analyze, in the order in which they are passed to the {@link PcFinder}.
+     * 
+     * @return The detected presence conditions.
+     */
+    private List<VariableWithPcs> detectPCs(Properties props, SourceFile<?>... files) {
+        Properties config = new Properties();
+        config.setProperty(Settings.SIMPLIFIY.getKey(), SimplificationType.NO_SIMPLIFICATION.name());
+        config.putAll(props);
+        
+        List<VariableWithPcs> results = new ArrayList<>();
+        try {
+            TestConfiguration tConfig = new TestConfiguration(config);
+            tConfig.registerSetting(DefaultSettings.PREPARATION_CLASSES);
+            AnalysisComponent<VariableWithPcs> finder
+                = createAnalysor(tConfig, new TestAnalysisComponentProvider<SourceFile<?>>(files));
+            
+            VariableWithPcs result;
+            while ((result = finder.getNextResult()) != null) {
+                results.add(result);
+            }
+        } catch (SetUpException e) {
+            Assert.fail("Setting up the " + PcFinder.class.getSimpleName() + " failed: " + e.getMessage());
+        }
+        
+        return results;
+    }
+    
     /**
      * Runs the {@link PcFinder} on the passed element and returns the result for testing.
      * @param element A mocked element, which should be analyzed by the {@link PcFinder}. 
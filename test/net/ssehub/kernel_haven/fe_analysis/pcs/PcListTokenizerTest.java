@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis.pcs;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import net.ssehub.kernel_haven.util.FormatException;
+
+/**
+ * Tests the {@link PcListTokenizer}.
+ *
+ * @author agent
+ */
+public class PcListTokenizerTest {
+
+    /**
+     * Tests a list in a single cell.
+     *
+     * @throws FormatException unwanted.
+     */
+    @Test
+    public void testSingleCell() throws FormatException {
+        PcListTokenizer tokenizer = new PcListTokenizer(new String[] {"VAR", "[A && B, C, 1]"}, 1);
+
+        assertThat(tokenizer.next(), is("A && B"));
+        assertThat(tokenizer.next(), is(" C"));
+        assertThat(tokenizer.next(), is(" 1"));
+        assertThat(tokenizer.next(), nullValue());
+        assertThat(tokenizer.next(), nullValue());
+    }
+
+    /**
+     * Tests a list that is spread over multiple cells, including presence conditions that span cell boundaries.
+     *
+     * @throws FormatException unwanted.
+     */
+    @Test
+    public void testMultipleCells() throws FormatException {
+        PcListTokenizer tokenizer = new PcListTokenizer(
+                new String[] {"VAR", "[(A || B)", "&& C, D", ", E || ", "F]"}, 1);
+
+        assertThat(tokenizer.next(), is("(A || B)&& C"));
+        assertThat(tokenizer.next(), is(" D"));
+        assertThat(tokenizer.next(), is(" E || F"));
+        assertThat(tokenizer.next(), nullValue());
+    }
+
+    /**
+     * Tests that a trailing empty element is ignored, like {@link String#split(String)} does, but an empty list is
+     * returned as a single empty element.
+     *
+     * @throws FormatException unwanted.
+     */
+    @Test
+    public void testEmptyElements() throws FormatException {
+        PcListTokenizer tokenizer = new PcListTokenizer(new String[] {"VAR", "[A,]"}, 1);
+        assertThat(tokenizer.next(), is("A"));
+        assertThat(tokenizer.next(), nullValue());
+
+        tokenizer = new PcListTokenizer(new String[] {"VAR", "[]"}, 1);
+        assertThat(tokenizer.next(), is(""));
+        assertThat(tokenizer.next(), nullValue());
+
+        tokenizer = new PcListTokenizer(new String[] {"VAR", "[A,,]"}, 1);
+        assertThat(tokenizer.next(), is("A"));
+        assertThat(tokenizer.next(), nullValue());
+
+        tokenizer = new PcListTokenizer(new String[] {"VAR", "[,]"}, 1);
+        assertThat(tokenizer.next(), nullValue());
+
+        tokenizer = new PcListTokenizer(new String[] {"VAR", "[,A,", ",]"}, 1);
+        assertThat(tokenizer.next(), is(""));
+        assertThat(tokenizer.next(), is("A"));
+        assertThat(tokenizer.next(), nullValue());
+    }
+
+    /**
+     * Tests that a list without closing bracket is rejected.
+     *
+     * @throws FormatException wanted.
+     */
+    @Test(expected = FormatException.class)
+    public void testMissingBracket() throws FormatException {
+        new PcListTokenizer(new String[] {"VAR", "[A, B", "C"}, 1);
+    }
+
+}
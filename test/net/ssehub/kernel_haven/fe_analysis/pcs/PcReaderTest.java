@@ -30,6 +30,7 @@ import java.util.Set;
 import org.junit.Test;
 
 import net.ssehub.kernel_haven.SetUpException;
+import net.ssehub.kernel_haven.fe_analysis.Settings;
 import net.ssehub.kernel_haven.fe_analysis.pcs.PcFinder.VariableWithPcs;
 import net.ssehub.kernel_haven.test_utils.AnalysisComponentExecuter;
 import net.ssehub.kernel_haven.test_utils.TestConfiguration;
@@ -190,6 +191,73 @@ public class PcReaderTest {
         assertThat(it.hasNext(), is(false));
     }
     
+    /**
+     * Tests that irrelevant variables are skipped, if configured.
+     * 
+     * @throws SetUpException unwanted.
+     */
+    @Test
+    public void testRelevantVariablesOnly() throws SetUpException {
+        Properties props = new Properties();
+        props.setProperty(PcFinder.RELEVANT_VARIABLES_ONLY.getKey(), "true");
+        props.setProperty(Settings.RELEVANT_VARIABLES.getKey(), "VAR_[AC]");
+        TestConfiguration config = new TestConfiguration(props);
+        config.registerSetting(PcReader.INPUT_FILE_SETTING);
+        config.setValue(PcReader.INPUT_FILE_SETTING, new File(TESTDATA, "valid.csv"));
+        
+        List<@NonNull VariableWithPcs> effects = AnalysisComponentExecuter.executeComponent(PcReader.class, config);
+        
+        VariableWithPcs var;
+        Iterator<VariableWithPcs> it = effects.iterator();
+        Set<@NonNull Formula> pcs = new HashSet<>();
+
+        var = it.next();
+        pcs.add(new Variable("VAR_A"));
+        assertThat(var.getVariable(), is("VAR_A"));
+        assertThat(var.getPcs(), is(pcs));
+        
+        var = it.next();
+        pcs.clear();
+        pcs.add(True.INSTANCE);
+        assertThat(var.getVariable(), is("VAR_C"));
+        assertThat(var.getPcs(), is(pcs));
+        
+        assertThat(it.hasNext(), is(false));
+    }
+    
+    /**
+     * Tests that parsing with multiple threads keeps the order of the file and skips invalid rows.
+     * 
+     * @throws SetUpException unwanted.
+     */
+    @Test
+    public void testParallelParsing() throws SetUpException {
+        Properties props = new Properties();
+        props.setProperty(Settings.READER_THREADS.getKey(), "4");
+        TestConfiguration config = new TestConfiguration(props);
+        config.registerSetting(PcReader.INPUT_FILE_SETTING);
+        config.setValue(PcReader.INPUT_FILE_SETTING, new File(TESTDATA, "invalid_formula.csv"));
+        
+        List<@NonNull VariableWithPcs> effects = AnalysisComponentExecuter.executeComponent(PcReader.class, config);
+        
+        VariableWithPcs var;
+        Iterator<VariableWithPcs> it = effects.iterator();
+        Set<@NonNull Formula> pcs = new HashSet<>();
+
+        var = it.next();
+        pcs.add(new Variable("VAR_A"));
+        assertThat(var.getVariable(), is("VAR_A"));
+        assertThat(var.getPcs(), is(pcs));
+        
+        var = it.next();
+        pcs.clear();
+        pcs.add(True.INSTANCE);
+        assertThat(var.getVariable(), is("VAR_C"));
+        assertThat(var.getPcs(), is(pcs));
+        
+        assertThat(it.hasNext(), is(false));
+    }
+    
     /**
      * Runs the {@link PcReader} on the given input file.
      * 
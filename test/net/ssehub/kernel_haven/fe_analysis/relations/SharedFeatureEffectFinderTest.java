@@ -0,0 +1,178 @@
+/*
+ * Copyright 2026 University of Hildesheim, Software Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.kernel_haven.fe_analysis.relations;
+
+import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.and;
+import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.not;
+import static net.ssehub.kernel_haven.util.logic.FormulaBuilder.or;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import org.junit.Test;
+
+import net.ssehub.kernel_haven.SetUpException;
+import net.ssehub.kernel_haven.fe_analysis.Settings;
+import net.ssehub.kernel_haven.fe_analysis.Settings.FeComputationType;
+import net.ssehub.kernel_haven.fe_analysis.Settings.SimplificationType;
+import net.ssehub.kernel_haven.fe_analysis.fes.FeatureEffectFinder;
+import net.ssehub.kernel_haven.fe_analysis.fes.FeatureEffectFinder.VariableWithFeatureEffect;
+import net.ssehub.kernel_haven.fe_analysis.pcs.PcFinder.VariableWithPcs;
+import net.ssehub.kernel_haven.fe_analysis.relations.SharedFeatureEffectFinder.FeatureEffectWithParents;
+import net.ssehub.kernel_haven.test_utils.AnalysisComponentExecuter;
+import net.ssehub.kernel_haven.test_utils.TestConfiguration;
+import net.ssehub.kernel_haven.util.logic.Formula;
+import net.ssehub.kernel_haven.util.logic.Variable;
+import net.ssehub.kernel_haven.util.null_checks.NonNull;
+
+/**
+ * Tests the {@link SharedFeatureEffectFinder}.
+ *
+ * @author agent
+ */
+public class SharedFeatureEffectFinderTest {
+
+    /**
+     * Creates the input presence conditions for the tests.
+     *
+     * @return The variables with their presence conditions.
+     */
+    @SuppressWarnings("null")
+    private static VariableWithPcs[] createInput() {
+        Set<@NonNull Formula> pcs = new HashSet<>();
+        pcs.add(new Variable("A"));
+        pcs.add(and("A", "B"));
+        VariableWithPcs a = new VariableWithPcs("A", pcs);
+
+        pcs = new HashSet<>();
+        pcs.add(and("A", "B"));
+        pcs.add(and(and("A", "B"), "C"));
+        pcs.add(and("B", "C"));
+        VariableWithPcs b = new VariableWithPcs("B", pcs);
+
+        pcs = new HashSet<>();
+        pcs.add(and(or("A", "B"), "C"));
+        VariableWithPcs c = new VariableWithPcs("C", pcs);
+
+        return new VariableWithPcs[] {a, b, c};
+    }
+
+    /**
+     * Tests that the results are the same as the ones of the {@link FeatureEffectFinder} and the
+     * {@link PotentialParentFinder}.
+     *
+     * @throws SetUpException unwanted.
+     */
+    @Test
+    @SuppressWarnings("null")
+    public void testSameResultsAsSeparateFinders() throws SetUpException {
+        List<FeatureEffectWithParents> result = AnalysisComponentExecuter.executeComponent(
+                SharedFeatureEffectFinder.class, new TestConfiguration(new Properties()), createInput());
+        List<VariableWithFeatureEffect> expectedFes = AnalysisComponentExecuter.executeComponent(
+                FeatureEffectFinder.class, new TestConfiguration(new Properties()), createInput());
+        List<VariableWithPotentialParents> expectedParents = AnalysisComponentExecuter.executeComponent(
+                PotentialParentFinder.class, new TestConfiguration(new Properties()), createInput());
+
+        assertThat(result.size(), is(3));
+        for (int i = 0; i < result.size(); i++) {
+            assertThat(result.get(i).getFeatureEffect(), is(expectedFes.get(i)));
+            assertThat(result.get(i).getPotentialParents().toString(), is(expectedParents.get(i).toString()));
+        }
+    }
+
+    /**
+     * Creates input presence conditions that are not simple conjunctions or disjunctions of literals, so that their
+     * XOR elements are created by replacing the variable.
+     *
+     * @return The variables with their presence conditions.
+     */
+    @SuppressWarnings("null")
+    private static VariableWithPcs[] createGenericInput() {
+        Set<@NonNull Formula> pcs = new HashSet<>();
+        pcs.add(or("A", and("B", "C")));
+        pcs.add(and(or("A", "B"), or("C", not("A"))));
+        VariableWithPcs a = new VariableWithPcs("A", pcs);
+
+        pcs = new HashSet<>();
+        pcs.add(and(or("A", "B"), "C"));
+        pcs.add(or(and("B", "D"), and(not("B"), "E")));
+        VariableWithPcs b = new VariableWithPcs("B", pcs);
+
+        return new VariableWithPcs[] {a, b};
+    }
+
+    /**
+     * Tests that the results are the same as the ones of the {@link FeatureEffectFinder} and the
+     * {@link PotentialParentFinder} for each simplification mode and for the computation on BDDs. The
+     * {@link PotentialParentFinder} always simplifies, thus the potential parents must not depend on these settings.
+     *
+     * @throws SetUpException unwanted.
+     */
+    @Test
+    @SuppressWarnings("null")
+    public void testSameResultsForAllModes() throws SetUpException {
+        List<VariableWithPotentialParents> expectedParents = AnalysisComponentExecuter.executeComponent(
+                PotentialParentFinder.class, new TestConfiguration(new Properties()), createGenericInput());
+
+        for (SimplificationType simplification : SimplificationType.values()) {
+            for (FeComputationType computation : FeComputationType.values()) {
+                Properties props = new Properties();
+                props.setProperty(Settings.SIMPLIFIY.getKey(), simplification.name());
+                props.setProperty(Settings.FE_COMPUTATION.getKey(), computation.name());
+
+                List<FeatureEffectWithParents> result = AnalysisComponentExecuter.executeComponent(
+                        SharedFeatureEffectFinder.class, new TestConfiguration(props), createGenericInput());
+                List<VariableWithFeatureEffect> expectedFes = AnalysisComponentExecuter.executeComponent(
+                        FeatureEffectFinder.class, new TestConfiguration(props), createGenericInput());
+
+                String mode = simplification + ", " + computation;
+                assertThat(mode, result.size(), is(2));
+                for (int i = 0; i < result.size(); i++) {
+                    assertThat(mode, result.get(i).getFeatureEffect(), is(expectedFes.get(i)));
+                    assertThat(mode, result.get(i).getPotentialParents().toString(),
+                            is(expectedParents.get(i).toString()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that variables that are not relevant get potential parents, but no feature effect.
+     *
+     * @throws SetUpException unwanted.
+     */
+    @Test
+    @SuppressWarnings("null")
+    public void testIrrelevantVariable() throws SetUpException {
+        Properties props = new Properties();
+        props.setProperty(Settings.RELEVANT_VARIABLES.getKey(), "[AC]");
+        List<FeatureEffectWithParents> result = AnalysisComponentExecuter.executeComponent(
+                SharedFeatureEffectFinder.class, new TestConfiguration(props), createInput());
+
+        assertThat(result.size(), is(3));
+        assertThat(result.get(0).getFeatureEffect().getVariable(), is("A"));
+        assertThat(result.get(1).getFeatureEffect(), nullValue());
+        assertThat(result.get(1).getPotentialParents().getVariable(), is("B"));
+        assertThat(result.get(1).getPotentialParents().getPotentialParent("A").getProbability(), is(2.0 / 3.0));
+        assertThat(result.get(2).getFeatureEffect().getVariable(), is("C"));
+    }
+
+}